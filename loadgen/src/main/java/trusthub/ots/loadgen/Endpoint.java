@@ -0,0 +1,23 @@
+package trusthub.ots.loadgen;
+
+/** Endpoints de la API OTS que se ejercitan. */
+public enum Endpoint {
+    STAMP("/api/ots/stamp"),
+    UPGRADE("/api/ots/upgrade"),
+    INFO("/api/ots/info"),
+    VERIFY("/api/ots/verify");
+
+    private final String path;
+
+    Endpoint(String path) {
+        this.path = path;
+    }
+
+    public String path() {
+        return path;
+    }
+
+    public String key() {
+        return name().toLowerCase();
+    }
+}
@@ -0,0 +1,95 @@
+package trusthub.ots.loadgen;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latencias (µs, desde el instante <em>planificado</em> de envío) y códigos de respuesta
+ * de un endpoint. Medir desde el instante planificado y no desde el envío real evita el
+ * coordinated omission: si el servidor o el propio generador se atrasan, la espera cuenta.
+ */
+public class EndpointStats {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    private final Endpoint endpoint;
+    private final Histogram latencyMicros = new ConcurrentHistogram(3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder failures = new LongAdder();
+
+    public EndpointStats(Endpoint endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public void record(long latencyMicros, int status) {
+        this.latencyMicros.recordValue(Math.max(1, latencyMicros));
+        statuses.computeIfAbsent(status, s -> new LongAdder()).increment();
+    }
+
+    /** Timeout o error de conexión: entra al histograma con la latencia hasta el fallo. */
+    public void recordFailure(long latencyMicros) {
+        this.latencyMicros.recordValue(Math.max(1, latencyMicros));
+        failures.increment();
+    }
+
+    public long count() {
+        return latencyMicros.getTotalCount();
+    }
+
+    public long ok() {
+        long ok = 0;
+        for (Map.Entry<Integer, LongAdder> e : statuses.entrySet()) {
+            if (e.getKey() / 100 == 2) ok += e.getValue().sum();
+        }
+        return ok;
+    }
+
+    public void printPercentileDistribution(PrintStream out) {
+        latencyMicros.outputPercentileDistribution(out, 1000.0); // en ms
+    }
+
+    /** Objeto JSON con conteos, percentiles (ms) y códigos de estado. */
+    public String toJson(double durationSeconds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"endpoint\":\"").append(endpoint.path()).append('"');
+        sb.append(",\"count\":").append(count());
+        sb.append(",\"ok\":").append(ok());
+        sb.append(",\"failures\":").append(failures.sum());
+        sb.append(",\"throughput_rps\":").append(round(count() / Math.max(durationSeconds, 1e-9)));
+        sb.append(",\"latency_ms\":{");
+        sb.append("\"mean\":").append(round(latencyMicros.getMean() / 1000.0));
+        for (double p : PERCENTILES) {
+            sb.append(",\"p").append(String.valueOf(p).replace(".0", "").replace('.', '_')).append("\":")
+                    .append(round(latencyMicros.getValueAtPercentile(p) / 1000.0));
+        }
+        sb.append(",\"max\":").append(round(latencyMicros.getMaxValue() / 1000.0));
+        sb.append("},\"status\":{");
+        boolean first = true;
+        for (Map.Entry<Integer, LongAdder> e : new TreeMap<>(statuses).entrySet()) {
+            if (!first) sb.append(',');
+            sb.append('"').append(e.getKey()).append("\":").append(e.getValue().sum());
+            first = false;
+        }
+        sb.append("}}");
+        return sb.toString();
+    }
+
+    public String summaryLine() {
+        return String.format("%-8s n=%-7d ok=%-7d fail=%-5d p50=%8.2fms p99=%8.2fms p99.9=%8.2fms max=%8.2fms",
+                endpoint.key(), count(), ok(), failures.sum(),
+                latencyMicros.getValueAtPercentile(50) / 1000.0,
+                latencyMicros.getValueAtPercentile(99) / 1000.0,
+                latencyMicros.getValueAtPercentile(99.9) / 1000.0,
+                latencyMicros.getMaxValue() / 1000.0);
+    }
+
+    private static double round(double v) {
+        return Math.round(v * 1000.0) / 1000.0;
+    }
+}
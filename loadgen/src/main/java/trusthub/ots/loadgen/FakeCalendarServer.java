@@ -0,0 +1,150 @@
+package trusthub.ots.loadgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Calendario OpenTimestamps local para pruebas de carga (sin red ni Bitcoin).
+ * <p>
+ * {@code POST /digest} responde un timestamp válido: append(nonce) → sha256 → PendingAttestation
+ * apuntando a este mismo servidor. {@code GET /timestamp/<hex>} responde siempre 404
+ * ("pending"), igual que un calendario real antes de la confirmación. Se usa levantando la
+ * app con {@code --ots.calendars=http://localhost:<puerto>}.
+ * </p>
+ */
+public class FakeCalendarServer implements AutoCloseable {
+
+    private static final byte[] PENDING_TAG = {(byte) 0x83, (byte) 0xdf, (byte) 0xe3, 0x0d, 0x2e, (byte) 0xf9, 0x0c, (byte) 0x8e};
+    private static final int OP_APPEND = 0xf0;
+    private static final int OP_SHA256 = 0x08;
+
+    private final HttpServer server;
+    private final String uri;
+    private final long delayMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final AtomicLong digests = new AtomicLong();
+    private final AtomicLong upgrades = new AtomicLong();
+
+    /**
+     * @param port puerto local (0 = cualquiera libre)
+     * @param delayMillis latencia artificial por request, para simular un calendario remoto
+     */
+    public FakeCalendarServer(int port, long delayMillis) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        this.server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        this.uri = "http://127.0.0.1:" + server.getAddress().getPort();
+        this.delayMillis = delayMillis;
+        server.createContext("/digest", this::digest);
+        server.createContext("/timestamp/", this::timestamp);
+    }
+
+    public FakeCalendarServer start() {
+        server.start();
+        return this;
+    }
+
+    public String uri() {
+        return uri;
+    }
+
+    public long digestsServed() {
+        return digests.get();
+    }
+
+    public long upgradesServed() {
+        return upgrades.get();
+    }
+
+    private void digest(HttpExchange ex) throws IOException {
+        try (ex) {
+            if (!"POST".equals(ex.getRequestMethod())) {
+                ex.sendResponseHeaders(405, -1);
+                return;
+            }
+            byte[] body = ex.getRequestBody().readNBytes(1024);
+            if (body.length == 0 || body.length > 64) {
+                ex.sendResponseHeaders(400, -1);
+                return;
+            }
+            pause();
+            byte[] nonce = new byte[16];
+            random.nextBytes(nonce);
+
+            ByteArrayOutputStream ts = new ByteArrayOutputStream();
+            ts.write(OP_APPEND);
+            writeVarBytes(ts, nonce);
+            ts.write(OP_SHA256);
+            ts.write(0x00); // attestation
+            ts.write(PENDING_TAG);
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            writeVarBytes(payload, uri.getBytes(StandardCharsets.US_ASCII));
+            writeVarBytes(ts, payload.toByteArray());
+
+            byte[] out = ts.toByteArray();
+            ex.getResponseHeaders().set("Content-Type", "application/octet-stream");
+            ex.sendResponseHeaders(200, out.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(out);
+            }
+            digests.incrementAndGet();
+        }
+    }
+
+    private void timestamp(HttpExchange ex) throws IOException {
+        try (ex) {
+            pause();
+            upgrades.incrementAndGet();
+            byte[] out = "Pending confirmation in Bitcoin blockchain".getBytes(StandardCharsets.UTF_8);
+            ex.sendResponseHeaders(404, out.length);
+            try (OutputStream os = ex.getResponseBody()) {
+                os.write(out);
+            }
+        }
+    }
+
+    private void pause() {
+        if (delayMillis <= 0) return;
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void writeVarBytes(ByteArrayOutputStream out, byte[] bytes) {
+        writeVarUInt(out, bytes.length);
+        out.writeBytes(bytes);
+    }
+
+    private static void writeVarUInt(ByteArrayOutputStream out, long value) {
+        do {
+            int b = (int) (value & 0x7f);
+            value >>>= 7;
+            if (value != 0) b |= 0x80;
+            out.write(b);
+        } while (value != 0);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    /** Uso: FakeCalendarServer [puerto] [delayMillis] */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 14788;
+        long delay = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        FakeCalendarServer cal = new FakeCalendarServer(port, delay).start();
+        System.out.println("Calendario local escuchando en " + cal.uri() + " (Ctrl+C para terminar)");
+        Thread.currentThread().join();
+    }
+}
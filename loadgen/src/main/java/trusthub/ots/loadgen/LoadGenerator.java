@@ -0,0 +1,194 @@
+package trusthub.ots.loadgen;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Generador de carga de modelo abierto para la API OTS.
+ * <p>
+ * Las requests salen a una tasa fija ({@code --rate}) en instantes planificados de antemano,
+ * sin esperar a que terminen las anteriores; la latencia se mide desde el instante
+ * planificado (ver {@link EndpointStats}). Al final imprime un resumen y escribe un reporte
+ * JSON por endpoint con percentiles HdrHistogram.
+ * </p>
+ * <pre>
+ * mvn -q exec:java -Dexec.args="--base-url=http://localhost:8080 --rate=100 --duration=60 --mix=info=4,verify=4,stamp=1,upgrade=1"
+ * </pre>
+ * Opciones: base-url, rate (req/s), duration y warmup (segundos), mix, samples (directorio con
+ * pares PDF/.ots), synthetic (cantidad de PDFs sintéticos), synthetic-kb, timeout (segundos),
+ * max-in-flight, seed, report (archivo JSON), hgrm-dir (distribuciones completas por endpoint),
+ * fake-calendar-port (levanta un {@link FakeCalendarServer} en ese puerto durante la corrida).
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        String baseUrl = opts.getOrDefault("base-url", "http://localhost:8080");
+        double rate = Double.parseDouble(opts.getOrDefault("rate", "50"));
+        long durationSec = Long.parseLong(opts.getOrDefault("duration", "60"));
+        long warmupSec = Long.parseLong(opts.getOrDefault("warmup", "5"));
+        Map<Endpoint, Integer> mix = parseMix(opts.getOrDefault("mix", "stamp=1,upgrade=1,info=4,verify=4"));
+        Path samples = Path.of(opts.getOrDefault("samples", "../Java only/PRUEBA OTS"));
+        int synthetic = Integer.parseInt(opts.getOrDefault("synthetic", "20"));
+        int syntheticKb = Integer.parseInt(opts.getOrDefault("synthetic-kb", "256"));
+        Duration timeout = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("timeout", "30")));
+        int maxInFlight = Integer.parseInt(opts.getOrDefault("max-in-flight", "5000"));
+        long seed = Long.parseLong(opts.getOrDefault("seed", "42"));
+        Path report = Path.of(opts.getOrDefault("report", "loadgen-report.json"));
+        String hgrmDir = opts.get("hgrm-dir");
+
+        FakeCalendarServer calendar = null;
+        if (opts.containsKey("fake-calendar-port")) {
+            calendar = new FakeCalendarServer(Integer.parseInt(opts.get("fake-calendar-port")), 0).start();
+            System.out.println("Calendario local en " + calendar.uri() + " (la app debe arrancar con --ots.calendars=" + calendar.uri() + ")");
+        }
+
+        Workload workload = new Workload(baseUrl, samples, synthetic, syntheticKb, seed);
+        if (workload.pairCount() == 0) {
+            mix.keySet().removeIf(e -> e != Endpoint.STAMP);
+            System.out.println("Sin pares PDF/.ots en " + samples + ": solo se ejercita stamp");
+        }
+        System.out.printf("Objetivo: %.1f req/s durante %ds (+%ds de warm-up), mix=%s, %d documentos, %d pares%n",
+                rate, durationSec, warmupSec, mix, workload.documentCount(), workload.pairCount());
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+
+        Map<Endpoint, EndpointStats> warmupStats = statsFor(mix);
+        Map<Endpoint, EndpointStats> stats = statsFor(mix);
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LongAdder skipped = new LongAdder();
+        Endpoint[] schedule = weightedSchedule(mix, new Random(seed));
+
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(warmupSec);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSec);
+        Instant startedAt = Instant.now();
+
+        for (long i = 0; ; i++) {
+            long intended = start + i * periodNanos;
+            if (intended >= end) break;
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) LockSupport.parkNanos(wait);
+
+            Endpoint endpoint = schedule[(int) (i % schedule.length)];
+            EndpointStats target = (intended < warmupEnd ? warmupStats : stats).get(endpoint);
+            if (!inFlight.tryAcquire()) {
+                // el cliente está saturado: se cuenta, no se encola (no debe frenar la tasa)
+                skipped.increment();
+                target.recordFailure(TimeUnit.NANOSECONDS.toMicros(timeout.toNanos()));
+                continue;
+            }
+            client.sendAsync(workload.request(endpoint, i).timeout(timeout).build(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resp, err) -> {
+                        long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intended);
+                        if (err != null) target.recordFailure(micros);
+                        else target.record(micros, resp.statusCode());
+                        inFlight.release();
+                    });
+        }
+
+        // espera a que terminen las requests en vuelo
+        if (!inFlight.tryAcquire(maxInFlight, timeout.toSeconds() + 5, TimeUnit.SECONDS)) {
+            System.out.println("Aviso: quedaron requests en vuelo al cerrar el reporte");
+        }
+        if (calendar != null) calendar.close();
+
+        System.out.println();
+        for (EndpointStats s : stats.values()) System.out.println(s.summaryLine());
+        if (skipped.sum() > 0) {
+            System.out.println("Requests no enviadas por max-in-flight (contadas como fallas): " + skipped.sum());
+        }
+
+        writeReport(report, baseUrl, rate, durationSec, startedAt, mix, skipped.sum(), stats);
+        System.out.println("Reporte: " + report.toAbsolutePath());
+        if (hgrmDir != null) {
+            Files.createDirectories(Path.of(hgrmDir));
+            for (Map.Entry<Endpoint, EndpointStats> e : stats.entrySet()) {
+                Path f = Path.of(hgrmDir, e.getKey().key() + ".hgrm");
+                try (PrintStream out = new PrintStream(Files.newOutputStream(f), true, StandardCharsets.UTF_8)) {
+                    e.getValue().printPercentileDistribution(out);
+                }
+            }
+        }
+        System.exit(0);
+    }
+
+    private static void writeReport(Path report, String baseUrl, double rate, long durationSec, Instant startedAt,
+                                    Map<Endpoint, Integer> mix, long skipped, Map<Endpoint, EndpointStats> stats) throws IOException {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n  \"base_url\": \"").append(baseUrl).append("\",\n");
+        sb.append("  \"started_at\": \"").append(startedAt).append("\",\n");
+        sb.append("  \"target_rate_rps\": ").append(rate).append(",\n");
+        sb.append("  \"duration_s\": ").append(durationSec).append(",\n");
+        sb.append("  \"mix\": \"").append(mix).append("\",\n");
+        sb.append("  \"skipped\": ").append(skipped).append(",\n");
+        sb.append("  \"endpoints\": [\n");
+        List<String> rows = new ArrayList<>();
+        for (EndpointStats s : stats.values()) rows.add("    " + s.toJson(durationSec));
+        sb.append(String.join(",\n", rows)).append("\n  ]\n}\n");
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+        Files.writeString(report, sb.toString());
+    }
+
+    private static Map<Endpoint, EndpointStats> statsFor(Map<Endpoint, Integer> mix) {
+        Map<Endpoint, EndpointStats> out = new EnumMap<>(Endpoint.class);
+        for (Endpoint e : mix.keySet()) out.put(e, new EndpointStats(e));
+        return out;
+    }
+
+    /** Secuencia barajada con cada endpoint repetido según su peso (determinística por seed). */
+    private static Endpoint[] weightedSchedule(Map<Endpoint, Integer> mix, Random random) {
+        List<Endpoint> out = new ArrayList<>();
+        for (Map.Entry<Endpoint, Integer> e : mix.entrySet()) {
+            for (int i = 0; i < e.getValue() * 10; i++) out.add(e.getKey());
+        }
+        if (out.isEmpty()) throw new IllegalArgumentException("--mix no tiene endpoints con peso > 0");
+        Collections.shuffle(out, random);
+        return out.toArray(new Endpoint[0]);
+    }
+
+    private static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String item : spec.split(",")) {
+            String[] kv = item.trim().split("=");
+            int weight = kv.length > 1 ? Integer.parseInt(kv[1].trim()) : 1;
+            if (weight > 0) mix.put(Endpoint.valueOf(kv[0].trim().toUpperCase()), weight);
+        }
+        return mix;
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String a : args) {
+            if (!a.startsWith("--")) throw new IllegalArgumentException("Argumento inválido: " + a);
+            int eq = a.indexOf('=');
+            if (eq < 0) opts.put(a.substring(2), "true");
+            else opts.put(a.substring(2, eq), a.substring(eq + 1));
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,122 @@
+package trusthub.ots.loadgen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+/**
+ * Arma las requests multipart de cada endpoint a partir de los pares PDF/.ots de ejemplo
+ * ({@code Java only/PRUEBA OTS}) y de PDFs sintéticos generados en memoria.
+ * Los cuerpos se arman una sola vez al arrancar, para no medir el costo del propio generador.
+ */
+public class Workload {
+
+    /** Par documento + .ots (el .ots puede ser null para documentos sintéticos). */
+    public record Sample(String name, byte[] pdf, byte[] ots) { }
+
+    /** Cuerpo multipart ya serializado. */
+    public record Body(String contentType, byte[] bytes) { }
+
+    private final String baseUrl;
+    private final List<Sample> pairs = new ArrayList<>();
+    private final List<Sample> documents = new ArrayList<>();
+    private final List<Body> stampBodies = new ArrayList<>();
+    private final List<Body> otsBodies = new ArrayList<>();
+    private final List<Body> verifyBodies = new ArrayList<>();
+
+    public Workload(String baseUrl, Path samplesDir, int syntheticCount, int syntheticKb, long seed) throws IOException {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        loadSamples(samplesDir);
+        Random random = new Random(seed);
+        for (int i = 0; i < syntheticCount; i++) {
+            documents.add(new Sample("synthetic-" + i + ".pdf", syntheticPdf(random, syntheticKb * 1024), null));
+        }
+        documents.addAll(pairs);
+        if (documents.isEmpty()) throw new IllegalArgumentException("No hay documentos: revisar --samples / --synthetic");
+
+        for (Sample s : documents) stampBodies.add(multipart(part("file", s.name(), "application/pdf", s.pdf())));
+        for (Sample s : pairs) {
+            otsBodies.add(multipart(part("ots", s.name() + ".ots", "application/octet-stream", s.ots())));
+            verifyBodies.add(multipart(
+                    part("ots", s.name() + ".ots", "application/octet-stream", s.ots()),
+                    part("file", s.name(), "application/pdf", s.pdf())));
+        }
+    }
+
+    public int pairCount() {
+        return pairs.size();
+    }
+
+    public int documentCount() {
+        return documents.size();
+    }
+
+    /** Request para el endpoint; {@code i} elige el sample de forma round-robin. */
+    public HttpRequest.Builder request(Endpoint endpoint, long i) {
+        List<Body> bodies = switch (endpoint) {
+            case STAMP -> stampBodies;
+            case UPGRADE, INFO -> otsBodies;
+            case VERIFY -> verifyBodies;
+        };
+        if (bodies.isEmpty()) {
+            throw new IllegalStateException("No hay pares PDF/.ots para " + endpoint.path());
+        }
+        Body body = bodies.get((int) (i % bodies.size()));
+        return HttpRequest.newBuilder(URI.create(baseUrl + endpoint.path()))
+                .header("Content-Type", body.contentType())
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body.bytes()));
+    }
+
+    private void loadSamples(Path dir) throws IOException {
+        if (dir == null || !Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path pdf : files.filter(p -> p.toString().toLowerCase().endsWith(".pdf")).sorted().toList()) {
+                Path ots = pdf.resolveSibling(pdf.getFileName() + ".ots");
+                if (Files.isRegularFile(ots)) {
+                    pairs.add(new Sample(pdf.getFileName().toString(), Files.readAllBytes(pdf), Files.readAllBytes(ots)));
+                }
+            }
+        }
+    }
+
+    /** PDF mínimo con relleno aleatorio: cada uno tiene un hash distinto. */
+    private static byte[] syntheticPdf(Random random, int size) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(size + 64);
+        out.writeBytes("%PDF-1.4\n%loadgen\n".getBytes(StandardCharsets.US_ASCII));
+        byte[] filler = new byte[Math.max(0, size - 32)];
+        random.nextBytes(filler);
+        out.writeBytes(filler);
+        out.writeBytes("\n%%EOF\n".getBytes(StandardCharsets.US_ASCII));
+        return out.toByteArray();
+    }
+
+    private record Part(String name, String filename, String contentType, byte[] content) { }
+
+    private static Part part(String name, String filename, String contentType, byte[] content) {
+        return new Part(name, filename, contentType, content);
+    }
+
+    private static Body multipart(Part... parts) {
+        String boundary = "loadgen-" + UUID.randomUUID();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Part p : parts) {
+            String header = "--" + boundary + "\r\n"
+                    + "Content-Disposition: form-data; name=\"" + p.name() + "\"; filename=\"" + p.filename() + "\"\r\n"
+                    + "Content-Type: " + p.contentType() + "\r\n\r\n";
+            out.writeBytes(header.getBytes(StandardCharsets.UTF_8));
+            out.writeBytes(p.content());
+            out.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+        }
+        out.writeBytes(("--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+        return new Body("multipart/form-data; boundary=" + boundary, out.toByteArray());
+    }
+}
@@ -0,0 +1,63 @@
+#!/usr/bin/env bash
+#
+# Compara el tiempo hasta la primera respuesta útil (POST /api/ots/info con un .ots
+# de ejemplo, sin red) en tres modos: JVM, JVM + AppCDS e imagen nativa.
+#
+# Requisitos previos (desde la raíz del repo):
+#   mvn -B package                 -> target/opentimestamp-poc-0.0.1-SNAPSHOT.jar
+#   mvn -B -Pcds package           -> target/cds/ (jar extraído + application.jsa)
+#   mvn -B -Pnative native:compile -> target/opentimestamp-poc
+#
+# Uso: scripts/startup-benchmark.sh [repeticiones]   (default 5)
+# Los modos cuyo artefacto no existe se saltean.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+PORT="${PORT:-18080}"
+JAR="target/opentimestamp-poc-0.0.1-SNAPSHOT.jar"
+CDS_JAR="target/cds/opentimestamp-poc-0.0.1-SNAPSHOT.jar"
+CDS_ARCHIVE="target/cds/application.jsa"
+NATIVE_BIN="target/opentimestamp-poc"
+SAMPLE_OTS="Java only/PRUEBA OTS/Test1/test.pdf.ots"
+
+now_ms() { date +%s%3N; }
+
+# Arranca el comando, espera la primera respuesta 200 de /info y devuelve los ms transcurridos.
+measure() {
+  local start pid elapsed
+  start=$(now_ms)
+  # sin warm-up: se mide el arranque en frío, no el tiempo de calentamiento
+  "$@" --server.port="$PORT" --ots.warmup.enabled=false >/dev/null 2>&1 &
+  pid=$!
+  until curl -sf -o /dev/null -F "ots=@${SAMPLE_OTS}" "http://localhost:${PORT}/api/ots/info"; do
+    if ! kill -0 "$pid" 2>/dev/null; then
+      echo "el proceso terminó antes de responder" >&2
+      return 1
+    fi
+    sleep 0.01
+  done
+  elapsed=$(( $(now_ms) - start ))
+  kill "$pid" && wait "$pid" 2>/dev/null || true
+  echo "$elapsed"
+}
+
+run_mode() {
+  local name="$1"; shift
+  local total=0 min=999999 max=0 t
+  for _ in $(seq "$RUNS"); do
+    t=$(measure "$@")
+    total=$((total + t))
+    (( t < min )) && min=$t
+    (( t > max )) && max=$t
+  done
+  printf "%-8s avg=%6d ms  min=%6d ms  max=%6d ms  (%d corridas)\n" "$name" $((total / RUNS)) "$min" "$max" "$RUNS"
+}
+
+echo "time-to-first-response (POST /api/ots/info)"
+[[ -f "$JAR" ]] && run_mode "jvm" java -jar "$JAR"
+[[ -f "$CDS_ARCHIVE" ]] && run_mode "cds" java -XX:SharedArchiveFile="$CDS_ARCHIVE" -jar "$CDS_JAR"
+[[ -x "$NATIVE_BIN" ]] && run_mode "native" "$NATIVE_BIN"
+exit 0
@@ -1,13 +1,23 @@
 package trusthub.ots.opentimestamp_poc;
 
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import trusthub.ots.opentimestamp_poc.config.OtsRuntimeHints;
+import trusthub.ots.opentimestamp_poc.dto.UpgradeEvent;
+import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
 
 @SpringBootApplication
+@EnableScheduling
+@ImportRuntimeHints(OtsRuntimeHints.class)
+@RegisterReflectionForBinding({ VerifyResponse.class, UpgradeEvent.class })
 public class OpentimestampPocApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,107 @@
+package trusthub.ots.opentimestamp_poc.admission;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limitador de concurrencia adaptativo basado en latencia (estilo "gradient").
+ * <p>
+ * Mantiene un promedio de largo plazo del RTT observado y lo compara con cada
+ * muestra nueva. Si la latencia sube (cola creciendo en algún lado) el límite
+ * baja proporcionalmente; si la latencia se mantiene, el límite crece de a
+ * poco (+sqrt(límite)). Los errores/timeouts aplican un recorte multiplicativo
+ * (AIMD). El límite siempre queda entre {@code minLimit} y {@code maxLimit}.
+ * </p>
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private static final double SMOOTHING = 0.2;
+    private static final double BACKOFF_RATIO = 0.9;
+    private static final double LONG_RTT_WINDOW = 100.0;
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // escrito bajo "this", leído sin lock en tryAcquire()
+    private volatile double limit;
+    private double longRttNanos = -1;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Límites inválidos para " + name + ": min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+    }
+
+    /**
+     * Intenta reservar un lugar. No bloquea: si se alcanzó el límite devuelve false
+     * y el llamador debe rechazar la request.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= getLimit()) return false;
+            if (inFlight.compareAndSet(current, current + 1)) return true;
+        }
+    }
+
+    /** Libera el lugar sin registrar muestra (ej. request cancelada por el cliente). */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Libera el lugar y ajusta el límite con la latencia observada.
+     *
+     * @param rttNanos latencia de la request en nanosegundos
+     * @param dropped true si la request terminó en error/timeout
+     */
+    public void release(long rttNanos, boolean dropped) {
+        int inFlightAtStart = inFlight.getAndDecrement();
+        synchronized (this) {
+            if (dropped) {
+                limit = Math.max(minLimit, limit * BACKOFF_RATIO);
+                return;
+            }
+            if (rttNanos <= 0) return;
+            if (longRttNanos < 0) {
+                longRttNanos = rttNanos;
+                return;
+            }
+            longRttNanos += (rttNanos - longRttNanos) / LONG_RTT_WINDOW;
+
+            // Sin presión real (app-limited) no tiene sentido crecer
+            if (inFlightAtStart < limit / 2) return;
+
+            double gradient = Math.max(0.5, Math.min(1.0, longRttNanos / rttNanos));
+            double queueSize = Math.sqrt(limit);
+            double newLimit = limit * gradient + queueSize;
+            newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+            limit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+        }
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /** Sugerencia de reintento en segundos (al menos 1) según la latencia típica observada. */
+    public synchronized long retryAfterSeconds() {
+        if (longRttNanos <= 0) return 1;
+        return Math.max(1, (long) Math.ceil(longRttNanos / TimeUnit.SECONDS.toNanos(1)));
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,106 @@
+package trusthub.ots.opentimestamp_poc.admission;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
+
+/**
+ * Control de admisión para los endpoints de OTS.
+ * <p>
+ * Cada endpoint (stamp, upgrade, info, verify) tiene su propio
+ * {@link AdaptiveConcurrencyLimiter}. Si el endpoint está saturado la request
+ * se rechaza de inmediato con 429 + Retry-After, antes de que el controller
+ * lea el cuerpo multipart (no se copia nada a /tmp ni se encola en el scheduler).
+ * </p>
+ */
+@Component
+public class AdmissionControlFilter implements WebFilter, Ordered {
+
+    private static final String API_PREFIX = "/api/ots/";
+
+    private final boolean enabled;
+    private final Map<String, AdaptiveConcurrencyLimiter> limiters = new LinkedHashMap<>();
+
+    public AdmissionControlFilter(@Value("${ots.admission.enabled:true}") boolean enabled,
+                                  @Value("${ots.admission.initial-limit:20}") int initialLimit,
+                                  @Value("${ots.admission.min-limit:2}") int minLimit,
+                                  @Value("${ots.admission.max-limit:200}") int maxLimit,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        for (String endpoint : new String[] { "stamp", "upgrade", "info", "verify" }) {
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(endpoint, initialLimit, minLimit, maxLimit);
+            limiters.put(endpoint, limiter);
+            Gauge.builder("ots.admission.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .tag("endpoint", endpoint).register(meterRegistry);
+            Gauge.builder("ots.admission.inflight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .tag("endpoint", endpoint).register(meterRegistry);
+        }
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        AdaptiveConcurrencyLimiter limiter = enabled ? limiterFor(exchange.getRequest().getPath().value()) : null;
+        if (limiter == null) {
+            return chain.filter(exchange);
+        }
+        if (!limiter.tryAcquire()) {
+            return reject(exchange.getResponse(), limiter);
+        }
+
+        long start = System.nanoTime();
+        return chain.filter(exchange)
+                .doFinally(signal -> {
+                    if (signal == SignalType.CANCEL) {
+                        limiter.release();
+                        return;
+                    }
+                    HttpStatusCode status = exchange.getResponse().getStatusCode();
+                    boolean dropped = signal == SignalType.ON_ERROR || (status != null && status.is5xxServerError());
+                    limiter.release(System.nanoTime() - start, dropped);
+                });
+    }
+
+    /** Devuelve el limitador del endpoint (por el primer segmento luego de /api/ots/) o null si no aplica. */
+    private AdaptiveConcurrencyLimiter limiterFor(String path) {
+        if (!path.startsWith(API_PREFIX)) return null;
+        String rest = path.substring(API_PREFIX.length());
+        int slash = rest.indexOf('/');
+        String endpoint = (slash >= 0) ? rest.substring(0, slash) : rest;
+        return limiters.get(endpoint);
+    }
+
+    private Mono<Void> reject(ServerHttpResponse response, AdaptiveConcurrencyLimiter limiter) {
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(limiter.retryAfterSeconds()));
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        // cerramos la conexión para no tener que drenar el cuerpo del upload
+        response.getHeaders().set(HttpHeaders.CONNECTION, "close");
+        byte[] body = ("{\"status\":\"FAIL\",\"error\":\"Servicio saturado en /" + limiter.getName()
+                + ", reintentar más tarde\"}").getBytes(StandardCharsets.UTF_8);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
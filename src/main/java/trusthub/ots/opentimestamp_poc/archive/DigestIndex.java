@@ -0,0 +1,249 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Índice persistente digest SHA-256 (32 bytes crudos) → offset del registro en {@code proofs.log},
+ * en un archivo mapeado en memoria: cero objetos en el heap por entrada.
+ * <p>
+ * Tabla hash de direccionamiento abierto con sondeo lineal. El digest ya es uniforme, así que
+ * sus primeros 8 bytes son directamente el hash. Formato:
+ * <pre>
+ * header (64 bytes): magic "OTSDIDX1" | capacity i64 | size i64 | indexedUpTo i64 | reservado
+ * slot   (40 bytes): digest 32 | offset+1 i64   (0 = slot libre)
+ * </pre>
+ * La tabla se mapea en segmentos de {@value #SEGMENT_SLOTS} slots (un {@link MappedByteBuffer}
+ * no puede pasar de 2 GB) y crece al doble, reescribiendo el archivo, al superar
+ * {@value #MAX_LOAD} de carga.
+ * </p>
+ * <p>
+ * Concurrencia: un solo escritor ({@link #put} sincronizado) y lecturas sin locks. El escritor
+ * escribe el digest y después publica el offset con {@code setRelease}; el lector lee el offset
+ * con {@code getAcquire}, así que si ve un offset ve también el digest completo.
+ * </p>
+ * <p>
+ * {@code indexedUpTo} es hasta dónde del log está reflejado en el índice con seguridad (se graba
+ * en {@link #checkpoint}); al abrir, el archivo de proofs re-indexa desde ahí. El índice es
+ * derivado del log: si falta o está dañado se reconstruye.
+ * </p>
+ */
+final class DigestIndex implements Closeable {
+
+    static final int DIGEST = 32;
+    static final int SLOT = DIGEST + 8;
+    static final int HEADER = 64;
+    static final int SEGMENT_SLOTS = 1 << 24; // 640 MB por segmento
+    static final double MAX_LOAD = 0.7;
+
+    private static final long MAGIC = 0x4F545344_49445831L; // "OTSDIDX1"
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path file;
+    private volatile Table table;
+
+    private DigestIndex(Path file, Table table) {
+        this.file = file;
+        this.table = table;
+    }
+
+    /**
+     * Abre el índice; si no existe o el header no es válido crea uno vacío
+     * ({@link #indexedUpTo()} = 0, hay que re-indexar todo el log).
+     */
+    static DigestIndex open(Path file, long initialCapacity) throws IOException {
+        Table t = null;
+        if (Files.exists(file)) {
+            t = Table.open(file);
+            if (t == null) Files.delete(file);
+        }
+        if (t == null) t = Table.create(file, capacityFor(initialCapacity));
+        return new DigestIndex(file, t);
+    }
+
+    /** Offset del registro del digest, o -1. Sin locks. */
+    long get(byte[] digest) {
+        if (digest.length != DIGEST) return -1;
+        Table t = table;
+        ByteBuffer key = ByteBuffer.wrap(digest);
+        long mask = t.capacity - 1;
+        for (long i = (long) LONGS.get(key, 0) & mask, probes = 0; probes < t.capacity; i = (i + 1) & mask, probes++) {
+            MappedByteBuffer seg = t.segment(i);
+            int base = Table.slotOffset(i);
+            long value = (long) LONGS.getAcquire(seg, base + DIGEST);
+            if (value == 0) return -1;
+            if (matches(seg, base, key)) return value - 1;
+        }
+        return -1;
+    }
+
+    /** Inserta o actualiza (el offset nuevo reemplaza al anterior). */
+    synchronized void put(byte[] digest, long offset) throws IOException {
+        if (digest.length != DIGEST) throw new IllegalArgumentException("digest de " + digest.length + " bytes");
+        Table t = table;
+        if (t.size + 1 > (long) (t.capacity * MAX_LOAD)) {
+            t = grow(t);
+        }
+        if (insert(t, digest, offset + 1)) {
+            t.size++;
+            LONGS.setRelease(t.header, 16, t.size);
+        }
+    }
+
+    long size() {
+        return (long) LONGS.getAcquire(table.header, 16);
+    }
+
+    long capacity() {
+        return table.capacity;
+    }
+
+    long indexedUpTo() {
+        return (long) LONGS.getAcquire(table.header, 24);
+    }
+
+    /** Baja los slots a disco y recién después registra {@code logOffset} como indexado. */
+    synchronized void checkpoint(long logOffset) {
+        Table t = table;
+        for (MappedByteBuffer seg : t.segments) seg.force();
+        LONGS.setRelease(t.header, 24, logOffset);
+        t.header.force();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        table.channel.close();
+    }
+
+    // -------------------- interno --------------------
+
+    /** @return true si fue un digest nuevo */
+    private static boolean insert(Table t, byte[] digest, long value) {
+        ByteBuffer key = ByteBuffer.wrap(digest);
+        long mask = t.capacity - 1;
+        for (long i = (long) LONGS.get(key, 0) & mask; ; i = (i + 1) & mask) {
+            MappedByteBuffer seg = t.segment(i);
+            int base = Table.slotOffset(i);
+            long current = (long) LONGS.getAcquire(seg, base + DIGEST);
+            if (current == 0) {
+                seg.put(base, digest);
+                LONGS.setRelease(seg, base + DIGEST, value); // publica el slot
+                return true;
+            }
+            if (matches(seg, base, key)) {
+                LONGS.setRelease(seg, base + DIGEST, value);
+                return false;
+            }
+        }
+    }
+
+    private static boolean matches(MappedByteBuffer seg, int base, ByteBuffer key) {
+        for (int j = 0; j < DIGEST; j += 8) {
+            if ((long) LONGS.get(seg, base + j) != (long) LONGS.get(key, j)) return false;
+        }
+        return true;
+    }
+
+    /** Rehash a una tabla del doble en un archivo nuevo, que reemplaza al actual con un rename atómico. */
+    private Table grow(Table old) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".grow");
+        Files.deleteIfExists(tmp);
+        Table bigger = Table.create(tmp, old.capacity * 2);
+        byte[] digest = new byte[DIGEST];
+        for (long i = 0; i < old.capacity; i++) {
+            MappedByteBuffer seg = old.segment(i);
+            int base = Table.slotOffset(i);
+            long value = (long) LONGS.getAcquire(seg, base + DIGEST);
+            if (value == 0) continue;
+            seg.get(base, digest);
+            insert(bigger, digest, value);
+        }
+        bigger.size = old.size;
+        LONGS.setRelease(bigger.header, 16, bigger.size);
+        LONGS.setRelease(bigger.header, 24, (long) LONGS.getAcquire(old.header, 24));
+        for (MappedByteBuffer seg : bigger.segments) seg.force();
+        bigger.header.force();
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        table = bigger; // los lectores que tenían la tabla vieja terminan sobre su mapeo
+        old.channel.close();
+        return bigger;
+    }
+
+    static long capacityFor(long entries) {
+        long needed = (long) Math.ceil(Math.max(16, entries) / MAX_LOAD);
+        return Long.highestOneBit(needed - 1) << 1;
+    }
+
+    private static final class Table {
+        final FileChannel channel;
+        final MappedByteBuffer header;
+        final MappedByteBuffer[] segments;
+        final long capacity;
+        long size; // copia del escritor; los lectores leen el header
+
+        private Table(FileChannel channel, MappedByteBuffer header, MappedByteBuffer[] segments, long capacity, long size) {
+            this.channel = channel;
+            this.header = header;
+            this.segments = segments;
+            this.capacity = capacity;
+            this.size = size;
+        }
+
+        static Table create(Path file, long capacity) throws IOException {
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            ch.truncate(HEADER + capacity * SLOT); // archivo ralo: el SO entrega páginas en cero
+            Table t = map(ch, capacity, 0);
+            LONGS.set(t.header, 8, capacity);
+            LONGS.set(t.header, 16, 0L);
+            LONGS.set(t.header, 24, 0L);
+            LONGS.setRelease(t.header, 0, MAGIC);
+            return t;
+        }
+
+        /** @return null si el archivo no es un índice válido */
+        static Table open(Path file) throws IOException {
+            FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (ch.size() < HEADER) {
+                ch.close();
+                return null;
+            }
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            long magic = (long) LONGS.get(header, 0);
+            long capacity = (long) LONGS.get(header, 8);
+            if (magic != MAGIC || Long.bitCount(capacity) != 1 || ch.size() != HEADER + capacity * SLOT) {
+                ch.close();
+                return null;
+            }
+            return map(ch, capacity, (long) LONGS.get(header, 16));
+        }
+
+        private static Table map(FileChannel ch, long capacity, long size) throws IOException {
+            MappedByteBuffer header = ch.map(FileChannel.MapMode.READ_WRITE, 0, HEADER);
+            int count = (int) ((capacity + SEGMENT_SLOTS - 1) / SEGMENT_SLOTS);
+            MappedByteBuffer[] segments = new MappedByteBuffer[count];
+            for (int s = 0; s < count; s++) {
+                long slots = Math.min(SEGMENT_SLOTS, capacity - (long) s * SEGMENT_SLOTS);
+                segments[s] = ch.map(FileChannel.MapMode.READ_WRITE, HEADER + (long) s * SEGMENT_SLOTS * SLOT, slots * SLOT);
+            }
+            return new Table(ch, header, segments, capacity, size);
+        }
+
+        MappedByteBuffer segment(long slot) {
+            return segments[(int) (slot / SEGMENT_SLOTS)];
+        }
+
+        static int slotOffset(long slot) {
+            return (int) (slot % SEGMENT_SLOTS) * SLOT;
+        }
+    }
+}
@@ -0,0 +1,299 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Archivo append-only de todos los proofs emitidos (stamp) y actualizados (upgrade).
+ * <p>
+ * Registro: {@code [len u32][stampedAt i64][digest 32][ots ...][crc32c u32]}, donde {@code len}
+ * cubre stampedAt + digest + ots. Un upgrade agrega un registro nuevo para el mismo digest
+ * conservando la fecha del stamp original; el índice apunta siempre al último.
+ * </p>
+ * <p>
+ * El índice digest → offset es un {@link DigestIndex} fuera del heap ({@code digests.idx},
+ * mapeado en memoria), así que las búsquedas no toman el lock del archivo. Al abrir solo se
+ * re-indexa lo escrito después del último checkpoint del índice (o todo, si el índice falta o
+ * no corresponde al log) y se descarta una cola cortada (registro incompleto o con CRC
+ * inválido) de una escritura interrumpida; en ese caso el índice se rearma entero, porque sus
+ * slots pueden apuntar a la cola descartada.
+ * </p>
+ */
+@Component
+public class ProofArchive {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProofArchive.class);
+
+    private static final int DIGEST = 32;
+
+    private final boolean enabled;
+    private final FileChannel log;
+    private final int checkpointEvery;
+    /** digest -> offset del último registro. */
+    private DigestIndex index;
+    private int sinceCheckpoint;
+    /**
+     * Fin lógico del log: después del último registro completo. Un lote que falla a la mitad se
+     * descarta desde acá, así el siguiente no queda detrás de un registro cortado.
+     */
+    private volatile long end;
+
+    public ProofArchive(@Value("${ots.archive.enabled:true}") boolean enabled,
+                        @Value("${ots.archive.dir:./data/archive}") Path dir,
+                        @Value("${ots.archive.index.initial-capacity:1048576}") long initialCapacity,
+                        @Value("${ots.archive.index.checkpoint-every:10000}") int checkpointEvery) {
+        this(enabled, dir, enabled ? openLog(dir) : null, initialCapacity, checkpointEvery);
+    }
+
+    /** Con el canal del log ya abierto (los tests inyectan uno que falla). */
+    ProofArchive(boolean enabled, Path dir, FileChannel log, long initialCapacity, int checkpointEvery) {
+        this.enabled = enabled;
+        this.checkpointEvery = checkpointEvery;
+        this.log = log;
+        if (!enabled) return;
+        try {
+            Path indexFile = dir.resolve("digests.idx");
+            this.index = DigestIndex.open(indexFile, initialCapacity);
+            if (index.indexedUpTo() > log.size()) {
+                // el índice es de un log más largo (log reemplazado o truncado): se rearma entero
+                logger.warn("Índice de digests no corresponde a proofs.log; se reconstruye");
+                rebuildIndex(indexFile, initialCapacity);
+            }
+            if (recover(index.indexedUpTo())) {
+                // los slots mapeados se persisten sin checkpoint: pueden apuntar a la cola descartada
+                logger.warn("Se descartó la cola de proofs.log; se reconstruye el índice de digests");
+                rebuildIndex(indexFile, initialCapacity);
+                recover(0);
+            }
+            this.end = log.size();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de proofs en " + dir, e);
+        }
+        logger.info("Archivo de proofs: {} documentos (índice de {} slots)", index.size(), index.capacity());
+    }
+
+    private void rebuildIndex(Path indexFile, long initialCapacity) throws IOException {
+        index.close();
+        Files.delete(indexFile);
+        this.index = DigestIndex.open(indexFile, initialCapacity);
+    }
+
+    private static FileChannel openLog(Path dir) {
+        try {
+            Files.createDirectories(dir);
+            return FileChannel.open(dir.resolve("proofs.log"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo de proofs en " + dir, e);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Guarda el proof del documento. Si ya existía, conserva la fecha del stamp original.
+     */
+    public void record(byte[] digest, byte[] ots) {
+        recordAll(List.of(digest), List.of(ots));
+    }
+
+    /**
+     * Guarda los proofs de un lote ({@code proofs.get(i)} es el de {@code digests.get(i)}) con
+     * un solo fsync y tomando el lock una vez. El índice se actualiza después del fsync, así
+     * nunca apunta a un registro que no está en disco. Si el lote falla a la mitad, el log se
+     * trunca al inicio del lote y el lote entero queda sin archivar.
+     */
+    public synchronized void recordAll(List<byte[]> digests, List<byte[]> proofs) {
+        if (!enabled || digests.isEmpty()) return;
+        if (digests.size() != proofs.size()) {
+            throw new IllegalArgumentException("digests y proofs deben tener el mismo tamaño");
+        }
+        try {
+            long now = System.currentTimeMillis();
+            long offset = end;
+            long[] offsets = new long[digests.size()];
+            // un digest repetido dentro del lote conserva la fecha de su primera aparición
+            Map<ByteBuffer, Long> stampedInBatch = new HashMap<>();
+            for (int i = 0; i < digests.size(); i++) {
+                byte[] digest = digests.get(i);
+                Long stampedAt = stampedInBatch.get(ByteBuffer.wrap(digest));
+                if (stampedAt == null) {
+                    stampedAt = latest(digest).map(ProofRecord::stampedAtMillis).orElse(now);
+                    stampedInBatch.put(ByteBuffer.wrap(digest), stampedAt);
+                }
+                ProofRecord r = new ProofRecord(digest, stampedAt, proofs.get(i));
+                write(offset, r);
+                offsets[i] = offset;
+                offset += 4 + 4 + recordLength(r);
+            }
+            log.force(false);
+            end = offset;
+            for (int i = 0; i < digests.size(); i++) index.put(digests.get(i), offsets[i]);
+            sinceCheckpoint += digests.size();
+            if (sinceCheckpoint >= checkpointEvery) {
+                index.checkpoint(offset);
+                sinceCheckpoint = 0;
+            }
+        } catch (IOException e) {
+            // el proof ya se entregó al cliente; que falle el archivo no debe romper el request
+            logger.error("No se pudo archivar {} proof(s): {}", digests.size(), e.getMessage());
+            discardFrom(end);
+        }
+    }
+
+    /**
+     * Descarta lo escrito desde {@code offset} (lote fallido). Si el truncate también falla no
+     * importa: el próximo lote escribe desde {@link #end} y pisa la cola.
+     */
+    private void discardFrom(long offset) {
+        try {
+            if (log.size() > offset) log.truncate(offset);
+        } catch (IOException e) {
+            logger.warn("No se pudo truncar proofs.log en {}: {}", offset, e.getMessage());
+        }
+    }
+
+    /** Último proof guardado para el digest del documento. Sin lock: lee el índice mapeado. */
+    public Optional<ProofRecord> find(byte[] digest) throws IOException {
+        if (!enabled) return Optional.empty();
+        return latest(digest);
+    }
+
+    /**
+     * Registro al que apunta el índice, solo si es del digest pedido: un slot que quedó apuntando
+     * fuera del log o a otro documento no devuelve el proof equivocado.
+     */
+    private Optional<ProofRecord> latest(byte[] digest) throws IOException {
+        long offset = index.get(digest);
+        if (offset < 0 || offset >= end) return Optional.empty();
+        ProofRecord r = readAt(offset);
+        if (!Arrays.equals(r.digest(), digest)) {
+            logger.warn("Índice de digests inconsistente en offset {}; se ignora", offset);
+            return Optional.empty();
+        }
+        return Optional.of(r);
+    }
+
+    public int size() {
+        return enabled ? (int) Math.min(Integer.MAX_VALUE, index.size()) : 0;
+    }
+
+    /**
+     * Recorre los proofs vigentes (la última versión de cada documento) cuyo stamp cae en
+     * [fromMillis, toMillis), en orden de escritura.
+     */
+    public void scan(long fromMillis, long toMillis, Consumer<ProofRecord> consumer) throws IOException {
+        if (!enabled) return;
+        long limit;
+        synchronized (this) {
+            limit = end;
+        }
+        long pos = 0;
+        while (pos < limit) {
+            ProofRecord r = readAt(pos);
+            long next = pos + 4 + 4 + recordLength(r);
+            if (r.stampedAtMillis() >= fromMillis && r.stampedAtMillis() < toMillis) {
+                if (index.get(r.digest()) == pos) consumer.accept(r);
+            }
+            pos = next;
+        }
+    }
+
+    /**
+     * Re-indexa desde {@code from} (checkpoint del índice) hasta el final del log.
+     *
+     * @return true si descartó una cola cortada
+     */
+    private boolean recover(long from) throws IOException {
+        long size = log.size();
+        long pos = from;
+        while (pos < size) {
+            ProofRecord r;
+            try {
+                r = readAt(pos);
+            } catch (IOException e) {
+                logger.warn("Archivo de proofs cortado en offset {} ({}); se descarta la cola", pos, e.getMessage());
+                log.truncate(pos);
+                return true;
+            }
+            index.put(r.digest(), pos);
+            pos += 4 + 4 + recordLength(r);
+        }
+        if (pos > from) index.checkpoint(pos);
+        return false;
+    }
+
+    private static int recordLength(ProofRecord r) {
+        return 8 + DIGEST + r.ots().length;
+    }
+
+    private void write(long offset, ProofRecord r) throws IOException {
+        int len = recordLength(r);
+        ByteBuffer buf = ByteBuffer.allocate(4 + len + 4);
+        buf.putInt(len).putLong(r.stampedAtMillis()).put(r.digest()).put(r.ots());
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), 4, len);
+        buf.putInt((int) crc.getValue());
+        buf.flip();
+        while (buf.hasRemaining()) offset += log.write(buf, offset);
+    }
+
+    private ProofRecord readAt(long offset) throws IOException {
+        ByteBuffer head = readFully(offset, 4);
+        int len = head.getInt();
+        if (len < 8 + DIGEST || offset + 4 + len + 4 > log.size()) {
+            throw new IOException("registro inválido (len=" + len + ")");
+        }
+        ByteBuffer body = readFully(offset + 4, len + 4);
+        CRC32C crc = new CRC32C();
+        crc.update(body.array(), 0, len);
+        body.position(len);
+        if (body.getInt() != (int) crc.getValue()) throw new IOException("CRC inválido");
+        body.position(0);
+        long stampedAt = body.getLong();
+        byte[] digest = new byte[DIGEST];
+        body.get(digest);
+        byte[] ots = new byte[len - 8 - DIGEST];
+        body.get(ots);
+        return new ProofRecord(digest, stampedAt, ots);
+    }
+
+    private ByteBuffer readFully(long offset, int n) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(n);
+        while (buf.hasRemaining()) {
+            int r = log.read(buf, offset + buf.position());
+            if (r < 0) throw new IOException("fin de archivo inesperado");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (log == null) return;
+        index.checkpoint(end);
+        index.close();
+        log.close();
+    }
+}
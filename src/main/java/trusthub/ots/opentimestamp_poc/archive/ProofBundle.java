@@ -0,0 +1,31 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Formato de bundle de proofs ({@code .otsb}): muchos .ots en un solo archivo con un índice
+ * ordenado por digest al final, pensado para entregar archivos completos y buscar el proof
+ * de cualquier documento sin desempaquetar.
+ * <pre>
+ * "OTSBUND1"                                   magic (8)
+ * ots_0 ots_1 ... ots_n-1                      bytes de cada .ots, uno detrás de otro
+ * índice: n × [digest 32][offset u64][len u32][stampedAt i64]   ordenado por digest (sin signo)
+ * footer: [offset del índice u64][n u64][sha256 de todo lo anterior 32]["OTSBIDX1" 8]
+ * </pre>
+ * Enteros big-endian. El índice se mapea en memoria y se busca por bisección (O(log n)).
+ */
+public final class ProofBundle {
+
+    static final byte[] MAGIC = "OTSBUND1".getBytes(StandardCharsets.US_ASCII);
+    static final byte[] FOOTER_MAGIC = "OTSBIDX1".getBytes(StandardCharsets.US_ASCII);
+
+    static final int DIGEST = 32;
+    /** digest + offset + len + stampedAt */
+    static final int INDEX_ENTRY = DIGEST + 8 + 4 + 8;
+    /** offset del índice + n + sha256 + magic */
+    static final int FOOTER = 8 + 8 + 32 + 8;
+
+    public static final String FILE_SUFFIX = ".otsb";
+
+    private ProofBundle() { }
+}
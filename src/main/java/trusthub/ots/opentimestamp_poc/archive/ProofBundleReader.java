@@ -0,0 +1,126 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Optional;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Lector de bundles {@link ProofBundle}: mapea el índice en memoria y busca por bisección;
+ * el .ots se lee con una lectura posicional. Seguro para uso concurrente.
+ */
+public class ProofBundleReader implements Closeable {
+
+    private final FileChannel channel;
+    private final MappedByteBuffer index;
+    private final long indexOffset;
+    private final int count;
+
+    public ProofBundleReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < ProofBundle.MAGIC.length + ProofBundle.FOOTER) throw new IOException("No es un bundle de proofs: " + file);
+            ByteBuffer footer = readFully(size - ProofBundle.FOOTER, ProofBundle.FOOTER);
+            byte[] magic = new byte[8];
+            footer.position(ProofBundle.FOOTER - 8);
+            footer.get(magic);
+            if (!Arrays.equals(magic, ProofBundle.FOOTER_MAGIC)) throw new IOException("Footer inválido en " + file);
+            footer.position(0);
+            this.indexOffset = footer.getLong();
+            long n = footer.getLong();
+            long indexBytes = n * ProofBundle.INDEX_ENTRY;
+            if (indexOffset + indexBytes != size - ProofBundle.FOOTER) throw new IOException("Índice inconsistente en " + file);
+            if (indexBytes > Integer.MAX_VALUE) throw new IOException("Índice demasiado grande para mapear: " + n + " entradas");
+            this.count = (int) n;
+            this.index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexBytes);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** Cantidad de proofs. */
+    public int size() {
+        return count;
+    }
+
+    /** Proof del documento, por bisección sobre el índice. */
+    public Optional<ProofRecord> find(byte[] digest) throws IOException {
+        int lo = 0;
+        int hi = count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareDigestAt(mid, digest);
+            if (cmp < 0) lo = mid + 1;
+            else if (cmp > 0) hi = mid - 1;
+            else return Optional.of(get(mid));
+        }
+        return Optional.empty();
+    }
+
+    /** i-ésimo proof en orden de digest. */
+    public ProofRecord get(int i) throws IOException {
+        int base = i * ProofBundle.INDEX_ENTRY;
+        byte[] digest = new byte[ProofBundle.DIGEST];
+        index.get(base, digest);
+        long offset = index.getLong(base + ProofBundle.DIGEST);
+        int length = index.getInt(base + ProofBundle.DIGEST + 8);
+        long stampedAt = index.getLong(base + ProofBundle.DIGEST + 12);
+        if (offset < ProofBundle.MAGIC.length || offset + length > indexOffset) {
+            throw new IOException("Entrada de índice corrupta: " + i);
+        }
+        return new ProofRecord(digest, stampedAt, readFully(offset, length).array());
+    }
+
+    /** Recalcula el SHA-256 del contenido y lo compara con el del footer (lee todo el archivo). */
+    public boolean verifyChecksum() throws IOException {
+        long end = channel.size() - ProofBundle.FOOTER;
+        MessageDigest sha256 = HashUtil.newSha256();
+        ByteBuffer buf = ByteBuffer.allocate(1 << 16);
+        long pos = 0;
+        while (pos < end) {
+            buf.clear();
+            if (end - pos < buf.capacity()) buf.limit((int) (end - pos));
+            int r = channel.read(buf, pos);
+            if (r < 0) return false;
+            buf.flip();
+            sha256.update(buf);
+            pos += r;
+        }
+        byte[] expected = new byte[32];
+        readFully(end + 16, 32).get(expected);
+        return MessageDigest.isEqual(expected, sha256.digest());
+    }
+
+    private int compareDigestAt(int i, byte[] digest) {
+        int base = i * ProofBundle.INDEX_ENTRY;
+        for (int k = 0; k < ProofBundle.DIGEST; k++) {
+            int c = Integer.compare(index.get(base + k) & 0xff, digest[k] & 0xff);
+            if (c != 0) return c;
+        }
+        return 0;
+    }
+
+    private ByteBuffer readFully(long offset, int n) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(n);
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, offset + buf.position()) < 0) throw new IOException("Bundle truncado");
+        }
+        buf.flip();
+        return buf;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,148 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Exporta bundles {@link ProofBundle} desde el {@link ProofArchive} y busca proofs dentro de
+ * ellos. Los bundles quedan en {@code ots.bundles.dir} identificados por nombre de archivo;
+ * los lectores abiertos se reutilizan (el índice queda mapeado).
+ */
+@Service
+public class ProofBundleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProofBundleService.class);
+
+    private static final Pattern ID = Pattern.compile("[A-Za-z0-9_-]{1,100}");
+    private static final DateTimeFormatter STAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss").withZone(ZoneOffset.UTC);
+
+    private final ProofArchive archive;
+    private final Path dir;
+    private final Map<String, ProofBundleReader> readers = new ConcurrentHashMap<>();
+
+    public ProofBundleService(ProofArchive archive, @Value("${ots.bundles.dir:./data/bundles}") Path dir) {
+        this.archive = archive;
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de bundles " + dir, e);
+        }
+    }
+
+    /** Datos de un bundle exportado. */
+    public record BundleInfo(String id, int count, long sizeBytes) { }
+
+    /**
+     * Genera un bundle con los proofs vigentes cuyo stamp cae en [from, to).
+     */
+    public BundleInfo export(Instant from, Instant to) throws IOException {
+        if (!archive.isEnabled()) throw new IllegalStateException("El archivo de proofs está deshabilitado (ots.archive.enabled)");
+        if (!from.isBefore(to)) throw new IllegalArgumentException("'from' debe ser anterior a 'to'");
+
+        String id = "proofs-" + STAMP.format(from) + "-" + STAMP.format(to) + "-" + UUID.randomUUID().toString().substring(0, 8);
+        Path target = fileFor(id);
+        Path tmp = dir.resolve(id + ".tmp");
+        int count;
+        try (ProofBundleWriter writer = new ProofBundleWriter(tmp)) {
+            archive.scan(from.toEpochMilli(), to.toEpochMilli(), r -> {
+                try {
+                    writer.add(r);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            count = writer.count();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        // el writer ya hizo fsync del contenido; falta que el rename sobreviva a un corte
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+        forceDirectory(dir);
+        logger.info("Bundle {} exportado: {} proofs, {} bytes", id, count, Files.size(target));
+        return new BundleInfo(id, count, Files.size(target));
+    }
+
+    /** fsync del directorio (entrada del rename). No todos los sistemas lo permiten: ahí se ignora. */
+    private static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            logger.debug("No se pudo hacer fsync del directorio {}: {}", directory, e.getMessage());
+        }
+    }
+
+    public List<BundleInfo> list() throws IOException {
+        List<BundleInfo> out = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + ProofBundle.FILE_SUFFIX)) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                String id = name.substring(0, name.length() - ProofBundle.FILE_SUFFIX.length());
+                out.add(new BundleInfo(id, reader(id).size(), Files.size(f)));
+            }
+        }
+        return out;
+    }
+
+    /** Archivo del bundle; vacío si no existe. */
+    public Optional<Path> path(String id) {
+        Path f = fileFor(id);
+        return Files.isRegularFile(f) ? Optional.of(f) : Optional.empty();
+    }
+
+    /** Proof del documento dentro del bundle. */
+    public Optional<ProofRecord> find(String id, byte[] documentDigest) throws IOException {
+        if (path(id).isEmpty()) return Optional.empty();
+        return reader(id).find(documentDigest);
+    }
+
+    private ProofBundleReader reader(String id) throws IOException {
+        try {
+            return readers.computeIfAbsent(id, k -> {
+                try {
+                    return new ProofBundleReader(fileFor(k));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Path fileFor(String id) {
+        if (!ID.matcher(id).matches()) throw new IllegalArgumentException("Id de bundle inválido: " + id);
+        return dir.resolve(id + ProofBundle.FILE_SUFFIX);
+    }
+
+    @PreDestroy
+    public void close() {
+        for (ProofBundleReader r : readers.values()) {
+            try { r.close(); } catch (IOException ignored) {}
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Escribe un bundle {@link ProofBundle} en streaming: los .ots se copian a medida que llegan y
+ * en memoria solo queda la entrada de índice de cada uno (52 bytes + overhead).
+ * Si un digest aparece dos veces gana el último. {@link #finish()} hace fsync del archivo, así
+ * que después de {@code close()} se puede mover a su nombre final.
+ */
+public class ProofBundleWriter implements Closeable {
+
+    private record Entry(byte[] digest, long offset, int length, long stampedAt) { }
+
+    private final MessageDigest sha256 = HashUtil.newSha256();
+    private final FileChannel channel;
+    private final OutputStream out;
+    private final List<Entry> entries = new ArrayList<>();
+    private long position;
+    private boolean finished;
+
+    public ProofBundleWriter(Path target) throws IOException {
+        this.channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.out = new DigestOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16), sha256);
+        write(ProofBundle.MAGIC);
+    }
+
+    public void add(ProofRecord proof) throws IOException {
+        if (proof.digest().length != ProofBundle.DIGEST) {
+            throw new IllegalArgumentException("El digest debe tener " + ProofBundle.DIGEST + " bytes");
+        }
+        entries.add(new Entry(proof.digest().clone(), position, proof.ots().length, proof.stampedAtMillis()));
+        write(proof.ots());
+    }
+
+    public int count() {
+        return entries.size();
+    }
+
+    /** Escribe índice y footer y hace fsync. */
+    public void finish() throws IOException {
+        if (finished) return;
+        finished = true;
+        entries.sort(Comparator.comparing(Entry::digest, Arrays::compareUnsigned));
+        List<Entry> unique = new ArrayList<>(entries.size());
+        for (Entry e : entries) {
+            // orden estable: entre duplicados queda el último agregado
+            if (!unique.isEmpty() && Arrays.equals(unique.get(unique.size() - 1).digest(), e.digest())) {
+                unique.set(unique.size() - 1, e);
+            } else {
+                unique.add(e);
+            }
+        }
+
+        long indexOffset = position;
+        ByteBuffer entry = ByteBuffer.allocate(ProofBundle.INDEX_ENTRY);
+        for (Entry e : unique) {
+            entry.clear();
+            entry.put(e.digest()).putLong(e.offset()).putInt(e.length()).putLong(e.stampedAt());
+            write(entry.array());
+        }
+        ByteBuffer footer = ByteBuffer.allocate(ProofBundle.FOOTER);
+        footer.putLong(indexOffset).putLong(unique.size());
+        out.flush();
+        footer.put(sha256.digest()).put(ProofBundle.FOOTER_MAGIC);
+        out.write(footer.array()); // DigestOutputStream sigue actualizando, pero el hash ya se tomó
+        out.flush();
+        channel.force(true);
+    }
+
+    private void write(byte[] bytes) throws IOException {
+        out.write(bytes);
+        position += bytes.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+}
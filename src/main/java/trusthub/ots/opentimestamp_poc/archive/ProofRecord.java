@@ -0,0 +1,7 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+/**
+ * Proof guardado en el archivo: digest del documento (32 bytes), fecha del stamp original
+ * (epoch ms, se conserva en los upgrades) y bytes del .ots.
+ */
+public record ProofRecord(byte[] digest, long stampedAtMillis, byte[] ots) { }
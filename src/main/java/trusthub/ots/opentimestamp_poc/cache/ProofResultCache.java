@@ -0,0 +1,155 @@
+package trusthub.ots.opentimestamp_poc.cache;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+
+/**
+ * Cache acotado (LRU) de resultados que dependen solo del contenido.
+ * <p>
+ * <ul>
+ *   <li>info: clave = SHA-256 de los bytes del .ots (la salida de
+ *       {@code OpenTimestamps.info} depende solo de esos bytes).</li>
+ *   <li>verify: clave = SHA-256 del .ots + hash del documento. Solo se guardan
+ *       resultados confirmados en Bitcoin, que ya no pueden cambiar; además del LRU se
+ *       persisten en {@link VerificationResultStore}, así una re-verificación no vuelve a
+ *       tocar la librería ni los explorers aunque el proceso se haya reiniciado.</li>
+ * </ul>
+ * Las mismas claves se usan como ETag fuerte en las respuestas. Los accesos de verify
+ * devuelven Mono: el LRU se resuelve en el hilo que llama, pero el store (disco) corre en
+ * la lane io, nunca en un event loop de Netty o gRPC.
+ * </p>
+ */
+@Component
+public class ProofResultCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProofResultCache.class);
+
+    private final Map<String, String> infoByProof;
+    private final Map<String, VerifyResponse> verifyByProofAndDoc;
+    private final VerificationResultStore verifyStore;
+    private final ExecutionLanes lanes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter storeHits;
+
+    public ProofResultCache(@Value("${ots.cache.max-entries:10000}") int maxEntries,
+                            VerificationResultStore verifyStore,
+                            ExecutionLanes lanes,
+                            MeterRegistry meterRegistry) {
+        this.infoByProof = lruMap(maxEntries);
+        this.verifyByProofAndDoc = lruMap(maxEntries);
+        this.verifyStore = verifyStore;
+        this.lanes = lanes;
+        this.hits = Counter.builder("ots.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ots.cache.requests").tag("result", "miss").register(meterRegistry);
+        this.storeHits = Counter.builder("ots.cache.store.hits").register(meterRegistry);
+    }
+
+    public Optional<String> getInfo(String proofKey) {
+        return record(infoByProof.get(proofKey));
+    }
+
+    public void putInfo(String proofKey, String info) {
+        if (info != null) infoByProof.put(proofKey, info);
+    }
+
+    /**
+     * Busca primero en memoria y luego en el store persistente, en la lane io (un hit del
+     * store vuelve al LRU).
+     */
+    public Mono<Optional<VerifyResponse>> getVerify(String proofKey, String documentDigestHex) {
+        return Mono.defer(() -> {
+            String key = verifyKey(proofKey, documentDigestHex);
+            VerifyResponse inMemory = verifyByProofAndDoc.get(key);
+            if (inMemory != null) return Mono.just(record(inMemory));
+            return Mono.fromCallable(() -> {
+                VerifyResponse stored = verifyStore.get(key).orElse(null);
+                if (stored != null) {
+                    storeHits.increment();
+                    verifyByProofAndDoc.put(key, stored);
+                }
+                return record(stored);
+            }).subscribeOn(lanes.io());
+        });
+    }
+
+    /**
+     * Guarda el resultado solo si está confirmado en Bitcoin (inmutable). La escritura al
+     * store corre en la lane io y el LRU se llena recién cuando terminó bien: si falla (o la
+     * lane está saturada) el resultado no queda en memoria y el próximo verify reintenta
+     * persistirlo.
+     */
+    public Mono<Void> putVerify(String proofKey, String documentDigestHex, VerifyResponse resp) {
+        return Mono.defer(() -> {
+            if (!isConfirmed(resp)) return Mono.<Void>empty();
+            String key = verifyKey(proofKey, documentDigestHex);
+            if (verifyByProofAndDoc.containsKey(key)) return Mono.<Void>empty();
+            return Mono.fromRunnable(() -> verifyStore.put(key, resp))
+                    .subscribeOn(lanes.io())
+                    .doOnSuccess(v -> verifyByProofAndDoc.put(key, resp))
+                    .onErrorResume(e -> {
+                        logger.warn("No se pudo persistir el resultado de verify {}: {}", key, e.getMessage());
+                        return Mono.empty();
+                    })
+                    .then();
+        });
+    }
+
+    public static boolean isConfirmed(VerifyResponse resp) {
+        return resp != null && "OK".equals(resp.getStatus()) && resp.getBlock_height() != null;
+    }
+
+    public static String verifyKey(String proofKey, String documentDigestHex) {
+        return proofKey + "-" + documentDigestHex;
+    }
+
+    /** ETag fuerte (entre comillas) para una clave. */
+    public static String etag(String key) {
+        return "\"" + key + "\"";
+    }
+
+    /**
+     * true si algún valor de If-None-Match coincide con el ETag. {@code *} no cuenta: estos ETags
+     * van en respuestas a POST y "cualquier representación" no dice nada del resultado pedido.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String c = candidate.trim();
+            if (c.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    private <T> Optional<T> record(T value) {
+        (value != null ? hits : misses).increment();
+        return Optional.ofNullable(value);
+    }
+
+    public int size() {
+        return infoByProof.size() + verifyByProofAndDoc.size();
+    }
+
+    private static <V> Map<String, V> lruMap(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+}
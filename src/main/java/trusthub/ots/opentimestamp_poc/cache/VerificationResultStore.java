@@ -0,0 +1,79 @@
+package trusthub.ots.opentimestamp_poc.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+
+/**
+ * Store persistente de resultados de verify confirmados en Bitcoin (sobrevive reinicios y
+ * no está acotado por el LRU en memoria de {@link ProofResultCache}).
+ * <p>
+ * Un archivo JSON por clave (SHA-256 del .ots + hash del documento), repartidos en
+ * subdirectorios por los 2 primeros caracteres para no tener millones de archivos en un
+ * solo directorio. Se escribe con archivo temporal + move atómico; un archivo ilegible se
+ * descarta y cuenta como miss.
+ * </p>
+ */
+@Component
+public class VerificationResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(VerificationResultStore.class);
+
+    private final boolean enabled;
+    private final Path dir;
+    private final ObjectMapper objectMapper;
+
+    public VerificationResultStore(@Value("${ots.cache.verify-store.enabled:true}") boolean enabled,
+                                   @Value("${ots.cache.verify-store.dir:./data/verify-results}") Path dir,
+                                   ObjectMapper objectMapper) {
+        this.enabled = enabled;
+        this.dir = dir;
+        this.objectMapper = objectMapper;
+    }
+
+    public Optional<VerifyResponse> get(String key) {
+        if (!enabled) return Optional.empty();
+        Path file = fileFor(key);
+        try {
+            return Optional.of(objectMapper.readValue(Files.readAllBytes(file), VerifyResponse.class));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            logger.warn("Resultado de verify ilegible en {}, se descarta: {}", file, e.getMessage());
+            try { Files.deleteIfExists(file); } catch (IOException ignored) {}
+            return Optional.empty();
+        }
+    }
+
+    /** @throws UncheckedIOException si no se pudo escribir */
+    public void put(String key, VerifyResponse resp) {
+        if (!enabled) return;
+        Path file = fileFor(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+            Files.write(tmp, objectMapper.writeValueAsBytes(resp));
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // quien llama decide: ProofResultCache lo loguea y reintenta en el próximo verify
+            throw new UncheckedIOException("No se pudo persistir el resultado de verify " + key, e);
+        }
+    }
+
+    private Path fileFor(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+}
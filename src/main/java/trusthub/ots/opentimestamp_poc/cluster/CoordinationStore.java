@@ -0,0 +1,63 @@
+package trusthub.ots.opentimestamp_poc.cluster;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Almacén de coordinación compartido entre instancias: membresía (heartbeats),
+ * leases exclusivos con vencimiento y el registro de .ots pendientes de upgrade
+ * (cualquier nodo registra, el dueño del shard lo procesa). Las implementaciones
+ * deben ser atómicas respecto de todas las instancias que lo comparten.
+ */
+public interface CoordinationStore {
+
+    /** Registra o renueva la presencia del nodo; expira si no se renueva dentro de {@code ttl}. */
+    void heartbeat(String nodeId, Duration ttl);
+
+    /** Saca al nodo de la membresía (apagado ordenado). */
+    void leave(String nodeId);
+
+    /** Nodos con heartbeat vigente. */
+    List<String> liveMembers();
+
+    /**
+     * Toma o renueva el lease {@code key} para {@code owner}. Solo tiene éxito si el
+     * lease está libre, vencido o ya pertenece a {@code owner}.
+     */
+    boolean tryAcquireLease(String key, String owner, Duration ttl);
+
+    /** Libera el lease si pertenece a {@code owner}. */
+    void releaseLease(String key, String owner);
+
+    /** Dueño actual del lease (vacío si está libre o vencido). */
+    Optional<String> leaseOwner(String key);
+
+    /**
+     * Registra un .ots pendiente si su digest no está registrado (pendiente o resuelto).
+     *
+     * @return true si se agregó
+     */
+    boolean registerUpgrade(PendingUpgrade upgrade);
+
+    /** Registro del digest, pendiente o resuelto (vacío si no existe o ya se descartó). */
+    Optional<PendingUpgrade> upgrade(String digest);
+
+    /** Registros todavía sin resolver. */
+    List<PendingUpgrade> pendingUpgrades();
+
+    /**
+     * Marca el registro como resuelto. Solo tiene efecto si existe y sigue pendiente.
+     *
+     * @return true si lo resolvió esta llamada
+     */
+    boolean resolveUpgrade(String digest, String outcome, byte[] resultOts, Instant resolvedAt);
+
+    /**
+     * Descarta los registros resueltos antes de {@code resolvedBefore}.
+     *
+     * @return cantidad descartada
+     */
+    int evictResolvedUpgrades(Instant resolvedBefore);
+}
@@ -0,0 +1,233 @@
+package trusthub.ots.opentimestamp_poc.cluster;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.function.Function;
+
+/**
+ * {@link CoordinationStore} sobre un archivo compartido (mismo host o filesystem
+ * compartido con soporte de locks). Cada operación hace lectura-modificación-escritura
+ * del archivo bajo un {@link FileLock} exclusivo.
+ * <p>
+ * Formato (java.util.Properties):
+ * <pre>
+ * member.&lt;nodeId&gt;=&lt;vencimiento epoch ms&gt;
+ * lease.&lt;key&gt;=&lt;owner&gt;|&lt;vencimiento epoch ms&gt;
+ * upgrade.&lt;digest&gt;=&lt;registro epoch ms&gt;|&lt;.ots base64&gt;|&lt;estado o vacío&gt;|&lt;resolución epoch ms o vacío&gt;|&lt;.ots nuevo base64 o vacío&gt;
+ * </pre>
+ * </p>
+ */
+public class FileCoordinationStore implements CoordinationStore {
+
+    private static final String MEMBER = "member.";
+    private static final String LEASE = "lease.";
+    private static final String UPGRADE = "upgrade.";
+
+    private final Path file;
+    private final Clock clock;
+
+    public FileCoordinationStore(Path file) {
+        this(file, Clock.systemUTC());
+    }
+
+    public FileCoordinationStore(Path file, Clock clock) {
+        this.file = file;
+        this.clock = clock;
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de coordinación " + file.getParent(), e);
+        }
+    }
+
+    @Override
+    public void heartbeat(String nodeId, Duration ttl) {
+        update(props -> {
+            props.setProperty(MEMBER + nodeId, String.valueOf(now() + ttl.toMillis()));
+            return null;
+        });
+    }
+
+    @Override
+    public void leave(String nodeId) {
+        update(props -> {
+            props.remove(MEMBER + nodeId);
+            for (String name : props.stringPropertyNames()) {
+                if (name.startsWith(LEASE) && nodeId.equals(ownerOf(props.getProperty(name)))) {
+                    props.remove(name);
+                }
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public List<String> liveMembers() {
+        return update(props -> {
+            long now = now();
+            List<String> live = new ArrayList<>();
+            for (String name : props.stringPropertyNames()) {
+                if (!name.startsWith(MEMBER)) continue;
+                if (Long.parseLong(props.getProperty(name)) > now) live.add(name.substring(MEMBER.length()));
+                else props.remove(name);
+            }
+            return live;
+        });
+    }
+
+    @Override
+    public boolean tryAcquireLease(String key, String owner, Duration ttl) {
+        return update(props -> {
+            String current = props.getProperty(LEASE + key);
+            if (current != null && expiryOf(current) > now() && !owner.equals(ownerOf(current))) {
+                return false;
+            }
+            props.setProperty(LEASE + key, owner + "|" + (now() + ttl.toMillis()));
+            return true;
+        });
+    }
+
+    @Override
+    public void releaseLease(String key, String owner) {
+        update(props -> {
+            String current = props.getProperty(LEASE + key);
+            if (current != null && owner.equals(ownerOf(current))) props.remove(LEASE + key);
+            return null;
+        });
+    }
+
+    @Override
+    public Optional<String> leaseOwner(String key) {
+        return update(props -> {
+            String current = props.getProperty(LEASE + key);
+            if (current == null || expiryOf(current) <= now()) return Optional.<String>empty();
+            return Optional.of(ownerOf(current));
+        });
+    }
+
+    @Override
+    public boolean registerUpgrade(PendingUpgrade upgrade) {
+        return update(props -> {
+            if (props.containsKey(UPGRADE + upgrade.digest())) return false;
+            props.setProperty(UPGRADE + upgrade.digest(), encode(upgrade));
+            return true;
+        });
+    }
+
+    @Override
+    public Optional<PendingUpgrade> upgrade(String digest) {
+        return update(props -> Optional.ofNullable(props.getProperty(UPGRADE + digest)).map(v -> decode(digest, v)));
+    }
+
+    @Override
+    public List<PendingUpgrade> pendingUpgrades() {
+        return update(props -> {
+            List<PendingUpgrade> result = new ArrayList<>();
+            for (String name : props.stringPropertyNames()) {
+                if (!name.startsWith(UPGRADE)) continue;
+                PendingUpgrade upgrade = decode(name.substring(UPGRADE.length()), props.getProperty(name));
+                if (!upgrade.isResolved()) result.add(upgrade);
+            }
+            return result;
+        });
+    }
+
+    @Override
+    public boolean resolveUpgrade(String digest, String outcome, byte[] resultOts, Instant resolvedAt) {
+        return update(props -> {
+            String current = props.getProperty(UPGRADE + digest);
+            if (current == null) return false;
+            PendingUpgrade upgrade = decode(digest, current);
+            if (upgrade.isResolved()) return false;
+            props.setProperty(UPGRADE + digest, encode(upgrade.resolve(outcome, resultOts, resolvedAt)));
+            return true;
+        });
+    }
+
+    @Override
+    public int evictResolvedUpgrades(Instant resolvedBefore) {
+        return update(props -> {
+            int evicted = 0;
+            for (String name : props.stringPropertyNames()) {
+                if (!name.startsWith(UPGRADE)) continue;
+                PendingUpgrade upgrade = decode(name.substring(UPGRADE.length()), props.getProperty(name));
+                if (upgrade.isResolved() && upgrade.resolvedAt().isBefore(resolvedBefore)) {
+                    props.remove(name);
+                    evicted++;
+                }
+            }
+            return evicted;
+        });
+    }
+
+    /** Lee el archivo, aplica {@code op} y lo reescribe, todo bajo lock exclusivo. */
+    private synchronized <T> T update(Function<Properties, T> op) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // el lock se libera al cerrar el canal
+            channel.lock();
+            ByteBuffer buffer = ByteBuffer.allocate((int) channel.size());
+            while (buffer.hasRemaining() && channel.read(buffer) >= 0) { }
+            Properties props = new Properties();
+            props.load(new ByteArrayInputStream(buffer.array()));
+
+            T result = op.apply(props);
+
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            props.store(out, null);
+            channel.truncate(0);
+            channel.write(ByteBuffer.wrap(out.toByteArray()), 0);
+            channel.force(false);
+            return result;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error en el archivo de coordinación " + file, e);
+        }
+    }
+
+    private long now() {
+        return clock.millis();
+    }
+
+    private static String ownerOf(String leaseValue) {
+        return leaseValue.substring(0, leaseValue.lastIndexOf('|'));
+    }
+
+    private static long expiryOf(String leaseValue) {
+        return Long.parseLong(leaseValue.substring(leaseValue.lastIndexOf('|') + 1));
+    }
+
+    private static String encode(PendingUpgrade u) {
+        Base64.Encoder b64 = Base64.getEncoder();
+        return u.registeredAt().toEpochMilli()
+                + "|" + b64.encodeToString(u.otsBytes())
+                + "|" + (u.outcome() == null ? "" : u.outcome())
+                + "|" + (u.resolvedAt() == null ? "" : String.valueOf(u.resolvedAt().toEpochMilli()))
+                + "|" + (u.resultOts() == null ? "" : b64.encodeToString(u.resultOts()));
+    }
+
+    private static PendingUpgrade decode(String digest, String value) {
+        String[] f = value.split("\\|", -1);
+        Base64.Decoder b64 = Base64.getDecoder();
+        return new PendingUpgrade(digest,
+                b64.decode(f[1]),
+                Instant.ofEpochMilli(Long.parseLong(f[0])),
+                f[2].isEmpty() ? null : f[2],
+                f[4].isEmpty() ? null : b64.decode(f[4]),
+                f[3].isEmpty() ? null : Instant.ofEpochMilli(Long.parseLong(f[3])));
+    }
+}
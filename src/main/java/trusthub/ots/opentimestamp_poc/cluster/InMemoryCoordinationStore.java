@@ -0,0 +1,106 @@
+package trusthub.ots.opentimestamp_poc.cluster;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link CoordinationStore} en memoria. Sirve para una sola JVM (varias instancias
+ * simuladas en tests, o un solo nodo en producción).
+ */
+public class InMemoryCoordinationStore implements CoordinationStore {
+
+    private final Clock clock;
+    private final Map<String, Instant> members = new HashMap<>();
+    private final Map<String, Lease> leases = new HashMap<>();
+    private final Map<String, PendingUpgrade> upgrades = new HashMap<>();
+
+    public InMemoryCoordinationStore() {
+        this(Clock.systemUTC());
+    }
+
+    public InMemoryCoordinationStore(Clock clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public synchronized void heartbeat(String nodeId, Duration ttl) {
+        members.put(nodeId, clock.instant().plus(ttl));
+    }
+
+    @Override
+    public synchronized void leave(String nodeId) {
+        members.remove(nodeId);
+        leases.values().removeIf(lease -> lease.owner.equals(nodeId));
+    }
+
+    @Override
+    public synchronized List<String> liveMembers() {
+        Instant now = clock.instant();
+        members.values().removeIf(expiry -> !expiry.isAfter(now));
+        return new ArrayList<>(members.keySet());
+    }
+
+    @Override
+    public synchronized boolean tryAcquireLease(String key, String owner, Duration ttl) {
+        Instant now = clock.instant();
+        Lease current = leases.get(key);
+        if (current != null && current.expiry.isAfter(now) && !current.owner.equals(owner)) {
+            return false;
+        }
+        leases.put(key, new Lease(owner, now.plus(ttl)));
+        return true;
+    }
+
+    @Override
+    public synchronized void releaseLease(String key, String owner) {
+        Lease current = leases.get(key);
+        if (current != null && current.owner.equals(owner)) {
+            leases.remove(key);
+        }
+    }
+
+    @Override
+    public synchronized Optional<String> leaseOwner(String key) {
+        Lease current = leases.get(key);
+        if (current == null || !current.expiry.isAfter(clock.instant())) return Optional.empty();
+        return Optional.of(current.owner);
+    }
+
+    @Override
+    public synchronized boolean registerUpgrade(PendingUpgrade upgrade) {
+        return upgrades.putIfAbsent(upgrade.digest(), upgrade) == null;
+    }
+
+    @Override
+    public synchronized Optional<PendingUpgrade> upgrade(String digest) {
+        return Optional.ofNullable(upgrades.get(digest));
+    }
+
+    @Override
+    public synchronized List<PendingUpgrade> pendingUpgrades() {
+        return upgrades.values().stream().filter(u -> !u.isResolved()).toList();
+    }
+
+    @Override
+    public synchronized boolean resolveUpgrade(String digest, String outcome, byte[] resultOts, Instant resolvedAt) {
+        PendingUpgrade current = upgrades.get(digest);
+        if (current == null || current.isResolved()) return false;
+        upgrades.put(digest, current.resolve(outcome, resultOts, resolvedAt));
+        return true;
+    }
+
+    @Override
+    public synchronized int evictResolvedUpgrades(Instant resolvedBefore) {
+        int before = upgrades.size();
+        upgrades.values().removeIf(u -> u.isResolved() && u.resolvedAt().isBefore(resolvedBefore));
+        return before - upgrades.size();
+    }
+
+    private record Lease(String owner, Instant expiry) {}
+}
@@ -0,0 +1,29 @@
+package trusthub.ots.opentimestamp_poc.cluster;
+
+import java.time.Instant;
+
+/**
+ * .ots registrado para upgrade en el {@link CoordinationStore}. Mientras está
+ * pendiente {@code outcome} es null; al resolverse guarda el estado final
+ * ("UPGRADED" / "EXPIRED"), el .ots nuevo (solo UPGRADED) y el momento.
+ */
+public record PendingUpgrade(String digest, byte[] otsBytes, Instant registeredAt,
+                             String outcome, byte[] resultOts, Instant resolvedAt) {
+
+    public static PendingUpgrade pending(String digest, byte[] otsBytes, Instant registeredAt) {
+        return new PendingUpgrade(digest, otsBytes, registeredAt, null, null, null);
+    }
+
+    public boolean isResolved() {
+        return outcome != null;
+    }
+
+    /** "PENDING" mientras no se resolvió; si no, el estado final. */
+    public String status() {
+        return isResolved() ? outcome : "PENDING";
+    }
+
+    public PendingUpgrade resolve(String outcome, byte[] resultOts, Instant resolvedAt) {
+        return new PendingUpgrade(digest, otsBytes, registeredAt, outcome, resultOts, resolvedAt);
+    }
+}
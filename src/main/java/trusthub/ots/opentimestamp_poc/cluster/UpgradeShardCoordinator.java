@@ -0,0 +1,139 @@
+package trusthub.ots.opentimestamp_poc.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Reparte el trabajo de upgrade de .ots pendientes entre instancias.
+ * <p>
+ * El espacio de hashes de documento se divide en {@code shards} rangos contiguos
+ * (por los primeros 2 bytes del hash). Cada shard tiene un dueño deseado elegido
+ * por rendezvous hashing sobre los nodos vivos, de forma que al entrar o salir un
+ * nodo solo se mueven los shards que le tocan. La propiedad efectiva se confirma con
+ * un lease con vencimiento en el {@link CoordinationStore}: un nodo solo procesa
+ * los shards cuyo lease tiene, y suelta los que ya no le corresponden.
+ * </p>
+ * Con {@code ots.cluster.enabled=false} (default) el nodo es dueño de todo.
+ */
+@Component
+public class UpgradeShardCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpgradeShardCoordinator.class);
+
+    private static final String LEASE_PREFIX = "upgrade-shard-";
+
+    private final CoordinationStore store;
+    private final String nodeId;
+    private final int shards;
+    private final Duration leaseTtl;
+    private final boolean enabled;
+
+    private final Set<Integer> ownedShards = ConcurrentHashMap.newKeySet();
+
+    public UpgradeShardCoordinator(CoordinationStore store,
+                                   @Value("${ots.cluster.node-id:}") String nodeId,
+                                   @Value("${ots.cluster.shards:64}") int shards,
+                                   @Value("${ots.cluster.lease-ttl:30s}") Duration leaseTtl,
+                                   @Value("${ots.cluster.enabled:false}") boolean enabled) {
+        if (shards < 1 || shards > 65536) throw new IllegalArgumentException("ots.cluster.shards debe estar entre 1 y 65536");
+        this.store = store;
+        this.nodeId = (nodeId == null || nodeId.isBlank()) ? UUID.randomUUID().toString() : nodeId;
+        this.shards = shards;
+        this.leaseTtl = leaseTtl;
+        this.enabled = enabled;
+    }
+
+    /**
+     * true si este nodo debe procesar el .ots del documento {@code digestHex}.
+     */
+    public boolean owns(String digestHex) {
+        return !enabled || ownedShards.contains(shardOf(digestHex));
+    }
+
+    /** Shard (rango de hashes) al que pertenece un hash de documento en hex. */
+    public int shardOf(String digestHex) {
+        int prefix = Integer.parseInt(digestHex.substring(0, 4), 16); // 0..65535
+        return (int) ((long) prefix * shards / 65536);
+    }
+
+    /**
+     * Heartbeat + rebalanceo: renueva los leases de los shards que le tocan a este
+     * nodo, intenta tomar los nuevos y suelta los que pasaron a otro nodo.
+     * Debe correr con un período bastante menor que {@code lease-ttl}.
+     */
+    @Scheduled(fixedDelayString = "${ots.cluster.rebalance-interval:PT10S}")
+    public void rebalance() {
+        if (!enabled) return;
+        store.heartbeat(nodeId, leaseTtl);
+        List<String> members = new ArrayList<>(store.liveMembers());
+        if (!members.contains(nodeId)) members.add(nodeId);
+
+        int before = ownedShards.size();
+        for (int shard = 0; shard < shards; shard++) {
+            String key = LEASE_PREFIX + shard;
+            if (nodeId.equals(desiredOwner(shard, members))) {
+                if (store.tryAcquireLease(key, nodeId, leaseTtl)) ownedShards.add(shard);
+                else ownedShards.remove(shard); // el dueño anterior todavía no lo soltó
+            } else if (ownedShards.remove(shard)) {
+                store.releaseLease(key, nodeId);
+            }
+        }
+        if (ownedShards.size() != before) {
+            logger.info("Nodo {}: {} de {} shards de upgrade ({} nodos vivos)", nodeId, ownedShards.size(), shards, members.size());
+        }
+    }
+
+    /** Rendezvous hashing: el miembro con mayor peso para el shard. */
+    static String desiredOwner(int shard, List<String> members) {
+        String best = null;
+        long bestWeight = Long.MIN_VALUE;
+        for (String member : members) {
+            long weight = weight(member, shard);
+            if (best == null || weight > bestWeight || (weight == bestWeight && member.compareTo(best) < 0)) {
+                best = member;
+                bestWeight = weight;
+            }
+        }
+        return best;
+    }
+
+    private static long weight(String member, int shard) {
+        byte[] h = HashUtil.newSha256().digest((member + "#" + shard).getBytes(StandardCharsets.UTF_8));
+        long w = 0;
+        for (int i = 0; i < 8; i++) w = (w << 8) | (h[i] & 0xff);
+        return w;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) return;
+        for (Integer shard : ownedShards) {
+            store.releaseLease(LEASE_PREFIX + shard, nodeId);
+        }
+        ownedShards.clear();
+        store.leave(nodeId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public Set<Integer> getOwnedShards() {
+        return Collections.unmodifiableSet(ownedShards);
+    }
+}
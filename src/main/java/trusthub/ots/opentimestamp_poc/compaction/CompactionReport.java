@@ -0,0 +1,24 @@
+package trusthub.ots.opentimestamp_poc.compaction;
+
+/**
+ * Resultado de compactar un .ots: proof resultante y medidas antes/después.
+ *
+ * @param ots         .ots compactado (el original si no había attestation de Bitcoin)
+ * @param blockHeight altura del bloque conservado, -1 si no se compactó
+ * @param before      medidas del proof original
+ * @param after       medidas del proof compactado
+ */
+public record CompactionReport(byte[] ots, int blockHeight, Measure before, Measure after) {
+
+    public boolean compacted() {
+        return blockHeight >= 0;
+    }
+
+    /**
+     * @param sizeBytes     tamaño serializado
+     * @param tree          nodos y attestations del árbol
+     * @param parseMicros   deserializar el .ots (mejor de varias corridas)
+     * @param infoMicros    render de {@code OpenTimestamps.info} (mejor de varias corridas)
+     */
+    public record Measure(int sizeBytes, ProofCompactor.TreeStats tree, long parseMicros, long infoMicros) { }
+}
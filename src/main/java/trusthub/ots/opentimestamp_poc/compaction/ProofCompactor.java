@@ -0,0 +1,115 @@
+package trusthub.ots.opentimestamp_poc.compaction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+
+import com.eternitywall.ots.Timestamp;
+import com.eternitywall.ots.attestation.BitcoinBlockHeaderAttestation;
+import com.eternitywall.ots.attestation.PendingAttestation;
+import com.eternitywall.ots.attestation.TimeAttestation;
+import com.eternitywall.ots.op.Op;
+
+/**
+ * Compactación de un proof confirmado: deja solo el camino más corto hasta la mejor
+ * attestation de Bitcoin y descarta el resto del árbol (ramas de calendarios pendientes,
+ * attestations de otros calendarios para el mismo documento).
+ * <p>
+ * "Mejor" = bloque de menor altura (prueba de existencia más antigua); a igual altura,
+ * el camino con menos operaciones. El resultado sigue siendo un .ots válido que
+ * {@code OpenTimestamps.verify} acepta, pero más chico y más rápido de recorrer.
+ * </p>
+ * <p>
+ * Opera sobre el árbol en memoria (modifica {@code ops} y {@code attestations} de los
+ * nodos del camino); sin attestation de Bitcoin no toca nada.
+ * </p>
+ */
+public final class ProofCompactor {
+
+    private ProofCompactor() { }
+
+    /** Tamaño del árbol de un proof: nodos, attestations y cuántas son pendientes o de Bitcoin. */
+    public record TreeStats(int nodes, int attestations, int pending, int bitcoin) { }
+
+    /**
+     * Poda {@code root} dejando solo el camino a la mejor attestation de Bitcoin.
+     *
+     * @return altura del bloque conservado, o -1 si no hay attestation de Bitcoin (sin cambios)
+     */
+    public static int compact(Timestamp root) {
+        Best best = findBest(root);
+        if (best == null) return -1;
+
+        // recorre el camino elegido: en cada nodo queda solo la op siguiente y ninguna attestation
+        Timestamp node = root;
+        for (Op op : best.path) {
+            Timestamp next = node.ops.get(op);
+            node.attestations.clear();
+            node.ops.clear();
+            node.ops.put(op, next);
+            node = next;
+        }
+        node.ops.clear();
+        node.attestations.clear();
+        node.attestations.add(best.attestation);
+        return best.attestation.getHeight();
+    }
+
+    /** true si el proof tiene algo que podar (más de un camino o attestations además de la mejor). */
+    public static boolean isCompactable(Timestamp root) {
+        TreeStats stats = stats(root);
+        Best best = findBest(root);
+        return best != null && (stats.attestations() > 1 || stats.nodes() > best.path.size() + 1);
+    }
+
+    public static TreeStats stats(Timestamp root) {
+        int nodes = 0, attestations = 0, pending = 0, bitcoin = 0;
+        Deque<Timestamp> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Timestamp t = stack.pop();
+            nodes++;
+            for (TimeAttestation a : t.attestations) {
+                attestations++;
+                if (a instanceof PendingAttestation) pending++;
+                else if (a instanceof BitcoinBlockHeaderAttestation) bitcoin++;
+            }
+            for (Timestamp child : t.ops.values()) stack.push(child);
+        }
+        return new TreeStats(nodes, attestations, pending, bitcoin);
+    }
+
+    // búsqueda en profundidad iterativa (los proofs agregados pueden ser profundos)
+    private static Best findBest(Timestamp root) {
+        Best best = null;
+        Deque<Frame> stack = new ArrayDeque<>();
+        stack.push(new Frame(root, List.of()));
+        while (!stack.isEmpty()) {
+            Frame f = stack.pop();
+            for (TimeAttestation a : f.node.attestations) {
+                if (a instanceof BitcoinBlockHeaderAttestation btc && isBetter(btc, f.path.size(), best)) {
+                    best = new Best(f.path, btc);
+                }
+            }
+            for (Map.Entry<Op, Timestamp> e : f.node.ops.entrySet()) {
+                List<Op> path = new ArrayList<>(f.path.size() + 1);
+                path.addAll(f.path);
+                path.add(e.getKey());
+                stack.push(new Frame(e.getValue(), path));
+            }
+        }
+        return best;
+    }
+
+    private static boolean isBetter(BitcoinBlockHeaderAttestation candidate, int depth, Best best) {
+        if (best == null) return true;
+        int height = candidate.getHeight(), bestHeight = best.attestation.getHeight();
+        return height < bestHeight || (height == bestHeight && depth < best.path.size());
+    }
+
+    private record Frame(Timestamp node, List<Op> path) { }
+
+    private record Best(List<Op> path, BitcoinBlockHeaderAttestation attestation) { }
+}
@@ -0,0 +1,32 @@
+package trusthub.ots.opentimestamp_poc.config;
+
+import java.nio.file.Path;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import trusthub.ots.opentimestamp_poc.cluster.CoordinationStore;
+import trusthub.ots.opentimestamp_poc.cluster.FileCoordinationStore;
+import trusthub.ots.opentimestamp_poc.cluster.InMemoryCoordinationStore;
+
+/**
+ * Elige la implementación de {@link CoordinationStore} según {@code ots.cluster.store}
+ * ("memory" o "file").
+ */
+@Configuration
+public class ClusterConfig {
+
+    @Bean
+    public CoordinationStore coordinationStore(@Value("${ots.cluster.store:memory}") String type,
+                                               @Value("${ots.cluster.store-file:./data/cluster/coordination.properties}") Path file) {
+        switch (type) {
+            case "memory":
+                return new InMemoryCoordinationStore();
+            case "file":
+                return new FileCoordinationStore(file);
+            default:
+                throw new IllegalArgumentException("ots.cluster.store desconocido: " + type + " (memory|file)");
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package trusthub.ots.opentimestamp_poc.config;
+
+import org.springframework.boot.web.codec.CodecCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.codec.cbor.Jackson2CborDecoder;
+import org.springframework.http.codec.cbor.Jackson2CborEncoder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+/**
+ * Registra CBOR ({@code application/cbor}) en los codecs de WebFlux: WebFlux no lo agrega por
+ * defecto aunque jackson-dataformat-cbor esté en el classpath. Con {@code Accept: application/cbor}
+ * los verify responden en binario (más chico y más barato de serializar que JSON).
+ */
+@Configuration
+public class CodecConfig {
+
+    @Bean
+    public CodecCustomizer cborCodecCustomizer(Jackson2ObjectMapperBuilder builder) {
+        // el builder de Boot es prototype: misma configuración que el ObjectMapper JSON, otra factory
+        ObjectMapper cborMapper = builder.factory(new CBORFactory()).build();
+        return configurer -> {
+            configurer.customCodecs().register(new Jackson2CborEncoder(cborMapper));
+            configurer.customCodecs().register(new Jackson2CborDecoder(cborMapper));
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package trusthub.ots.opentimestamp_poc.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+/**
+ * Hints para la imagen nativa (profile {@code native}).
+ * <p>
+ * Las clases de operaciones y attestations de {@code java-opentimestamps} se
+ * registran para reflexión porque la librería las resuelve a partir del tag
+ * leído del .ots. Si se agrega una dependencia nueva, regenerar la metadata con
+ * el tracing agent ({@code -agentlib:native-image-agent}) y sumar acá lo que falte.
+ * </p>
+ */
+public class OtsRuntimeHints implements RuntimeHintsRegistrar {
+
+    private static final String[] OTS_TYPES = {
+            "com.eternitywall.ots.DetachedTimestampFile",
+            "com.eternitywall.ots.Timestamp",
+            "com.eternitywall.ots.VerifyResult",
+            "com.eternitywall.ots.op.Op",
+            "com.eternitywall.ots.op.OpAppend",
+            "com.eternitywall.ots.op.OpPrepend",
+            "com.eternitywall.ots.op.OpSHA1",
+            "com.eternitywall.ots.op.OpSHA256",
+            "com.eternitywall.ots.op.OpRIPEMD160",
+            "com.eternitywall.ots.op.OpKECCAK256",
+            "com.eternitywall.ots.op.OpReverse",
+            "com.eternitywall.ots.op.OpHexlify",
+            "com.eternitywall.ots.attestation.TimeAttestation",
+            "com.eternitywall.ots.attestation.PendingAttestation",
+            "com.eternitywall.ots.attestation.BitcoinBlockHeaderAttestation",
+            "com.eternitywall.ots.attestation.LitecoinBlockHeaderAttestation",
+            "com.eternitywall.ots.attestation.EthereumBlockHeaderAttestation",
+            "com.eternitywall.ots.attestation.UnknownAttestation",
+    };
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        for (String type : OTS_TYPES) {
+            hints.reflection().registerTypeIfPresent(classLoader, type,
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                    MemberCategory.INVOKE_DECLARED_METHODS,
+                    MemberCategory.DECLARED_FIELDS);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package trusthub.ots.opentimestamp_poc.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.opentelemetry.exporter.logging.LoggingSpanExporter;
+import io.opentelemetry.exporter.otlp.http.trace.OtlpHttpSpanExporter;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+
+/**
+ * Exporter de spans según {@code ots.tracing.exporter}:
+ * <ul>
+ *   <li>{@code none} (default): los spans se generan pero no salen del proceso</li>
+ *   <li>{@code logging}: cada span se escribe en el log (útil en desarrollo)</li>
+ *   <li>{@code otlp}: OTLP/HTTP a un collector ({@code ots.tracing.otlp-endpoint})</li>
+ * </ul>
+ * Spring Boot toma cualquier bean {@link SpanExporter} y lo registra en el SDK de OpenTelemetry.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "ots.tracing.exporter", havingValue = "logging")
+    public SpanExporter loggingSpanExporter() {
+        return LoggingSpanExporter.create();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "ots.tracing.exporter", havingValue = "otlp")
+    public OtlpHttpSpanExporter otlpSpanExporter(@Value("${ots.tracing.otlp-endpoint:http://localhost:4318/v1/traces}") String endpoint,
+                                                 @Value("${ots.tracing.otlp-timeout:10s}") Duration timeout) {
+        return OtlpHttpSpanExporter.builder()
+                .setEndpoint(endpoint)
+                .setTimeout(timeout)
+                .build();
+    }
+}
@@ -0,0 +1,21 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+/**
+ * Nombre de archivo que manda el cliente (multipart o query param) reducido a su último segmento.
+ * Se hace con strings y no con {@code Path.of}: "/" no tiene nombre, un NUL es un path inválido
+ * y en Linux la barra invertida no separa, y ninguno de esos casos tiene que terminar en un 500.
+ */
+final class FileNames {
+
+    private FileNames() {
+    }
+
+    /** Último segmento después de '/' o '\', sin caracteres de control; {@code null} si no queda nada. */
+    static String baseName(String filename) {
+        if (filename == null) return null;
+        String base = filename.substring(Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\')) + 1)
+                .replaceAll("\\p{Cntrl}", "")
+                .strip();
+        return (base.isEmpty() || base.equals(".") || base.equals("..")) ? null : base;
+    }
+}
@@ -0,0 +1,31 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Una lane de {@code ExecutionLanes} con la cola llena rechaza la tarea: se responde
+ * 503 + Retry-After en lugar de un 500.
+ */
+@RestControllerAdvice
+public class LaneSaturationHandler {
+
+    private static final Logger logger = LoggerFactory.getLogger(LaneSaturationHandler.class);
+
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Map<String, String>> saturated(RejectedExecutionException e) {
+        String detail = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+        logger.warn("Request rechazado por saturación: {}", detail);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(Map.of("status", "SATURATED", "message", String.valueOf(detail)));
+    }
+}
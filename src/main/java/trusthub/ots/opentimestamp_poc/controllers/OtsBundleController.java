@@ -0,0 +1,141 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.archive.ProofBundle;
+import trusthub.ots.opentimestamp_poc.archive.ProofBundleService;
+import trusthub.ots.opentimestamp_poc.archive.ProofRecord;
+import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Bundles de proofs: exportación por rango de fechas, descarga, proof individual y verify
+ * de un documento directamente contra un bundle.
+ */
+@RestController
+@RequestMapping("/api/ots/bundles")
+public class OtsBundleController {
+
+    private final ProofBundleService bundles;
+    private final OpenTimestampsService otsService;
+    private final ExecutionLanes lanes;
+
+    public OtsBundleController(ProofBundleService bundles, OpenTimestampsService otsService, ExecutionLanes lanes) {
+        this.bundles = bundles;
+        this.otsService = otsService;
+        this.lanes = lanes;
+    }
+
+    /** EXPORT: ?from=&amp;to= (ISO 8601, 'to' exclusivo) -> 201 {id, count, size_bytes}. */
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> export(@RequestParam("from") Instant from,
+                                                            @RequestParam("to") Instant to) {
+        return Mono.fromCallable(() -> ResponseEntity.status(HttpStatus.CREATED).body(toJson(bundles.export(from, to))))
+                .subscribeOn(lanes.bulk())
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()))
+                .onErrorMap(IllegalStateException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<Map<String, Object>>> list() {
+        return Mono.fromCallable(() -> bundles.list().stream().map(OtsBundleController::toJson).toList())
+                .subscribeOn(lanes.io());
+    }
+
+    /** DOWNLOAD: archivo .otsb completo. */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Resource>> download(@PathVariable("id") String id) {
+        return Mono.fromCallable(() -> {
+            Path file = bundles.path(id).orElseThrow(() -> notFound("Bundle inexistente: " + id));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentDisposition(ContentDisposition.attachment().filename(id + ProofBundle.FILE_SUFFIX).build());
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            return ResponseEntity.ok().headers(headers).<Resource>body(new FileSystemResource(file));
+        }).onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /** PROOF: .ots del documento (digest SHA-256 hex) dentro del bundle. */
+    @GetMapping("/{id}/proofs/{digest}")
+    public Mono<ResponseEntity<Resource>> proof(@PathVariable("id") String id, @PathVariable("digest") String digestHex) {
+        return Mono.fromCallable(() -> {
+            ProofRecord proof = bundles.find(id, parseDigest(digestHex))
+                    .orElseThrow(() -> notFound("El documento no está en el bundle " + id));
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentDisposition(ContentDisposition.attachment().filename(digestHex + ".ots").build());
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            return ResponseEntity.ok().headers(headers).<Resource>body(new ByteArrayResource(proof.ots()));
+        }).subscribeOn(lanes.io())
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * VERIFY: multipart 'file' (documento original) -> VerifyResponse usando el proof del bundle.
+     * El documento se hashea en streaming, sin copiarlo a disco.
+     */
+    @PostMapping(value = "/{id}/verify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<VerifyResponse> verify(@PathVariable("id") String id, @RequestPart("file") Mono<FilePart> fileMono) {
+        return fileMono
+                .flatMap(fp -> fp.content()
+                        .reduce(HashUtil.newSha256(), (md, buffer) -> {
+                            try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+                                while (it.hasNext()) md.update(it.next());
+                                return md;
+                            } finally {
+                                DataBufferUtils.release(buffer);
+                            }
+                        }))
+                .map(MessageDigest::digest)
+                .flatMap(digest -> Mono.fromCallable(() -> bundles.find(id, digest)
+                                .orElseThrow(() -> notFound("El documento no está en el bundle " + id)))
+                        .subscribeOn(lanes.io())
+                        .flatMap(proof -> otsService.verifyReactive(proof.ots(), digest)))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    private static Map<String, Object> toJson(ProofBundleService.BundleInfo info) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("id", info.id());
+        m.put("count", info.count());
+        m.put("size_bytes", info.sizeBytes());
+        return m;
+    }
+
+    private static byte[] parseDigest(String hex) {
+        byte[] digest = HexFormat.of().parseHex(hex);
+        if (digest.length != 32) throw new IllegalArgumentException("Digest SHA-256 inválido: " + hex);
+        return digest;
+    }
+
+    private static ResponseStatusException notFound(String message) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, message);
+    }
+}
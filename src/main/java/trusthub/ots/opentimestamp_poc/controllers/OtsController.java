@@ -3,6 +3,7 @@ package trusthub.ots.opentimestamp_poc.controllers;
 import java.nio.file.Path;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -12,10 +13,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
 import trusthub.ots.opentimestamp_poc.dto.UpgradeResult;
 import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+import trusthub.ots.opentimestamp_poc.eventlog.OtsEventLog;
 import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
 
 @RestController
@@ -23,9 +26,14 @@ import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
 public class OtsController {
 
     private final OpenTimestampsService otsService;
+    private final OtsEventLog events;
+    private final long maxProofBytes;
 
-    public OtsController(OpenTimestampsService otsService) {
+    public OtsController(OpenTimestampsService otsService, OtsEventLog events,
+                         @Value("${ots.proof.max-size:1MB}") DataSize maxProofSize) {
         this.otsService = otsService;
+        this.events = events;
+        this.maxProofBytes = maxProofSize.toBytes();
     }
 
     /**
@@ -52,7 +60,7 @@ public class OtsController {
                     .headers(headers)
                     .body(otsBytes);
         } catch (Exception e) {
-            e.printStackTrace();
+            events.error("stamp", "Falló stamp", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("{\"status\":\"FAIL\",\"error\":\"" + e.getMessage() + "\"}");
         }
@@ -63,6 +71,7 @@ public class OtsController {
      */
     @PostMapping("/upgrade")
     public ResponseEntity<?> upgrade(@RequestParam("ots") MultipartFile ots) {
+        if (ots.getSize() > maxProofBytes) return proofTooLarge();
         try {
             UpgradeResult result = otsService.upgrade(ots);
 
@@ -103,7 +112,7 @@ public class OtsController {
             }
 
         } catch (Exception e) {
-            e.printStackTrace();
+            events.error("upgrade", "Falló upgrade", e);
             Map<String, String> err = Map.of("status", "FAIL", "error", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .contentType(MediaType.APPLICATION_JSON)
@@ -116,12 +125,13 @@ public class OtsController {
      */
     @PostMapping("/info")
     public ResponseEntity<?> info(@RequestParam("ots") MultipartFile ots) {
+        if (ots.getSize() > maxProofBytes) return proofTooLarge();
         try {
             String info = otsService.info(ots);
             // devolvemos texto plano para que la UI lo pegue en el pre
             return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(info);
         } catch (Exception e) {
-            e.printStackTrace();
+            events.error("info", "Falló info", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("{\"status\":\"FAIL\",\"error\":\"" + e.getMessage() + "\"}");
         }
@@ -134,6 +144,7 @@ public class OtsController {
     @PostMapping("/verify")
     public ResponseEntity<?> verify(@RequestParam("ots") MultipartFile ots,
                                     @RequestParam("file") MultipartFile file) {
+        if (ots.getSize() > maxProofBytes) return proofTooLarge();
         try {
             // si tu servicio devuelve VerifyResponse DTO:
             VerifyResponse resp = otsService.verifyAndGetMetadata(ots, file);
@@ -145,14 +156,22 @@ public class OtsController {
                 if (ok) return ResponseEntity.ok("{\"status\":\"OK\"}");
                 else return ResponseEntity.ok("{\"status\":\"FAIL\"}");
             } catch (Exception ex) {
-                ex.printStackTrace();
+                events.error("verify", "Falló verify (fallback)", ex);
                 return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                         .body("{\"status\":\"FAIL\",\"error\":\"" + ex.getMessage() + "\"}");
             }
         } catch (Exception e) {
-            e.printStackTrace();
+            events.error("verify", "Falló verify", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("{\"status\":\"FAIL\",\"error\":\"" + e.getMessage() + "\"}");
         }
     }
+
+    /** El .ots se lee entero en memoria ({@code getBytes}): tope {@code ots.proof.max-size} antes de leerlo. */
+    private ResponseEntity<?> proofTooLarge() {
+        Map<String, String> err = Map.of("status", "FAIL", "error", "El .ots supera " + maxProofBytes + " bytes");
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(err);
+    }
 }
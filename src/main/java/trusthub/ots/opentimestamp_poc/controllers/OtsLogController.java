@@ -0,0 +1,139 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.translog.TransparencyLogService;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Log de transparencia: alta de digests, cabeza del árbol, pruebas de inclusión/consistencia
+ * y .ots standalone por documento (una vez anclada la época).
+ */
+@RestController
+@RequestMapping("/api/ots/log")
+public class OtsLogController {
+
+    private final TransparencyLogService transparencyLog;
+    private final ExecutionLanes lanes;
+
+    public OtsLogController(TransparencyLogService transparencyLog, ExecutionLanes lanes) {
+        this.transparencyLog = transparencyLog;
+        this.lanes = lanes;
+    }
+
+    /**
+     * APPEND: JSON {"digests": ["&lt;sha256 hex&gt;", ...]} -> {first_index, count, tree_size}.
+     * Los índices devueltos son los que se usan luego para pedir pruebas y el .ots.
+     */
+    @PostMapping(value = "/entries", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> append(@RequestBody Map<String, List<String>> body) {
+        return Mono.fromCallable(() -> {
+            List<String> hexes = body.get("digests");
+            if (hexes == null || hexes.isEmpty()) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Falta 'digests'");
+            }
+            List<byte[]> digests = new ArrayList<>(hexes.size());
+            for (String hex : hexes) digests.add(parseDigest(hex));
+            long first = transparencyLog.append(digests);
+
+            Map<String, Object> resp = new LinkedHashMap<>();
+            resp.put("first_index", first);
+            resp.put("count", digests.size());
+            resp.put("tree_size", first + digests.size());
+            return ResponseEntity.status(HttpStatus.CREATED).body(resp);
+        }).subscribeOn(lanes.io());
+    }
+
+    /** HEAD: {tree_size, root_hash, anchored_size}. */
+    @GetMapping(value = "/head", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> head() {
+        return Mono.fromCallable(() -> {
+            TransparencyLogService.TreeHead head = transparencyLog.head();
+            Map<String, Object> resp = new LinkedHashMap<>();
+            resp.put("tree_size", head.treeSize());
+            resp.put("root_hash", HashUtil.bytesToHex(head.rootHash()));
+            resp.put("anchored_size", transparencyLog.anchoredSize());
+            return resp;
+        }).subscribeOn(lanes.io());
+    }
+
+    /** INCLUSION: ?index=&amp;tree_size= -> {leaf_index, tree_size, audit_path}. */
+    @GetMapping(value = "/proof/inclusion", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> inclusion(@RequestParam("index") long index,
+                                               @RequestParam("tree_size") long treeSize) {
+        return Mono.fromCallable(() -> {
+            Map<String, Object> resp = new LinkedHashMap<>();
+            resp.put("leaf_index", index);
+            resp.put("tree_size", treeSize);
+            resp.put("audit_path", toHex(transparencyLog.inclusionProof(index, treeSize)));
+            return resp;
+        }).subscribeOn(lanes.io()).onErrorMap(IllegalArgumentException.class, OtsLogController::badRequest);
+    }
+
+    /** CONSISTENCY: ?first=&amp;second= -> {first, second, consistency}. */
+    @GetMapping(value = "/proof/consistency", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> consistency(@RequestParam("first") long first,
+                                                 @RequestParam("second") long second) {
+        return Mono.fromCallable(() -> {
+            Map<String, Object> resp = new LinkedHashMap<>();
+            resp.put("first", first);
+            resp.put("second", second);
+            resp.put("consistency", toHex(transparencyLog.consistencyProof(first, second)));
+            return resp;
+        }).subscribeOn(lanes.io()).onErrorMap(IllegalArgumentException.class, OtsLogController::badRequest);
+    }
+
+    /** OTS: .ots standalone de la entrada (409 si su época todavía no fue anclada). */
+    @GetMapping(value = "/entries/{index}/ots")
+    public Mono<ResponseEntity<Resource>> standaloneOts(@PathVariable("index") long index) {
+        return Mono.fromCallable(() -> {
+            byte[] ots = transparencyLog.standaloneOts(index);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentDisposition(ContentDisposition.attachment().filename("log-" + index + ".ots").build());
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            return ResponseEntity.ok().headers(headers).<Resource>body(new ByteArrayResource(ots));
+        }).subscribeOn(lanes.io())
+                .onErrorMap(IllegalArgumentException.class, OtsLogController::badRequest)
+                .onErrorMap(IllegalStateException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    private static byte[] parseDigest(String hex) {
+        try {
+            byte[] digest = HexFormat.of().parseHex(hex.trim());
+            if (digest.length == 32) return digest;
+        } catch (IllegalArgumentException ignored) { }
+        throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Digest SHA-256 inválido: " + hex);
+    }
+
+    private static List<String> toHex(List<byte[]> hashes) {
+        List<String> out = new ArrayList<>(hashes.size());
+        for (byte[] h : hashes) out.add(HashUtil.bytesToHex(h));
+        return out;
+    }
+
+    private static ResponseStatusException badRequest(Throwable e) {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -1,141 +1,440 @@
 package trusthub.ots.opentimestamp_poc.controllers;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
-import org.springframework.core.io.FileSystemResource;
+import org.springframework.beans.factory.annotation.Value;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.core.io.Resource;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
 
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
-import reactor.core.scheduler.Schedulers;
-import trusthub.ots.opentimestamp_poc.dto.UpgradeResult;
-import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+import reactor.core.publisher.Signal;
+import reactor.util.function.Tuple2;
+import reactor.util.function.Tuples;
+import trusthub.ots.opentimestamp_poc.cache.ProofResultCache;
+import trusthub.ots.opentimestamp_poc.dto.VerifyBatchItem;
+import trusthub.ots.opentimestamp_poc.dto.VerifyProjection;
 import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+import trusthub.ots.opentimestamp_poc.tracing.OtsTracing;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
 
 @RestController
 @RequestMapping("/api/ots")
 public class OtsReactiveController {
 
     private final OpenTimestampsService otsService;
+    private final ProofResultCache resultCache;
+    private final OtsTracing tracing;
+    private final int batchMaxItems;
+    private final int batchConcurrency;
+    private final int maxProofBytes;
+    private final int stampBatchMaxFiles;
+    private final int stampBatchHashConcurrency;
 
-    public OtsReactiveController(OpenTimestampsService otsService) {
+    public OtsReactiveController(OpenTimestampsService otsService, ProofResultCache resultCache,
+                                 OtsTracing tracing,
+                                 @Value("${ots.verify.batch.max-items:1000}") int batchMaxItems,
+                                 @Value("${ots.verify.batch.concurrency:16}") int batchConcurrency,
+                                 @Value("${ots.proof.max-size:1MB}") DataSize maxProofSize,
+                                 @Value("${ots.stamp.batch.max-files:1000}") int stampBatchMaxFiles,
+                                 @Value("${ots.stamp.batch.hash-concurrency:8}") int stampBatchHashConcurrency) {
         this.otsService = otsService;
+        this.resultCache = resultCache;
+        this.tracing = tracing;
+        this.batchMaxItems = batchMaxItems;
+        this.batchConcurrency = batchConcurrency;
+        this.maxProofBytes = (int) Math.min(Integer.MAX_VALUE, maxProofSize.toBytes());
+        this.stampBatchMaxFiles = stampBatchMaxFiles;
+        this.stampBatchHashConcurrency = stampBatchHashConcurrency;
     }
 
     /**
      * STAMP: recibe multipart 'file' (PDF) y devuelve attachment .ots
      */
     @PostMapping(value = "/stamp", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public Mono<ResponseEntity<FileSystemResource>> stampReactive(@RequestPart("file") Mono<FilePart> filePartMono) {
+    public Mono<ResponseEntity<Resource>> stampReactive(@RequestPart("file") Mono<FilePart> filePartMono) {
         return filePartMono.flatMap(filePart -> {
             try {
                 Path tmpPdf = Files.createTempFile("ots-stamp-", ".pdf");
-                return filePart.transferTo(tmpPdf).then(
-                        Mono.fromCallable(() -> {
-                            byte[] otsBytes = otsService.stampFromFile(tmpPdf.toFile()); // método bloqueante en el service
-                            Path out = Files.createTempFile("ots-result-", ".ots");
-                            Files.write(out, otsBytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-                            FileSystemResource resource = new FileSystemResource(out.toFile());
+                return transfer(filePart, tmpPdf)
+                        .then(otsService.stampReactive(tmpPdf.toFile()))
+                        .map(otsBytes -> {
                             String original = filePart.filename();
                             String outName = (original != null ? original : "result") + ".ots";
                             HttpHeaders headers = new HttpHeaders();
                             headers.setContentDisposition(ContentDisposition.attachment().filename(outName).build());
                             headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-                            return ResponseEntity.ok().headers(headers).body(resource);
-                        }).subscribeOn(Schedulers.boundedElastic())
-                );
+                            return ResponseEntity.ok().headers(headers).<Resource>body(new ByteArrayResource(otsBytes));
+                        })
+                        .doFinally(s -> deleteQuietly(tmpPdf));
             } catch (Exception e) {
                 return Mono.error(e);
             }
         });
     }
 
+    /**
+     * STAMP BATCH: recibe multipart con varios 'files' -> zip con un {@code <archivo>.ots} por documento.
+     * El multipart se lee como {@link PartEvent}s, sin juntar el request: cada part se hashea en la lane cpu
+     * buffer por buffer mientras llega (hasta {@code ots.stamp.batch.hash-concurrency} a la vez) y el tope
+     * {@code ots.stamp.batch.max-files} corta con 413 apenas llegan los headers del part que lo supera.
+     * Todos los digests van en un solo stamp agregado a los calendarios.
+     */
+    @PostMapping(value = "/stamp/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = "application/zip")
+    public Mono<ResponseEntity<Resource>> stampBatch(@RequestBody Flux<PartEvent> parts) {
+        return Mono.defer(() -> {
+            AtomicInteger files = new AtomicInteger();
+            return parts
+                    .windowUntil(PartEvent::isLast)
+                    .flatMapSequential(part -> part.switchOnFirst((first, events) -> hashPart(first, events, files)),
+                            stampBatchHashConcurrency)
+                    .collectList();
+        })
+                .doOnDiscard(PartEvent.class, event -> DataBufferUtils.release(event.content()))
+                .flatMap(docs -> {
+                    if (docs.isEmpty()) {
+                        return Mono.error(new ResponseStatusException(HttpStatus.BAD_REQUEST, "No se recibió ningún archivo en 'files'"));
+                    }
+                    List<byte[]> digests = docs.stream().map(Tuple2::getT2).toList();
+                    return otsService.stampDigestsReactive(digests).map(proofs -> {
+                        List<String> names = docs.stream().map(Tuple2::getT1).toList();
+                        HttpHeaders headers = new HttpHeaders();
+                        headers.setContentDisposition(ContentDisposition.attachment().filename("stamps.zip").build());
+                        headers.setContentType(MediaType.parseMediaType("application/zip"));
+                        return ResponseEntity.ok().headers(headers).<Resource>body(new ByteArrayResource(zip(names, proofs)));
+                    });
+                });
+    }
+
+    /**
+     * Un part del stamp batch: si es un archivo de 'files' lo hashea a medida que llegan sus buffers;
+     * cualquier otro part se descarta liberando sus buffers.
+     */
+    private Flux<Tuple2<String, byte[]>> hashPart(Signal<? extends PartEvent> first, Flux<PartEvent> events, AtomicInteger files) {
+        if (first.hasValue() && first.get() instanceof FilePartEvent file && "files".equals(file.name())) {
+            if (files.incrementAndGet() > stampBatchMaxFiles) {
+                return Flux.error(new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                        "El stamp batch supera " + stampBatchMaxFiles + " archivos"));
+            }
+            return otsService.contentDigestReactive(events.map(PartEvent::content))
+                    .map(digest -> Tuples.of(otsName(file.filename()), digest))
+                    .flux();
+        }
+        return events.doOnNext(event -> DataBufferUtils.release(event.content())).thenMany(Flux.empty());
+    }
+
     /**
      * UPGRADE: recibe multipart 'ots'. Si hubo upgrade -> devuelve attachment,
      * si NO -> devuelve JSON {status: "NO_UPGRADE", message: "..."}
      */
     @PostMapping(value = "/upgrade", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public Mono<ResponseEntity<?>> upgradeReactive(@RequestPart("ots") Mono<FilePart> otsMono) {
-        return otsMono.flatMap(fp -> {
-            try {
-                Path tmp = Files.createTempFile("ots-in-", ".ots");
-                return fp.transferTo(tmp).then(
-                        Mono.fromCallable(() -> {
-                            UpgradeResult res = otsService.upgradeFromFile(tmp.toFile()); // método bloqueante en el service
+        return otsMono.flatMap(fp -> readProof(fp)
+                        .flatMap(otsService::upgradeReactive)
+                        .<ResponseEntity<?>>map(res -> {
                             if (res.isUpgraded()) {
-                                Path out = Files.createTempFile("ots-upgraded-", ".ots");
-                                Files.write(out, res.getOtsBytes(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-                                FileSystemResource resource = new FileSystemResource(out.toFile());
                                 String original = fp.filename();
                                 String base = (original != null) ? original.replaceAll("(?i)\\.ots$", "") : "upgraded";
                                 String outName = base + "-Upgraded.ots";
                                 HttpHeaders headers = new HttpHeaders();
                                 headers.setContentDisposition(ContentDisposition.attachment().filename(outName).build());
                                 headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-                                return ResponseEntity.ok().headers(headers).body(resource);
+                                return ResponseEntity.ok().headers(headers).body(new ByteArrayResource(res.getOtsBytes()));
                             } else {
                                 Map<String, String> body = Map.of("status", "NO_UPGRADE", "message", "El archivo .ots todavía no recibió ningún upgrade");
                                 return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
                             }
-                        }).subscribeOn(Schedulers.boundedElastic())
-                );
-            } catch (Exception e) {
-                return Mono.error(e);
-            }
-        });
+                        }));
+    }
+
+    /**
+     * COMPACT: recibe multipart 'ots' confirmado -> attachment con el .ots compactado (solo el camino a la
+     * mejor attestation de Bitcoin); headers X-Ots-Size-Before / X-Ots-Size-After. Solo reemplaza el proof
+     * archivado si el .ots recibido es el que emitió este servicio.
+     * Si el .ots no tiene attestation de Bitcoin -> JSON {status: "NOT_CONFIRMED", message: "..."}
+     */
+    @PostMapping(value = "/compact", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Mono<ResponseEntity<?>> compactReactive(@RequestPart("ots") Mono<FilePart> otsMono) {
+        return readPart(otsMono)
+                .flatMap(t -> otsService.compactReactive(t.getT2(), true).<ResponseEntity<?>>map(report -> {
+                    if (!report.compacted()) {
+                        Map<String, String> body = Map.of("status", "NOT_CONFIRMED", "message", "El archivo .ots todavía no tiene attestation de Bitcoin");
+                        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+                    }
+                    String original = t.getT1().filename();
+                    String base = (original != null) ? original.replaceAll("(?i)\\.ots$", "") : "compacted";
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentDisposition(ContentDisposition.attachment().filename(base + "-Compact.ots").build());
+                    headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+                    headers.set("X-Ots-Size-Before", String.valueOf(report.before().sizeBytes()));
+                    headers.set("X-Ots-Size-After", String.valueOf(report.after().sizeBytes()));
+                    return ResponseEntity.ok().headers(headers).body(new ByteArrayResource(report.ots()));
+                }));
+    }
+
+    /**
+     * COMPACT REPORT: recibe multipart 'ots' -> JSON con tamaño, nodos, attestations y tiempos de parse/info
+     * antes y después de compactar (no devuelve el .ots ni toca el archivo de proofs).
+     */
+    @PostMapping(value = "/compact/report", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, Object>> compactReport(@RequestPart("ots") Mono<FilePart> otsMono) {
+        return readPart(otsMono)
+                .flatMap(t -> otsService.compactReactive(t.getT2(), false))
+                .map(report -> {
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("compacted", report.compacted());
+                    body.put("block_height", report.compacted() ? report.blockHeight() : null);
+                    body.put("before", report.before());
+                    body.put("after", report.after());
+                    return body;
+                });
     }
 
     /**
-     * INFO: recibe multipart 'ots' -> devuelve texto plano (OpenTimestamps.info)
+     * INFO: recibe multipart 'ots' -> devuelve texto plano (OpenTimestamps.info).
+     * ETag = SHA-256 del .ots; con If-None-Match coincidente devuelve 304.
      */
     @PostMapping(value = "/info", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.TEXT_PLAIN_VALUE)
-    public Mono<ResponseEntity<String>> infoReactive(@RequestPart("ots") Mono<FilePart> otsMono) {
-        return otsMono.flatMap(fp -> {
-            try {
-                Path tmp = Files.createTempFile("ots-info-", ".ots");
-                return fp.transferTo(tmp).then(
-                        Mono.fromCallable(() -> {
-                            String info = otsService.infoFromFile(tmp.toFile()); // método bloqueante en el service
-                            return ResponseEntity.ok().contentType(MediaType.TEXT_PLAIN).body(info);
-                        }).subscribeOn(Schedulers.boundedElastic())
-                );
-            } catch (Exception e) {
-                return Mono.error(e);
-            }
-        });
+    public Mono<ResponseEntity<String>> infoReactive(@RequestPart("ots") Mono<FilePart> otsMono,
+                                                    @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return otsMono.flatMap(fp -> readProof(fp)
+                        .flatMap(otsBytes -> {
+                            String etag = ProofResultCache.etag(HashUtil.sha256Hex(otsBytes));
+                            if (ProofResultCache.matches(ifNoneMatch, etag)) {
+                                return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).<String>build());
+                            }
+                            return otsService.infoReactive(otsBytes)
+                                    .map(info -> ResponseEntity.ok().eTag(etag).contentType(MediaType.TEXT_PLAIN).body(info));
+                        }));
     }
 
     /**
-     * VERIFY: recibe multipart 'ots' y 'file' (original PDF) -> devuelve VerifyResponse JSON
+     * VERIFY: recibe multipart 'ots' y 'file' (original PDF) -> devuelve VerifyResponse (JSON o CBOR según Accept).
+     * Con {@code ?fields=status,block_time} solo se devuelven esos campos (ver {@link VerifyProjection}).
+     * Si el resultado está confirmado en Bitcoin (inmutable) se agrega ETag = hash(.ots) + hash(documento)
+     * (+ proyección y formato); con If-None-Match coincidente y el resultado en cache devuelve 304.
+     * Con {@code ?attestations=fastest|all} las attestations de Bitcoin se chequean en paralelo
+     * (ver {@link OpenTimestampsService#verifyAttestationsReactive}); esas respuestas no llevan ETag.
      */
-    @PostMapping(value = "/verify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
-    public Mono<ResponseEntity<VerifyResponse>> verifyReactive(@RequestPart("ots") Mono<FilePart> otsMono,
-                                                               @RequestPart("file") Mono<FilePart> fileMono) {
+    @PostMapping(value = "/verify", consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<ResponseEntity<Object>> verifyReactive(@RequestPart("ots") Mono<FilePart> otsMono,
+                                                       @RequestPart("file") Mono<FilePart> fileMono,
+                                                       @RequestParam(value = "fields", required = false) String fields,
+                                                       @RequestParam(value = "attestations", required = false) String attestations,
+                                                       @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                                                       @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        VerifyProjection projection = projection(fields);
+        boolean cbor = accept != null && accept.contains(MediaType.APPLICATION_CBOR_VALUE);
+        if (attestations != null && !attestations.equals("fastest") && !attestations.equals("all")) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "attestations debe ser fastest o all");
+        }
         return Mono.zip(otsMono, fileMono)
                 .flatMap(tuple -> {
                     FilePart otsPart = tuple.getT1();
                     FilePart pdfPart = tuple.getT2();
                     try {
-                        Path otsTmp = Files.createTempFile("ots-verify-in-", ".ots");
                         Path pdfTmp = Files.createTempFile("orig-verify-in-", ".pdf");
-                        return Mono.when(otsPart.transferTo(otsTmp), pdfPart.transferTo(pdfTmp))
-                                .then(Mono.fromCallable(() -> {
-                                    VerifyResponse vr = otsService.verifyAndGetMetadataFromFiles(otsTmp.toFile(), pdfTmp.toFile()); // método bloqueante en el service
-                                    return ResponseEntity.ok().body(vr);
-                                }).subscribeOn(Schedulers.boundedElastic()));
+                        // el .ots se junta en memoria y el documento se hashea en paralelo
+                        Mono<byte[]> otsBytesMono = readProof(otsPart);
+                        Mono<byte[]> digestMono = transfer(pdfPart, pdfTmp).then(otsService.documentDigestReactive(pdfTmp.toFile()));
+                        return Mono.zip(otsBytesMono, digestMono)
+                                .flatMap(t -> {
+                                    byte[] otsBytes = t.getT1();
+                                    byte[] digest = t.getT2();
+                                    if (attestations != null) {
+                                        return otsService.verifyAttestationsReactive(otsBytes, digest, attestations.equals("all"))
+                                                .map(vr -> ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(projection.apply(vr)));
+                                    }
+                                    String proofKey = HashUtil.sha256Hex(otsBytes);
+                                    String digestHex = HashUtil.bytesToHex(digest);
+                                    String etag = ProofResultCache.etag(representationKey(
+                                            ProofResultCache.verifyKey(proofKey, digestHex), projection, cbor));
+                                    Mono<Boolean> notModified = ProofResultCache.matches(ifNoneMatch, etag)
+                                            ? resultCache.getVerify(proofKey, digestHex).map(Optional::isPresent)
+                                            : Mono.just(false);
+                                    return notModified.flatMap(unchanged -> {
+                                        if (unchanged) {
+                                            return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).<Object>build());
+                                        }
+                                        return otsService.verifyReactive(otsBytes, digest).map(vr -> {
+                                            ResponseEntity.BodyBuilder ok = ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT);
+                                            if (ProofResultCache.isConfirmed(vr)) ok.eTag(etag);
+                                            return ok.body(projection.apply(vr));
+                                        });
+                                    });
+                                })
+                                .doFinally(s -> deleteQuietly(pdfTmp));
                     } catch (Exception e) {
                         return Mono.error(e);
                     }
                 });
     }
+
+    /**
+     * VERIFY BATCH: lista de {@link VerifyBatchItem} (JSON con bytes en base64, o CBOR) -> lista de resultados
+     * en el mismo orden, cada uno con su {@code id} y los campos de {@code ?fields=}.
+     * Un ítem inválido o que falla devuelve {@code status: "ERROR"} sin cortar el batch.
+     */
+    @PostMapping(value = "/verify/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE},
+            produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+    public Mono<List<Map<String, Object>>> verifyBatch(@RequestBody Flux<VerifyBatchItem> items,
+                                                       @RequestParam(value = "fields", required = false) String fields) {
+        VerifyProjection projection = projection(fields);
+        return items
+                .index()
+                .doOnNext(t -> {
+                    if (t.getT1() >= batchMaxItems) {
+                        throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                                "El batch supera " + batchMaxItems + " ítems");
+                    }
+                })
+                .map(t -> t.getT2())
+                .flatMapSequential(item -> verifyItem(item, projection), batchConcurrency)
+                .collectList();
+    }
+
+    private Mono<Map<String, Object>> verifyItem(VerifyBatchItem item, VerifyProjection projection) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("id", item.getId());
+        if (item.getOts() == null || item.getOts().length == 0
+                || item.getDocument_digest() == null || item.getDocument_digest().length != 32) {
+            out.put("status", "ERROR");
+            out.put("message", "ots y document_digest (SHA-256, 32 bytes) son obligatorios");
+            return Mono.just(out);
+        }
+        return otsService.verifyReactive(item.getOts(), item.getDocument_digest())
+                .map(vr -> {
+                    projection.writeTo(vr, out);
+                    return out;
+                })
+                .onErrorResume(e -> {
+                    out.put("status", "ERROR");
+                    out.put("message", String.valueOf(e.getMessage()));
+                    return Mono.just(out);
+                });
+    }
+
+    private static VerifyProjection projection(String fields) {
+        try {
+            return VerifyProjection.parse(fields);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /** Clave del ETag: cada proyección y cada formato es una representación distinta. */
+    private static String representationKey(String verifyKey, VerifyProjection projection, boolean cbor) {
+        if (projection.isAll() && !cbor) return verifyKey;
+        return verifyKey + "-" + HashUtil.sha256Hex((projection.key() + (cbor ? ";cbor" : "")).getBytes(StandardCharsets.UTF_8)).substring(0, 16);
+    }
+
+    /** Copia del part a disco, en su propio span (nombre del part, archivo y tamaño). */
+    private Mono<Void> transfer(FilePart part, Path target) {
+        return tracing.observe("ots.upload.transfer", obs -> {
+            obs.lowCardinalityKeyValue("part", part.name());
+            obs.highCardinalityKeyValue("file.name", String.valueOf(part.filename()));
+            return part.transferTo(target).doOnSuccess(v -> {
+                try { obs.highCardinalityKeyValue("file.size", String.valueOf(Files.size(target))); } catch (Exception ignored) {}
+            });
+        });
+    }
+
+    /** El part .ots junto con su contenido (ver {@link #readProof}). */
+    private Mono<Tuple2<FilePart, byte[]>> readPart(Mono<FilePart> partMono) {
+        return partMono.flatMap(fp -> readProof(fp).map(bytes -> Tuples.of(fp, bytes)));
+    }
+
+    /**
+     * Junta los {@code DataBuffer} del part .ots directo en un byte[] (sin temporal en disco).
+     * Un .ots pesa pocos KB: más de {@code ots.proof.max-size} se corta con 413 sin terminar de leerlo
+     * (y si el part declara Content-Length, antes de empezar).
+     */
+    private Mono<byte[]> readProof(FilePart part) {
+        if (part.headers().getContentLength() > maxProofBytes) return Mono.error(proofTooLarge());
+        return tracing.observe("ots.upload.read", obs -> {
+            obs.lowCardinalityKeyValue("part", part.name());
+            obs.highCardinalityKeyValue("file.name", String.valueOf(part.filename()));
+            return DataBufferUtils.join(part.content(), maxProofBytes)
+                    .map(buffer -> {
+                        try {
+                            byte[] bytes = new byte[buffer.readableByteCount()];
+                            buffer.read(bytes);
+                            obs.highCardinalityKeyValue("file.size", String.valueOf(bytes.length));
+                            return bytes;
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                    })
+                    .onErrorMap(DataBufferLimitException.class, e -> proofTooLarge());
+        });
+    }
+
+    private ResponseStatusException proofTooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "El .ots supera " + maxProofBytes + " bytes");
+    }
+
+    /** Nombre de la entrada del zip: solo el nombre del archivo (sin directorios) + ".ots". */
+    private static String otsName(String filename) {
+        String base = FileNames.baseName(filename);
+        return (base != null ? base : "document") + ".ots";
+    }
+
+    /** Zip en memoria (los .ots pesan pocos KB); nombres repetidos se desambiguan con "-2", "-3"... */
+    private static byte[] zip(List<String> names, List<byte[]> proofs) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Set<String> used = new HashSet<>();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i);
+                String base = name.substring(0, name.length() - ".ots".length());
+                for (int n = 2; !used.add(name); n++) name = base + "-" + n + ".ots";
+                zip.putNextEntry(new ZipEntry(name));
+                zip.write(proofs.get(i));
+                zip.closeEntry();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try { Files.deleteIfExists(path); } catch (Exception ignored) {}
+    }
 }
@@ -0,0 +1,92 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestPart;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.dto.UpgradeEvent;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.service.UpgradeSubscriptionService;
+
+/**
+ * Suscripción a la confirmación de un .ots (SSE) como alternativa al polling de /upgrade.
+ */
+@RestController
+@RequestMapping("/api/ots/subscriptions")
+public class OtsSubscriptionController {
+
+    private static final Duration HEARTBEAT = Duration.ofSeconds(30);
+
+    private final UpgradeSubscriptionService subscriptions;
+    private final ExecutionLanes lanes;
+    private final int maxProofBytes;
+
+    public OtsSubscriptionController(UpgradeSubscriptionService subscriptions, ExecutionLanes lanes,
+                                     @Value("${ots.proof.max-size:1MB}") DataSize maxProofSize) {
+        this.subscriptions = subscriptions;
+        this.lanes = lanes;
+        this.maxProofBytes = (int) Math.min(Integer.MAX_VALUE, maxProofSize.toBytes());
+    }
+
+    /**
+     * REGISTER: recibe multipart 'ots' -> JSON {id, status}. El id es el hash del documento y se usa
+     * para suscribirse; status es PENDING, o el estado final si ese .ots ya se resolvió (y sigue retenido).
+     * Un .ots de más de {@code ots.proof.max-size} se corta con 413 sin terminar de leerlo.
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, String>>> register(@RequestPart("ots") Mono<FilePart> otsMono) {
+        return otsMono
+                .flatMap(fp -> DataBufferUtils.join(fp.content(), maxProofBytes))
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, "El .ots supera " + maxProofBytes + " bytes"))
+                .map(buffer -> {
+                    try {
+                        byte[] bytes = new byte[buffer.readableByteCount()];
+                        buffer.read(bytes);
+                        return bytes;
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .flatMap(bytes -> Mono.fromCallable(() -> subscriptions.register(bytes)).subscribeOn(lanes.cpu()))
+                .map(registered -> ResponseEntity.status(HttpStatus.CREATED)
+                        .body(Map.of("id", registered.digest(), "status", registered.status())));
+    }
+
+    /**
+     * EVENTS: stream SSE con eventos PENDING / UPGRADED (incluye el .ots nuevo en base64) / EXPIRED.
+     * Se envía un comentario cada 30s para mantener viva la conexión. Un cliente que
+     * se reconecta luego de la resolución recibe el evento final mientras dure la retención.
+     */
+    @GetMapping(value = "/{id}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<UpgradeEvent>> events(@PathVariable("id") String id) {
+        Flux<UpgradeEvent> source = subscriptions.subscribe(id).orElse(null);
+        if (source == null) {
+            return Flux.error(new ResponseStatusException(HttpStatus.NOT_FOUND, "Suscripción inexistente: " + id));
+        }
+        Flux<ServerSentEvent<UpgradeEvent>> events = source
+                .map(ev -> ServerSentEvent.builder(ev).id(id).event(ev.getStatus()).build());
+        Flux<ServerSentEvent<UpgradeEvent>> heartbeat = Flux.interval(HEARTBEAT)
+                .map(i -> ServerSentEvent.<UpgradeEvent>builder().comment("keep-alive").build());
+        // el heartbeat termina junto con el stream de eventos
+        return events.publish(shared -> Flux.merge(shared, heartbeat.takeUntilOther(shared.ignoreElements())));
+    }
+}
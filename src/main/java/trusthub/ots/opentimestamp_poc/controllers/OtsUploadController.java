@@ -0,0 +1,135 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.upload.ChunkedUploadService;
+import trusthub.ots.opentimestamp_poc.upload.ChunkedUploadService.CorruptSessionException;
+import trusthub.ots.opentimestamp_poc.upload.ChunkedUploadService.OffsetMismatchException;
+import trusthub.ots.opentimestamp_poc.upload.UploadSession;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Uploads reanudables: el documento llega en chunks (body binario, en orden) y solo se guarda
+ * el estado del hash. Ver {@link ChunkedUploadService}.
+ * <pre>
+ * POST   /api/ots/uploads?filename=x.pdf        -> 201 {id, offset: 0}
+ * PUT    /api/ots/uploads/{id}?offset=N  (body)  -> {id, offset}   (409 + Upload-Offset si N no es el esperado)
+ * GET    /api/ots/uploads/{id}                  -> {id, offset}   (para reanudar)
+ * POST   /api/ots/uploads/{id}/finish           -> attachment .ots
+ * DELETE /api/ots/uploads/{id}                  -> 204            (409 si hay un chunk o finish en curso)
+ * </pre>
+ */
+@RestController
+@RequestMapping("/api/ots/uploads")
+public class OtsUploadController {
+
+    private static final String UPLOAD_OFFSET = "Upload-Offset";
+
+    private final ChunkedUploadService uploads;
+
+    public OtsUploadController(ChunkedUploadService uploads) {
+        this.uploads = uploads;
+    }
+
+    @PostMapping(produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> create(@RequestParam(value = "filename", required = false) String filename) {
+        return uploads.create(FileNames.baseName(filename))
+                .map(s -> ResponseEntity.status(HttpStatus.CREATED).header(UPLOAD_OFFSET, "0").body(body(s, 0)));
+    }
+
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> status(@PathVariable("id") String id) {
+        return uploads.find(id)
+                .map(s -> {
+                    long offset = s.offset();
+                    return ResponseEntity.ok().header(UPLOAD_OFFSET, String.valueOf(offset)).body(body(s, offset));
+                })
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .onErrorMap(CorruptSessionException.class, OtsUploadController::corrupt);
+    }
+
+    @PutMapping(value = "/{id}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<ResponseEntity<Map<String, Object>>> append(@PathVariable("id") String id,
+                                                            @RequestParam("offset") long offset,
+                                                            @RequestBody Flux<DataBuffer> chunk) {
+        return uploads.append(id, offset, chunk)
+                .map(s -> {
+                    long next = s.offset();
+                    return ResponseEntity.ok().header(UPLOAD_OFFSET, String.valueOf(next)).body(body(s, next));
+                })
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .onErrorResume(OffsetMismatchException.class, e -> {
+                    Map<String, Object> conflict = new LinkedHashMap<>();
+                    conflict.put("id", id);
+                    conflict.put("offset", e.expected());
+                    conflict.put("message", e.getMessage());
+                    return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT)
+                            .header(UPLOAD_OFFSET, String.valueOf(e.expected())).body(conflict));
+                })
+                .onErrorMap(CorruptSessionException.class, OtsUploadController::corrupt)
+                .onErrorMap(IllegalStateException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()))
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE, e.getMessage()));
+    }
+
+    @PostMapping("/{id}/finish")
+    public Mono<ResponseEntity<Resource>> finish(@PathVariable("id") String id) {
+        return uploads.finish(id)
+                .map(done -> {
+                    String name = done.session().filename() != null ? done.session().filename() : "document";
+                    HttpHeaders headers = new HttpHeaders();
+                    headers.setContentDisposition(ContentDisposition.attachment().filename(name + ".ots").build());
+                    headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+                    headers.set("X-Ots-Document-Digest", HashUtil.bytesToHex(done.digest()));
+                    return ResponseEntity.ok().headers(headers).<Resource>body(new ByteArrayResource(done.ots()));
+                })
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .onErrorMap(CorruptSessionException.class, OtsUploadController::corrupt)
+                .onErrorMap(IllegalStateException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> cancel(@PathVariable("id") String id) {
+        return uploads.cancel(id)
+                .thenReturn(ResponseEntity.noContent().<Void>build())
+                .onErrorMap(IllegalStateException.class, e -> new ResponseStatusException(HttpStatus.CONFLICT, e.getMessage()));
+    }
+
+    private static Map<String, Object> body(UploadSession s, long offset) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("id", s.id());
+        body.put("filename", s.filename());
+        body.put("offset", offset);
+        return body;
+    }
+
+    /** Estado dañado en el servidor: no es culpa del chunk, así que 500 y no 413. */
+    private static ResponseStatusException corrupt(CorruptSessionException e) {
+        return new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, e.getMessage(), e);
+    }
+
+    private static ResponseStatusException notFound(String id) {
+        return new ResponseStatusException(HttpStatus.NOT_FOUND, "Sesión de upload inexistente o vencida: " + id);
+    }
+}
@@ -0,0 +1,32 @@
+package trusthub.ots.opentimestamp_poc.dto;
+
+import java.time.Instant;
+
+/**
+ * Evento enviado por SSE a los suscriptores de un .ots pendiente.
+ */
+public class UpgradeEvent {
+
+    /** "PENDING", "UPGRADED" o "EXPIRED" */
+    private final String status;
+
+    /** Hash (hex) del documento al que corresponde el .ots; es también el id de la suscripción */
+    private final String digest;
+
+    /** .ots actualizado (solo en UPGRADED; Jackson lo serializa en base64) */
+    private final byte[] ots;
+
+    private final Instant timestamp;
+
+    public UpgradeEvent(String status, String digest, byte[] ots) {
+        this.status = status;
+        this.digest = digest;
+        this.ots = ots;
+        this.timestamp = Instant.now();
+    }
+
+    public String getStatus() { return status; }
+    public String getDigest() { return digest; }
+    public byte[] getOts() { return ots; }
+    public Instant getTimestamp() { return timestamp; }
+}
@@ -0,0 +1,28 @@
+package trusthub.ots.opentimestamp_poc.dto;
+
+/**
+ * Ítem de {@code POST /api/ots/verify/batch}: un .ots y el SHA-256 del documento.
+ * En JSON los bytes van en base64; en CBOR como byte strings nativos.
+ */
+public class VerifyBatchItem {
+
+    /** Id opcional del cliente; se devuelve en el resultado del ítem */
+    private String id;
+
+    /** Bytes del archivo .ots */
+    private byte[] ots;
+
+    /** SHA-256 del documento original (32 bytes) */
+    private byte[] document_digest;
+
+    public VerifyBatchItem() {}
+
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public byte[] getOts() { return ots; }
+    public void setOts(byte[] ots) { this.ots = ots; }
+
+    public byte[] getDocument_digest() { return document_digest; }
+    public void setDocument_digest(byte[] document_digest) { this.document_digest = document_digest; }
+}
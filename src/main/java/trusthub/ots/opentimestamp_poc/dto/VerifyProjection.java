@@ -0,0 +1,111 @@
+package trusthub.ots.opentimestamp_poc.dto;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Proyección de campos de {@link VerifyResponse} ({@code ?fields=status,block_time}).
+ * <p>
+ * Solo se copian los campos pedidos, así {@code info} (varios KB de texto) y
+ * {@code rawVerifyResults} no se serializan ni viajan si el cliente no los pide.
+ * Sin {@code fields} se devuelve el {@link VerifyResponse} completo, como siempre.
+ * </p>
+ */
+public final class VerifyProjection {
+
+    public enum Field {
+        STATUS("status", VerifyResponse::getStatus),
+        INFO("info", VerifyResponse::getInfo),
+        TXID("txid", VerifyResponse::getTxid),
+        BLOCK_HASH("block_hash", VerifyResponse::getBlock_hash),
+        BLOCK_HEIGHT("block_height", VerifyResponse::getBlock_height),
+        BLOCK_TIME("block_time", VerifyResponse::getBlock_time),
+        RAW_VERIFY_RESULTS("rawVerifyResults", VerifyResponse::getRawVerifyResults),
+        ATTESTATIONS("attestations", VerifyResponse::getAttestations);
+
+        private final String jsonName;
+        private final Function<VerifyResponse, Object> getter;
+
+        Field(String jsonName, Function<VerifyResponse, Object> getter) {
+            this.jsonName = jsonName;
+            this.getter = getter;
+        }
+
+        public String jsonName() {
+            return jsonName;
+        }
+
+        static Field of(String name) {
+            for (Field f : values()) {
+                if (f.jsonName.equals(name)) return f;
+            }
+            throw new IllegalArgumentException("Campo desconocido en fields: " + name);
+        }
+    }
+
+    public static final VerifyProjection ALL = new VerifyProjection(EnumSet.allOf(Field.class));
+
+    private final Set<Field> fields;
+
+    private VerifyProjection(Set<Field> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Parsea la lista separada por comas de {@code ?fields=}. Null o vacío = {@link #ALL}.
+     *
+     * @throws IllegalArgumentException si algún nombre no es un campo de {@link VerifyResponse}
+     */
+    public static VerifyProjection parse(String fields) {
+        if (fields == null || fields.isBlank()) return ALL;
+        EnumSet<Field> set = EnumSet.noneOf(Field.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty()) set.add(Field.of(trimmed));
+        }
+        return set.isEmpty() || set.size() == Field.values().length ? ALL : new VerifyProjection(set);
+    }
+
+    public boolean isAll() {
+        return this == ALL;
+    }
+
+    public boolean includes(Field field) {
+        return fields.contains(field);
+    }
+
+    /** Representación canónica (orden del enum), para ETags por proyección. */
+    public String key() {
+        if (isAll()) return "all";
+        StringBuilder sb = new StringBuilder();
+        for (Field f : fields) {
+            if (sb.length() > 0) sb.append(',');
+            sb.append(f.jsonName);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * @return el mismo {@code vr} si es {@link #ALL}; si no, un mapa con los campos pedidos
+     *         (incluidos los null, para que la forma de la respuesta no dependa del resultado)
+     */
+    public Object apply(VerifyResponse vr) {
+        if (isAll()) return vr;
+        Map<String, Object> out = new LinkedHashMap<>();
+        writeTo(vr, out);
+        return out;
+    }
+
+    /** Agrega a {@code out} los campos de la proyección (para respuestas que suman otros campos, ej. batch). */
+    public void writeTo(VerifyResponse vr, Map<String, Object> out) {
+        for (Field f : fields) {
+            Object value = f.getter.apply(vr);
+            // attestations depende del modo de verify, no del resultado: sin el modo no aparece
+            if (value == null && f == Field.ATTESTATIONS) continue;
+            out.put(f.jsonName, value);
+        }
+    }
+}
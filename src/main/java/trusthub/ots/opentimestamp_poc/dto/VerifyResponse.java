@@ -1,7 +1,12 @@
 package trusthub.ots.opentimestamp_poc.dto;
 
+import java.util.List;
 import java.util.Map;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import trusthub.ots.opentimestamp_poc.verify.AttestationCheck;
+
 public class VerifyResponse {
     
     /** Estado de verificación: "OK" si válido, "FAIL" si inválido */
@@ -25,6 +30,10 @@ public class VerifyResponse {
     /** Resultados crudos de verificación de la librería OpenTimestamps */
     private Map<?, ?> rawVerifyResults;
 
+    /** Resultado de cada attestation de Bitcoin (solo con {@code ?attestations=all}) */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<AttestationCheck> attestations;
+
     public VerifyResponse() {}
 
     public VerifyResponse(String status, String info, String txid, String block_hash, Long block_height, String block_time, Map<?, ?> rawVerifyResults) {
@@ -58,4 +67,7 @@ public class VerifyResponse {
 
     public Map<?, ?> getRawVerifyResults() { return rawVerifyResults; }
     public void setRawVerifyResults(Map<?, ?> rawVerifyResults) { this.rawVerifyResults = rawVerifyResults; }
+
+    public List<AttestationCheck> getAttestations() { return attestations; }
+    public void setAttestations(List<AttestationCheck> attestations) { this.attestations = attestations; }
 }
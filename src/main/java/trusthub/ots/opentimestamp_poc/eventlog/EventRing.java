@@ -0,0 +1,74 @@
+package trusthub.ots.opentimestamp_poc.eventlog;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Ring buffer acotado, sin locks: muchos productores, un solo consumidor.
+ * <p>
+ * Cada slot tiene un número de secuencia (esquema de D. Vyukov): el productor reserva una
+ * posición con un CAS sobre {@code tail} y publica el elemento con una escritura release
+ * de la secuencia; el consumidor lee la secuencia con acquire. {@link #offer} nunca espera:
+ * con el buffer lleno devuelve false y el que llama decide (descartar y contar).
+ * </p>
+ */
+final class EventRing<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    /** Solo lo escribe el consumidor; volatile para que {@link #size()} se pueda leer desde otro hilo. */
+    private volatile long head;
+
+    EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1; // potencia de 2 >= capacity (mínimo 2)
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) sequences.set(i, i);
+    }
+
+    /** @return false si el buffer está lleno (el elemento no se guardó) */
+    boolean offer(T element) {
+        long pos = tail.get();
+        int index;
+        while (true) {
+            index = (int) (pos & mask);
+            long diff = sequences.getAcquire(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) break;
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false; // el slot todavía tiene un elemento de la vuelta anterior
+            } else {
+                pos = tail.get(); // otro productor ganó esta posición
+            }
+        }
+        slots.setPlain(index, element);
+        sequences.setRelease(index, pos + 1);
+        return true;
+    }
+
+    /** Solo desde el hilo consumidor. @return null si no hay elementos publicados */
+    T poll() {
+        long h = head;
+        int index = (int) (h & mask);
+        if (sequences.getAcquire(index) != h + 1) return null;
+        T element = slots.getPlain(index);
+        slots.setPlain(index, null);
+        sequences.setRelease(index, h + mask + 1);
+        head = h + 1;
+        return element;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /** Aproximado (productores concurrentes). */
+    int size() {
+        return (int) Math.max(0, Math.min(capacity(), tail.get() - head));
+    }
+}
@@ -0,0 +1,172 @@
+package trusthub.ots.opentimestamp_poc.eventlog;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+import org.slf4j.spi.LoggingEventBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Log de eventos de operaciones OTS, asincrónico y acotado.
+ * <p>
+ * Los hilos de request solo encolan un {@link OtsEvent} en un ring buffer sin locks
+ * ({@link EventRing}); un hilo propio los escribe en el logger {@code ots.events} con los
+ * campos como key-values de SLF4J (con {@code logging.structured.format.console} salen como JSON).
+ * El render del stack trace y el I/O de stdout ocurren en ese hilo, nunca en el request.
+ * </p>
+ * <ul>
+ *   <li>Buffer lleno: el evento se descarta y se cuenta en {@code ots.eventlog.dropped}.</li>
+ *   <li>Payloads verbosos (ej. el texto completo de {@code info}): solo se arman y se loguean
+ *       en una fracción {@code ots.eventlog.payload-sample-rate} de los eventos; el resto se
+ *       cuenta en {@code ots.eventlog.sampled_out}.</li>
+ * </ul>
+ */
+@Component
+public class OtsEventLog implements SmartLifecycle {
+
+    private static final Logger eventLogger = LoggerFactory.getLogger("ots.events");
+    private static final Object[] NO_FIELDS = new Object[0];
+
+    private final EventRing<OtsEvent> ring;
+    private final double payloadSampleRate;
+    private final Counter dropped;
+    private final Counter sampledOut;
+    private final Counter written;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public OtsEventLog(@Value("${ots.eventlog.capacity:8192}") int capacity,
+                       @Value("${ots.eventlog.payload-sample-rate:0.01}") double payloadSampleRate,
+                       MeterRegistry meterRegistry) {
+        this.ring = new EventRing<>(capacity);
+        this.payloadSampleRate = payloadSampleRate;
+        this.dropped = Counter.builder("ots.eventlog.dropped").register(meterRegistry);
+        this.sampledOut = Counter.builder("ots.eventlog.sampled_out").register(meterRegistry);
+        this.written = Counter.builder("ots.eventlog.written").register(meterRegistry);
+        Gauge.builder("ots.eventlog.queued", ring, EventRing::size).register(meterRegistry);
+    }
+
+    // -------------------- API para productores (no bloquea) --------------------
+
+    /** Evento INFO. {@code fields} = pares clave, valor. */
+    public void info(String type, String message, Object... fields) {
+        if (!eventLogger.isInfoEnabled()) return;
+        publish(new OtsEvent(System.currentTimeMillis(), Level.INFO, type, message, fields, null, null));
+    }
+
+    public void warn(String type, String message, Object... fields) {
+        publish(new OtsEvent(System.currentTimeMillis(), Level.WARN, type, message, fields, null, null));
+    }
+
+    /** Error con excepción: el stack trace se renderiza en el hilo del event log. */
+    public void error(String type, String message, Throwable error, Object... fields) {
+        publish(new OtsEvent(System.currentTimeMillis(), Level.ERROR, type, message, fields, null, error));
+    }
+
+    /**
+     * Evento DEBUG con payload verboso muestreado: {@code payload} solo se evalúa si el evento
+     * entra en la muestra (y si DEBUG está habilitado para {@code ots.events}).
+     */
+    public void payload(String type, String message, Supplier<String> payload, Object... fields) {
+        if (!eventLogger.isDebugEnabled()) return;
+        if (ThreadLocalRandom.current().nextDouble() >= payloadSampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        publish(new OtsEvent(System.currentTimeMillis(), Level.DEBUG, type, message, fields, payload.get(), null));
+    }
+
+    private void publish(OtsEvent event) {
+        if (!ring.offer(event)) dropped.increment();
+    }
+
+    // -------------------- consumidor --------------------
+
+    @Override
+    public void start() {
+        running = true;
+        writer = new Thread(this::drainLoop, "ots-eventlog");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread t = writer;
+        if (t != null) {
+            LockSupport.unpark(t);
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Fase baja: arranca antes y se apaga después que el resto, para no perder los últimos eventos. */
+    @Override
+    public int getPhase() {
+        return Integer.MIN_VALUE + 1000;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            if (drain() == 0) {
+                // sin eventos: espera corta en vez de que los productores tengan que despertar al hilo
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(2));
+            }
+        }
+        drain(); // lo que quedó al apagar
+    }
+
+    private int drain() {
+        int n = 0;
+        OtsEvent event;
+        while ((event = ring.poll()) != null) {
+            write(event);
+            n++;
+        }
+        return n;
+    }
+
+    private void write(OtsEvent event) {
+        try {
+            LoggingEventBuilder b = eventLogger.atLevel(event.level())
+                    .addKeyValue("event", event.type())
+                    .addKeyValue("at", event.timestampMillis());
+            Object[] fields = event.fields() != null ? event.fields() : NO_FIELDS;
+            for (int i = 0; i + 1 < fields.length; i += 2) {
+                b = b.addKeyValue(String.valueOf(fields[i]), fields[i + 1]);
+            }
+            if (event.error() != null) b = b.setCause(event.error());
+            String message = event.payload() != null ? event.message() + "\n" + event.payload() : event.message();
+            b.log(message);
+            written.increment();
+        } catch (RuntimeException e) {
+            // un evento mal formado no puede tirar el hilo del event log
+            dropped.increment();
+        }
+    }
+
+    /** Evento encolado. {@code fields}: pares clave, valor. */
+    record OtsEvent(long timestampMillis, Level level, String type, String message,
+                    Object[] fields, String payload, Throwable error) { }
+}
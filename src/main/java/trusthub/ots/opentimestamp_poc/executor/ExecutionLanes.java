@@ -0,0 +1,104 @@
+package trusthub.ots.opentimestamp_poc.executor;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Bulkheads: pools separados para que el trabajo pesado no frene a los requests interactivos.
+ * <ul>
+ *   <li>{@link #cpu()}: hashing, (de)serialización de .ots, render de info. Tantos hilos como cores.</li>
+ *   <li>{@link #io()}: calendarios, verify de la librería, lectura/escritura de archivos.</li>
+ *   <li>{@link #bulk()}: trabajos en segundo plano (upgrades pendientes, exportación de bundles),
+ *       pocos hilos y con prioridad baja.</li>
+ * </ul>
+ * Cada lane tiene cola acotada: si se llena, la tarea se rechaza (el request responde 503
+ * con Retry-After en vez de esperar sin límite). Métricas por lane:
+ * {@code executor.*{name=ots.lane.<lane>}} y {@code ots.lane.rejected{lane}}.
+ */
+@Component
+public class ExecutionLanes {
+
+    private final ThreadPoolExecutor cpuPool;
+    private final ThreadPoolExecutor ioPool;
+    private final ThreadPoolExecutor bulkPool;
+    private final Scheduler cpu;
+    private final Scheduler io;
+    private final Scheduler bulk;
+
+    public ExecutionLanes(@Value("${ots.lanes.cpu.threads:0}") int cpuThreads,
+                          @Value("${ots.lanes.cpu.queue:1000}") int cpuQueue,
+                          @Value("${ots.lanes.io.threads:64}") int ioThreads,
+                          @Value("${ots.lanes.io.queue:2000}") int ioQueue,
+                          @Value("${ots.lanes.bulk.threads:2}") int bulkThreads,
+                          @Value("${ots.lanes.bulk.queue:10000}") int bulkQueue,
+                          MeterRegistry meterRegistry) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        this.cpuPool = pool("cpu", cpuThreads > 0 ? cpuThreads : cores, cpuQueue, Thread.NORM_PRIORITY, meterRegistry);
+        this.ioPool = pool("io", ioThreads, ioQueue, Thread.NORM_PRIORITY, meterRegistry);
+        this.bulkPool = pool("bulk", bulkThreads, bulkQueue, Thread.MIN_PRIORITY, meterRegistry);
+        this.cpu = Schedulers.fromExecutorService(cpuPool, "ots-cpu");
+        this.io = Schedulers.fromExecutorService(ioPool, "ots-io");
+        this.bulk = Schedulers.fromExecutorService(bulkPool, "ots-bulk");
+    }
+
+    /** Trabajo CPU-bound de requests interactivos. */
+    public Scheduler cpu() {
+        return cpu;
+    }
+
+    /** Trabajo bloqueante de red o disco de requests interactivos. */
+    public Scheduler io() {
+        return io;
+    }
+
+    /** Trabajo en segundo plano / por lotes. */
+    public Scheduler bulk() {
+        return bulk;
+    }
+
+    private static ThreadPoolExecutor pool(String lane, int threads, int queue, int priority, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("ots.lane.rejected").tag("lane", lane).register(meterRegistry);
+        RejectedExecutionHandler onFull = (task, executor) -> {
+            rejected.increment();
+            throw new RejectedExecutionException("Lane '" + lane + "' saturada (cola " + queue + ")");
+        };
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queue), threadFactory(lane, priority), onFull);
+        executor.allowCoreThreadTimeOut(true);
+        new ExecutorServiceMetrics(executor, "ots.lane." + lane, Tags.of("lane", lane)).bindTo(meterRegistry);
+        return executor;
+    }
+
+    private static ThreadFactory threadFactory(String lane, int priority) {
+        AtomicInteger n = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "ots-" + lane + "-" + n.incrementAndGet());
+            t.setDaemon(true);
+            t.setPriority(priority);
+            return t;
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        cpu.dispose();
+        io.dispose();
+        bulk.dispose();
+    }
+}
@@ -0,0 +1,28 @@
+package trusthub.ots.opentimestamp_poc.explorer;
+
+import java.util.Optional;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Acceso a un block explorer compatible con la API de Esplora
+ * (blockstream.info, mempool.space, instancias propias, etc.).
+ */
+public interface BlockExplorer {
+
+    /**
+     * Ejecuta un GET sobre la API (ej. {@code /tx/<txid>/status}, {@code /block-height/<h>}).
+     *
+     * @param path ruta relativa a la base de la API, comenzando con "/"
+     * @return cuerpo de la respuesta, o vacío si el recurso no existe (4xx definitivo)
+     * @throws ExplorerException si ningún backend pudo responder
+     */
+    Optional<String> get(String path) throws ExplorerException;
+
+    /**
+     * Versión no bloqueante de {@link #get(String)}.
+     *
+     * @return Mono con el cuerpo (vacío si el recurso no existe) o error {@link ExplorerException}
+     */
+    Mono<Optional<String>> getReactive(String path);
+}
@@ -0,0 +1,75 @@
+package trusthub.ots.opentimestamp_poc.explorer;
+
+import java.time.Duration;
+
+/**
+ * Circuit breaker por backend.
+ * <p>
+ * CLOSED: pasan todas las requests. Tras {@code failureThreshold} fallas seguidas
+ * pasa a OPEN y rechaza todo durante {@code openDuration}. Luego pasa a HALF_OPEN
+ * y deja pasar una sola request de prueba: si funciona vuelve a CLOSED, si no
+ * vuelve a OPEN. Si la request de prueba no llega a resultado (se cancela o no
+ * se envía), hay que devolver el permiso con {@link #releaseProbe()}.
+ * </p>
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openDurationNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = openDuration.toNanos();
+    }
+
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openDurationNanos) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probeInFlight) return false;
+                probeInFlight = true;
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        probeInFlight = false;
+        state = State.CLOSED;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Devuelve el permiso de prueba de HALF_OPEN sin registrar resultado (request
+     * cancelada o descartada antes de enviarse). En CLOSED/OPEN no hace nada.
+     */
+    public synchronized void releaseProbe() {
+        if (state == State.HALF_OPEN) probeInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,46 @@
+package trusthub.ots.opentimestamp_poc.explorer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Un backend Esplora concreto, con su presupuesto de requests y su circuit breaker.
+ */
+public class EsploraBackend {
+
+    private final String baseUrl;
+    private final HttpClient httpClient;
+    private final Duration timeout;
+    private final TokenBucket rateBudget;
+    private final CircuitBreaker circuitBreaker;
+
+    public EsploraBackend(String baseUrl, HttpClient httpClient, Duration timeout,
+                          TokenBucket rateBudget, CircuitBreaker circuitBreaker) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.httpClient = httpClient;
+        this.timeout = timeout;
+        this.rateBudget = rateBudget;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /** Arma el GET para {@code path} con el timeout de este backend. */
+    public HttpRequest request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(timeout)
+                .GET()
+                .build();
+    }
+
+    public CompletableFuture<HttpResponse<String>> sendAsync(String path) {
+        return httpClient.sendAsync(request(path), HttpResponse.BodyHandlers.ofString());
+    }
+
+    public String getBaseUrl() { return baseUrl; }
+    public HttpClient getHttpClient() { return httpClient; }
+    public TokenBucket getRateBudget() { return rateBudget; }
+    public CircuitBreaker getCircuitBreaker() { return circuitBreaker; }
+}
@@ -0,0 +1,15 @@
+package trusthub.ots.opentimestamp_poc.explorer;
+
+/** Error al consultar el/los block explorers (todos los backends fallaron o no tenían cupo). */
+public class ExplorerException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    public ExplorerException(String message) {
+        super(message);
+    }
+
+    public ExplorerException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,153 @@
+package trusthub.ots.opentimestamp_poc.explorer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import reactor.core.Exceptions;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.tracing.OtsTracing;
+
+/**
+ * {@link BlockExplorer} con varios backends Esplora y failover.
+ * <p>
+ * Los backends se prueban en el orden configurado. Se saltea un backend si su
+ * circuit breaker está abierto o si se quedó sin presupuesto de requests
+ * (token bucket). Errores de red, timeouts, 429 y 5xx cuentan como falla y
+ * pasan al siguiente backend; un 4xx distinto de 429 es una respuesta válida
+ * ("no existe") y no dispara failover.
+ * </p>
+ * <p>
+ * Cada intento contra un backend es un span {@code ots.explorer.request} con el host,
+ * el tipo de endpoint Esplora y el status HTTP.
+ * </p>
+ */
+@Component
+public class FailoverBlockExplorer implements BlockExplorer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FailoverBlockExplorer.class);
+
+    private final List<EsploraBackend> backends;
+    private final OtsTracing tracing;
+
+    public FailoverBlockExplorer(@Value("${ots.explorer.backends:https://blockstream.info/api,https://mempool.space/api}") List<String> baseUrls,
+                                 @Value("${ots.explorer.rate-per-second:5}") double ratePerSecond,
+                                 @Value("${ots.explorer.burst:10}") double burst,
+                                 @Value("${ots.explorer.failure-threshold:5}") int failureThreshold,
+                                 @Value("${ots.explorer.open-duration:30s}") Duration openDuration,
+                                 @Value("${ots.explorer.timeout:4s}") Duration timeout,
+                                 OtsTracing tracing) {
+        this.tracing = tracing;
+        HttpClient httpClient = HttpClient.newBuilder()
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        List<EsploraBackend> list = new ArrayList<>();
+        for (String url : baseUrls) {
+            if (url == null || url.isBlank()) continue;
+            list.add(new EsploraBackend(url.trim(), httpClient, timeout,
+                    new TokenBucket(ratePerSecond, burst),
+                    new CircuitBreaker(failureThreshold, openDuration)));
+        }
+        if (list.isEmpty()) {
+            throw new IllegalArgumentException("ots.explorer.backends no puede estar vacío");
+        }
+        this.backends = Collections.unmodifiableList(list);
+    }
+
+    @Override
+    public Optional<String> get(String path) throws ExplorerException {
+        try {
+            return getReactive(path).block();
+        } catch (RuntimeException e) {
+            // block() envuelve las excepciones checked
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof ExplorerException ee) throw ee;
+            throw e;
+        }
+    }
+
+    @Override
+    public Mono<Optional<String>> getReactive(String path) {
+        // defer: los permisos del breaker y del presupuesto se toman al suscribirse, no al armar el Mono
+        return Mono.defer(() -> tryBackend(path, 0, null));
+    }
+
+    /** Prueba el backend {@code index}; ante falla o sin cupo sigue con el siguiente. */
+    private Mono<Optional<String>> tryBackend(String path, int index, Throwable lastError) {
+        if (index >= backends.size()) {
+            return Mono.error(new ExplorerException("Ningún block explorer disponible para " + path, lastError));
+        }
+        EsploraBackend backend = backends.get(index);
+        CircuitBreaker breaker = backend.getCircuitBreaker();
+        if (!breaker.allowRequest()) {
+            return tryBackend(path, index + 1, lastError);
+        }
+        if (!backend.getRateBudget().tryConsume()) {
+            breaker.releaseProbe(); // no se envía: el permiso de prueba (si lo era) queda libre
+            logger.debug("Explorer {} sin presupuesto de requests, probando el siguiente", backend.getBaseUrl());
+            return tryBackend(path, index + 1, lastError);
+        }
+        return tracing.observe("ots.explorer.request", obs -> {
+                    obs.lowCardinalityKeyValue("explorer.host", String.valueOf(URI.create(backend.getBaseUrl()).getHost()));
+                    obs.lowCardinalityKeyValue("explorer.endpoint", endpointKind(path));
+                    obs.highCardinalityKeyValue("explorer.path", path);
+                    return Mono.fromFuture(() -> backend.sendAsync(path))
+                            .<Optional<String>>handle((resp, sink) -> {
+                                obs.lowCardinalityKeyValue("http.status", String.valueOf(resp.statusCode()));
+                                Optional<String> result = handleResponse(backend, path, resp.statusCode(), resp.body());
+                                if (result != null) sink.next(result);
+                                else sink.error(new ExplorerException("Explorer " + backend.getBaseUrl() + " respondió " + resp.statusCode()));
+                            })
+                            // cancelada (ej. otra rama de firstConfirmed ganó): sin resultado, se devuelve el permiso
+                            .doOnCancel(breaker::releaseProbe);
+                })
+                .onErrorResume(e -> {
+                    if (!(e instanceof ExplorerException)) {
+                        // error de red / timeout (429 y 5xx ya se registraron en handleResponse)
+                        breaker.recordFailure();
+                        logger.warn("Explorer {} falló para {}: {}", backend.getBaseUrl(), path, e.toString());
+                    }
+                    return tryBackend(path, index + 1, e);
+                });
+    }
+
+    /** Tipo de endpoint Esplora (baja cardinalidad, para métricas y spans). */
+    static String endpointKind(String path) {
+        if (path.startsWith("/tx/")) return "tx-status";
+        if (path.startsWith("/block-height/")) return "block-height";
+        if (path.startsWith("/block/")) return "block";
+        return "other";
+    }
+
+    /**
+     * Interpreta la respuesta de un backend. Devuelve null si hay que probar el siguiente.
+     */
+    Optional<String> handleResponse(EsploraBackend backend, String path, int status, String body) {
+        if (status >= 200 && status < 300) {
+            backend.getCircuitBreaker().recordSuccess();
+            return Optional.ofNullable(body);
+        }
+        if (status == 429 || status >= 500) {
+            backend.getCircuitBreaker().recordFailure();
+            logger.warn("Explorer {} respondió {} para {}", backend.getBaseUrl(), status, path);
+            return null;
+        }
+        // 4xx definitivo: el backend está sano, el recurso no existe
+        backend.getCircuitBreaker().recordSuccess();
+        return Optional.empty();
+    }
+
+    public List<EsploraBackend> getBackends() {
+        return backends;
+    }
+}
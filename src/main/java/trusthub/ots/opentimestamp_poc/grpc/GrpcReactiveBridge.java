@@ -0,0 +1,143 @@
+package trusthub.ots.opentimestamp_poc.grpc;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+
+import org.reactivestreams.Subscription;
+
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.Disposable;
+import reactor.core.Exceptions;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.publisher.Mono;
+
+/**
+ * Adaptadores entre los {@link StreamObserver} de gRPC y Reactor.
+ * <p>
+ * En los streams bidireccionales el control de flujo es de punta a punta en los dos sentidos:
+ * <ul>
+ *   <li>entrada: gRPC solo pide al cliente tantos mensajes como pidió el pipeline de Reactor
+ *       (p. ej. la concurrencia de un {@code flatMap}), así un cliente rápido no llena la
+ *       memoria del servidor;</li>
+ *   <li>salida: al pipeline se le pide la próxima respuesta solo mientras el transporte está
+ *       listo ({@code isReady()}); si el cliente lee lento, el pipeline se frena (y con él la
+ *       entrada) en vez de acumular respuestas en el buffer de gRPC.</li>
+ * </ul>
+ * </p>
+ */
+final class GrpcReactiveBridge {
+
+    private GrpcReactiveBridge() { }
+
+    /** Completa la llamada unaria con el resultado del Mono (o con el status del error). */
+    static <T> void unary(Mono<T> result, StreamObserver<T> out) {
+        ServerCallStreamObserver<T> call = (ServerCallStreamObserver<T>) out;
+        Disposable subscription = result.subscribe(
+                value -> {
+                    call.onNext(value);
+                    call.onCompleted();
+                },
+                error -> call.onError(toStatus(error)));
+        call.setOnCancelHandler(subscription::dispose);
+    }
+
+    /**
+     * Stream bidireccional: {@code handler} transforma el flujo de requests en el de respuestas.
+     *
+     * @return el observer que gRPC usa para entregar los requests del cliente
+     */
+    static <Req, Resp> StreamObserver<Req> bidi(StreamObserver<Resp> out, Function<Flux<Req>, Flux<Resp>> handler) {
+        ServerCallStreamObserver<Resp> call = (ServerCallStreamObserver<Resp>) out;
+        call.disableAutoRequest();
+        AtomicReference<FluxSink<Req>> inbound = new AtomicReference<>();
+        Flux<Req> requests = Flux.create(sink -> {
+            inbound.set(sink);
+            sink.onRequest(n -> call.request((int) Math.min(n, Integer.MAX_VALUE)));
+        });
+        ReadyGatedSubscriber<Resp> outbound = new ReadyGatedSubscriber<>(call);
+        call.setOnReadyHandler(outbound::requestIfReady);
+        call.setOnCancelHandler(outbound::dispose);
+        // la suscripción es sincrónica: cuando vuelve, el sink ya está asignado
+        handler.apply(requests).subscribe(outbound);
+
+        return new StreamObserver<>() {
+            @Override
+            public void onNext(Req value) {
+                inbound.get().next(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                inbound.get().error(t);
+            }
+
+            @Override
+            public void onCompleted() {
+                inbound.get().complete();
+            }
+        };
+    }
+
+    /**
+     * Pide de a una respuesta y solo con el transporte listo; el resto lo pide el onReady
+     * handler de gRPC cuando se vacía el buffer de salida.
+     */
+    private static final class ReadyGatedSubscriber<T> extends BaseSubscriber<T> {
+
+        private final ServerCallStreamObserver<T> call;
+        /** true mientras hay una respuesta pedida que todavía no llegó. */
+        private final AtomicBoolean requested = new AtomicBoolean();
+
+        ReadyGatedSubscriber(ServerCallStreamObserver<T> call) {
+            this.call = call;
+        }
+
+        void requestIfReady() {
+            if (!isDisposed() && call.isReady() && requested.compareAndSet(false, true)) {
+                request(1);
+            }
+        }
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            requestIfReady();
+        }
+
+        @Override
+        protected void hookOnNext(T value) {
+            requested.set(false);
+            call.onNext(value);
+            requestIfReady();
+        }
+
+        @Override
+        protected void hookOnError(Throwable error) {
+            call.onError(toStatus(error));
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            call.onCompleted();
+        }
+    }
+
+    static StatusRuntimeException toStatus(Throwable error) {
+        Throwable e = Exceptions.unwrap(error);
+        Status status;
+        if (e instanceof IllegalArgumentException) {
+            status = Status.INVALID_ARGUMENT;
+        } else if (e instanceof RejectedExecutionException) {
+            status = Status.RESOURCE_EXHAUSTED;
+        } else {
+            status = Status.INTERNAL;
+        }
+        return status.withDescription(String.valueOf(e.getMessage())).withCause(e).asRuntimeException();
+    }
+}
@@ -0,0 +1,84 @@
+package trusthub.ots.opentimestamp_poc.grpc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.grpc.Grpc;
+import io.grpc.InsecureServerCredentials;
+import io.grpc.Server;
+
+/**
+ * Servidor gRPC en su propio puerto ({@code ots.grpc.port}), con el ciclo de vida del contexto
+ * de Spring: arranca con la app y se apaga con gracia (deja terminar las llamadas en curso
+ * hasta {@code ots.grpc.shutdown-grace}).
+ * <p>
+ * Los handlers no bloquean: la librería, los calendarios, los explorers y el store de resultados
+ * de verify corren en las lanes del servicio (ver {@code ExecutionLanes}), así que los handlers
+ * corren en el executor directo de gRPC sin un salto de pool extra.
+ * </p>
+ */
+@Component
+@ConditionalOnProperty(name = "ots.grpc.enabled", havingValue = "true")
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(GrpcServerLifecycle.class);
+
+    private final OtsGrpcService service;
+    private final int port;
+    private final DataSize maxMessageSize;
+    private final long shutdownGraceSeconds;
+    private volatile Server server;
+
+    public GrpcServerLifecycle(OtsGrpcService service,
+                               @Value("${ots.grpc.port:9090}") int port,
+                               @Value("${ots.grpc.max-message-size:4MB}") DataSize maxMessageSize,
+                               @Value("${ots.grpc.shutdown-grace:10}") long shutdownGraceSeconds) {
+        this.service = service;
+        this.port = port;
+        this.maxMessageSize = maxMessageSize;
+        this.shutdownGraceSeconds = shutdownGraceSeconds;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = Grpc.newServerBuilderForPort(port, InsecureServerCredentials.create())
+                    .addService(service)
+                    .maxInboundMessageSize((int) maxMessageSize.toBytes())
+                    .directExecutor()
+                    .build()
+                    .start();
+            logger.info("Servidor gRPC escuchando en el puerto {}", server.getPort());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo iniciar el servidor gRPC en el puerto " + port, e);
+        }
+    }
+
+    @Override
+    public void stop() {
+        Server s = server;
+        if (s == null) return;
+        s.shutdown();
+        try {
+            if (!s.awaitTermination(shutdownGraceSeconds, TimeUnit.SECONDS)) s.shutdownNow();
+        } catch (InterruptedException e) {
+            s.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
@@ -0,0 +1,140 @@
+package trusthub.ots.opentimestamp_poc.grpc;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.google.protobuf.ByteString;
+
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.grpc.v1.OpError;
+import trusthub.ots.opentimestamp_poc.grpc.v1.OtsGrpc;
+import trusthub.ots.opentimestamp_poc.grpc.v1.StampDigestRequest;
+import trusthub.ots.opentimestamp_poc.grpc.v1.StampDigestResponse;
+import trusthub.ots.opentimestamp_poc.grpc.v1.UpgradeRequest;
+import trusthub.ots.opentimestamp_poc.grpc.v1.UpgradeResponse;
+import trusthub.ots.opentimestamp_poc.grpc.v1.VerifyRequest;
+import trusthub.ots.opentimestamp_poc.grpc.v1.VerifyResponse;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+
+/**
+ * Implementación gRPC de {@code trusthub.ots.v1.Ots} sobre la API reactiva de
+ * {@link OpenTimestampsService} (mismas lanes, cache y archivo que REST).
+ * <p>
+ * En los streams cada request se procesa en paralelo hasta {@code ots.grpc.stream-concurrency}
+ * operaciones en vuelo por stream; un error de una operación vuelve en el campo {@code error}
+ * de su respuesta y el stream sigue.
+ * </p>
+ */
+@Component
+public class OtsGrpcService extends OtsGrpc.OtsImplBase {
+
+    private final OpenTimestampsService otsService;
+    private final int streamConcurrency;
+
+    public OtsGrpcService(OpenTimestampsService otsService,
+                          @Value("${ots.grpc.stream-concurrency:256}") int streamConcurrency) {
+        this.otsService = otsService;
+        this.streamConcurrency = streamConcurrency;
+    }
+
+    // -------------------- unarios --------------------
+
+    @Override
+    public void stampDigest(StampDigestRequest request, StreamObserver<StampDigestResponse> out) {
+        GrpcReactiveBridge.unary(stamp(request), out);
+    }
+
+    @Override
+    public void upgrade(UpgradeRequest request, StreamObserver<UpgradeResponse> out) {
+        GrpcReactiveBridge.unary(upgrade(request), out);
+    }
+
+    @Override
+    public void verify(VerifyRequest request, StreamObserver<VerifyResponse> out) {
+        GrpcReactiveBridge.unary(verify(request), out);
+    }
+
+    // -------------------- streams --------------------
+
+    @Override
+    public StreamObserver<StampDigestRequest> stampDigestStream(StreamObserver<StampDigestResponse> out) {
+        return GrpcReactiveBridge.bidi(out, requests -> requests.flatMap(req -> stamp(req)
+                .onErrorResume(e -> Mono.just(StampDigestResponse.newBuilder()
+                        .setRequestId(req.getRequestId()).setError(toError(e)).build())), streamConcurrency));
+    }
+
+    @Override
+    public StreamObserver<UpgradeRequest> upgradeStream(StreamObserver<UpgradeResponse> out) {
+        return GrpcReactiveBridge.bidi(out, requests -> requests.flatMap(req -> upgrade(req)
+                .onErrorResume(e -> Mono.just(UpgradeResponse.newBuilder()
+                        .setRequestId(req.getRequestId()).setError(toError(e)).build())), streamConcurrency));
+    }
+
+    @Override
+    public StreamObserver<VerifyRequest> verifyStream(StreamObserver<VerifyResponse> out) {
+        return GrpcReactiveBridge.bidi(out, requests -> requests.flatMap(req -> verify(req)
+                .onErrorResume(e -> Mono.just(VerifyResponse.newBuilder()
+                        .setRequestId(req.getRequestId()).setError(toError(e)).build())), streamConcurrency));
+    }
+
+    // -------------------- operaciones --------------------
+
+    private Mono<StampDigestResponse> stamp(StampDigestRequest req) {
+        return otsService.stampDigestReactive(req.getDigest().toByteArray())
+                .map(ots -> StampDigestResponse.newBuilder()
+                        .setRequestId(req.getRequestId())
+                        .setOts(ByteString.copyFrom(ots))
+                        .build());
+    }
+
+    private Mono<UpgradeResponse> upgrade(UpgradeRequest req) {
+        if (req.getOts().isEmpty()) return Mono.error(new IllegalArgumentException("ots vacío"));
+        return otsService.upgradeReactive(req.getOts().toByteArray())
+                .map(res -> {
+                    UpgradeResponse.Builder b = UpgradeResponse.newBuilder()
+                            .setRequestId(req.getRequestId())
+                            .setUpgraded(res.isUpgraded());
+                    if (res.isUpgraded() && res.getOtsBytes() != null) b.setOts(ByteString.copyFrom(res.getOtsBytes()));
+                    return b.build();
+                });
+    }
+
+    private Mono<VerifyResponse> verify(VerifyRequest req) {
+        if (req.getOts().isEmpty()) return Mono.error(new IllegalArgumentException("ots vacío"));
+        if (req.getDocumentDigest().size() != 32) {
+            return Mono.error(new IllegalArgumentException("document_digest debe ser SHA-256 (32 bytes)"));
+        }
+        return otsService.verifyReactive(req.getOts().toByteArray(), req.getDocumentDigest().toByteArray())
+                .map(vr -> toProto(req, vr));
+    }
+
+    private static VerifyResponse toProto(VerifyRequest req, trusthub.ots.opentimestamp_poc.dto.VerifyResponse vr) {
+        VerifyResponse.Builder b = VerifyResponse.newBuilder()
+                .setRequestId(req.getRequestId())
+                .setStatus(nz(vr.getStatus()))
+                .setTxid(nz(vr.getTxid()))
+                .setBlockHash(nz(vr.getBlock_hash()))
+                .setBlockTime(nz(vr.getBlock_time()));
+        if (vr.getBlock_height() != null) b.setBlockHeight(vr.getBlock_height());
+        if (req.getIncludeInfo()) b.setInfo(nz(vr.getInfo()));
+        return b.build();
+    }
+
+    /** Mismo mapeo que el status de los unarios ({@link GrpcReactiveBridge#toStatus}), como error por ítem. */
+    private static OpError toError(Throwable error) {
+        Status status = GrpcReactiveBridge.toStatus(error).getStatus();
+        OpError.Code code = switch (status.getCode()) {
+            case INVALID_ARGUMENT -> OpError.Code.INVALID_ARGUMENT;
+            case RESOURCE_EXHAUSTED -> OpError.Code.RESOURCE_EXHAUSTED;
+            default -> OpError.Code.INTERNAL;
+        };
+        return OpError.newBuilder().setCode(code).setMessage(nz(status.getDescription())).build();
+    }
+
+    /** Los setters de protobuf no aceptan null. */
+    private static String nz(String s) {
+        return s != null ? s : "";
+    }
+}
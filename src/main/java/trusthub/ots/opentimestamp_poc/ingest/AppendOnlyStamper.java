@@ -0,0 +1,138 @@
+package trusthub.ots.opentimestamp_poc.ingest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+
+/**
+ * Re-stamp periódico de archivos que solo crecen (ej. logs de auditoría), hasheando solo lo agregado.
+ * <p>
+ * Cada {@code ots.incremental.interval}, para cada archivo de {@code ots.incremental.files} que creció:
+ * </p>
+ * <ol>
+ *   <li>Se hashea retomando del midstate guardado en {@code <archivo>.ots.state} ({@link IncrementalHasher}):
+ *       el costo es proporcional a lo nuevo, no al tamaño total.</li>
+ *   <li>Todos los digests van en un único stamp agregado. El hash y las escrituras corren en la
+ *       lane bulk, no en el hilo del scheduler.</li>
+ *   <li>Se escribe {@code <archivo>.<tamaño>.ots}: el proof cubre los primeros {@code tamaño} bytes
+ *       (para verificar, se corta una copia del archivo a ese largo).</li>
+ *   <li>Recién con el proof escrito se guarda el estado nuevo, así el estado siempre corresponde
+ *       al último proof.</li>
+ * </ol>
+ */
+@Component
+@ConditionalOnProperty(name = "ots.incremental.enabled", havingValue = "true")
+public class AppendOnlyStamper {
+
+    private static final Logger logger = LoggerFactory.getLogger(AppendOnlyStamper.class);
+
+    static final String STATE_SUFFIX = ".ots.state";
+
+    private final OpenTimestampsService otsService;
+    private final ExecutionLanes lanes;
+    private final List<Path> files;
+    private final int tailBytes;
+    private final Counter hashedBytes;
+    private final Counter reusedBytes;
+    private final Counter stamped;
+    /** Hay una pasada de {@link #restamp()} en curso. */
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public AppendOnlyStamper(OpenTimestampsService otsService,
+                             ExecutionLanes lanes,
+                             @Value("${ots.incremental.files}") List<String> files,
+                             @Value("${ots.incremental.tail-bytes:64KB}") DataSize tailBytes,
+                             MeterRegistry meterRegistry) {
+        this.otsService = otsService;
+        this.lanes = lanes;
+        this.files = files.stream().map(String::trim).filter(f -> !f.isEmpty()).map(Path::of).toList();
+        this.tailBytes = (int) Math.min(Integer.MAX_VALUE, tailBytes.toBytes());
+        this.hashedBytes = Counter.builder("ots.incremental.bytes").tag("mode", "hashed").register(meterRegistry);
+        this.reusedBytes = Counter.builder("ots.incremental.bytes").tag("mode", "reused").register(meterRegistry);
+        this.stamped = Counter.builder("ots.incremental.stamps").register(meterRegistry);
+    }
+
+    private record Pending(Path file, IncrementalHasher.Result result) { }
+
+    /**
+     * No bloquea el hilo del scheduler (lo comparten el rebalanceo de shards y otros jobs): solo
+     * dispara la pasada, que hashea y escribe en la lane bulk. Si la anterior todavía no terminó,
+     * no hace nada.
+     */
+    @Scheduled(fixedDelayString = "${ots.incremental.interval:PT1H}", initialDelayString = "${ots.incremental.interval:PT1H}")
+    public void restamp() {
+        if (!running.compareAndSet(false, true)) return;
+        run().doFinally(sig -> running.set(false)).subscribe();
+    }
+
+    private Mono<Void> run() {
+        return Flux.fromIterable(files)
+                .concatMap(file -> Mono.fromCallable(() -> hashIfGrown(file))
+                        .subscribeOn(lanes.bulk())
+                        .flatMap(Mono::justOrEmpty)
+                        .onErrorResume(e -> {
+                            logger.warn("Stamp incremental: no se pudo hashear {}: {}", file, e.getMessage());
+                            return Mono.empty();
+                        }))
+                .collectList()
+                .filter(pending -> !pending.isEmpty())
+                .flatMap(pending -> otsService.stampDigestsReactive(pending.stream().map(p -> p.result().digest()).toList())
+                        .onErrorResume(e -> {
+                            // el estado no se tocó: el próximo intervalo retoma desde el mismo checkpoint
+                            logger.warn("Stamp incremental de {} archivos falló, se reintenta en el próximo intervalo: {}", pending.size(), e.getMessage());
+                            return Mono.empty();
+                        })
+                        .flatMap(proofs -> Mono.fromRunnable(() -> writeAll(pending, proofs)).subscribeOn(lanes.bulk())))
+                .then();
+    }
+
+    private void writeAll(List<Pending> pending, List<byte[]> proofs) {
+        for (int i = 0; i < pending.size(); i++) {
+            Pending p = pending.get(i);
+            IncrementalHasher.Result r = p.result();
+            try {
+                DropFolderIngestor.writeOts(p.file().resolveSibling(p.file().getFileName() + "." + r.size() + ".ots"), proofs.get(i));
+                IncrementalHasher.save(statePathFor(p.file()), r.checkpoint());
+                stamped.increment();
+                logger.info("Stamp incremental de {}: {} bytes, {} hasheados{}", p.file(), r.size(), r.hashedBytes(),
+                        r.resumed() ? "" : " (hash completo)");
+            } catch (IOException e) {
+                logger.warn("Stamp incremental: no se pudo escribir el .ots de {}: {}", p.file(), e.getMessage());
+            }
+        }
+    }
+
+    /** Hash si el archivo cambió desde el último stamp (corre en la lane bulk). */
+    private Optional<Pending> hashIfGrown(Path file) throws IOException {
+        if (!Files.isRegularFile(file)) return Optional.empty();
+        Optional<IncrementalHasher.Checkpoint> previous = IncrementalHasher.load(statePathFor(file));
+        if (previous.isPresent() && previous.get().offset() == Files.size(file)) return Optional.empty();
+        IncrementalHasher.Result r = IncrementalHasher.hash(file, previous.orElse(null), tailBytes);
+        hashedBytes.increment(r.hashedBytes());
+        reusedBytes.increment(r.size() - r.hashedBytes());
+        return Optional.of(new Pending(file, r));
+    }
+
+    static Path statePathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + STATE_SUFFIX);
+    }
+}
@@ -0,0 +1,362 @@
+package trusthub.ots.opentimestamp_poc.ingest;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+
+/**
+ * Ingesta por carpeta: los scanners dejan PDFs en {@code ots.ingest.dirs} y el servidor escribe
+ * {@code <nombre>.ots} al lado de cada uno, sin pasar por el menú de "Java only" ni por el upload.
+ * <ol>
+ *   <li>Un hilo escucha la carpeta con {@link WatchService} (altas y modificaciones).</li>
+ *   <li>Un archivo se toma como cerrado cuando su tamaño y fecha no cambian durante
+ *       {@code ots.ingest.settle} (el WatchService no avisa el cierre del archivo).</li>
+ *   <li>Se hashea en la lane {@code bulk} (trabajo de fondo, no compite con los requests), con
+ *       a lo sumo {@code ots.ingest.hash-concurrency} archivos a la vez. Si el hashing falla
+ *       (lane saturada, error de lectura) el archivo vuelve a candidato y se reintenta hasta
+ *       {@code ots.ingest.max-attempts} veces.</li>
+ *   <li>Cada {@code ots.ingest.batch-interval} los digests listos se envían en un único stamp
+ *       agregado ({@link OpenTimestampsService#stampDigestsReactive}), sin bloquear el hilo
+ *       del scheduler.</li>
+ *   <li>Cada .ots se escribe en la lane bulk con temporal + fsync + rename atómico: otro proceso
+ *       nunca ve un .ots a medio escribir. Si la escritura falla, el archivo se reintenta igual
+ *       que un fallo de hashing.</li>
+ * </ol>
+ * Al arrancar se recorren las carpetas y se encolan los archivos que todavía no tienen .ots,
+ * así un reinicio no pierde lo que llegó mientras el servidor estaba caído.
+ */
+@Component
+@ConditionalOnProperty(name = "ots.ingest.enabled", havingValue = "true")
+public class DropFolderIngestor implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(DropFolderIngestor.class);
+
+    private static final String OTS_SUFFIX = ".ots";
+
+    private final OpenTimestampsService otsService;
+    private final ExecutionLanes lanes;
+    private final List<Path> dirs;
+    private final Set<String> extensions;
+    private final Duration settle;
+    private final int batchMax;
+    private final int hashConcurrency;
+    private final int maxAttempts;
+
+    /** Archivos vistos que todavía se pueden estar escribiendo. */
+    private final Map<Path, Candidate> candidates = new ConcurrentHashMap<>();
+    /** Archivos cerrados en hashing o ya hasheados (evita encolar dos veces el mismo). */
+    private final Set<Path> inFlight = ConcurrentHashMap.newKeySet();
+    /** Digests listos para el próximo stamp agregado. */
+    private final Queue<Hashed> ready = new ConcurrentLinkedQueue<>();
+    /** Hay un vaciado de {@link #ready} en curso. */
+    private final AtomicBoolean flushing = new AtomicBoolean();
+
+    private final Counter stamped;
+    private final Counter failed;
+
+    private volatile WatchService watchService;
+    private volatile Thread watcher;
+
+    public DropFolderIngestor(OpenTimestampsService otsService,
+                              ExecutionLanes lanes,
+                              @Value("${ots.ingest.dirs}") List<String> dirs,
+                              @Value("${ots.ingest.extensions:pdf}") List<String> extensions,
+                              @Value("${ots.ingest.settle:2s}") Duration settle,
+                              @Value("${ots.ingest.batch-max:1000}") int batchMax,
+                              @Value("${ots.ingest.hash-concurrency:4}") int hashConcurrency,
+                              @Value("${ots.ingest.max-attempts:5}") int maxAttempts,
+                              MeterRegistry meterRegistry) {
+        this.otsService = otsService;
+        this.lanes = lanes;
+        this.dirs = dirs.stream().map(String::trim).filter(d -> !d.isEmpty()).map(Path::of).toList();
+        this.extensions = extensions.stream()
+                .map(e -> e.trim().toLowerCase(Locale.ROOT))
+                .filter(e -> !e.isEmpty())
+                .collect(Collectors.toSet());
+        this.settle = settle;
+        this.batchMax = batchMax;
+        this.hashConcurrency = Math.max(1, hashConcurrency);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.stamped = Counter.builder("ots.ingest.files").tag("result", "stamped").register(meterRegistry);
+        this.failed = Counter.builder("ots.ingest.files").tag("result", "failed").register(meterRegistry);
+        Gauge.builder("ots.ingest.pending", () -> candidates.size() + inFlight.size()).register(meterRegistry);
+    }
+
+    // -------------------- ciclo de vida --------------------
+
+    @Override
+    public void start() {
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+            for (Path dir : dirs) {
+                Files.createDirectories(dir);
+                dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+                scanExisting(dir);
+                logger.info("Ingesta: escuchando {}", dir.toAbsolutePath());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("No se pudo iniciar la ingesta por carpeta", e);
+        }
+        watcher = new Thread(this::watchLoop, "ots-ingest-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+
+    @Override
+    public void stop() {
+        WatchService ws = watchService;
+        watchService = null;
+        if (ws != null) {
+            try { ws.close(); } catch (IOException ignored) {}
+        }
+        Thread t = watcher;
+        if (t != null) {
+            t.interrupt();
+            watcher = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return watcher != null;
+    }
+
+    // -------------------- detección --------------------
+
+    private void scanExisting(Path dir) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+            for (Path file : files) seen(file);
+        }
+    }
+
+    /** Loop del WatchService; cada {@code settle/2} revisa qué candidatos ya están cerrados. */
+    private void watchLoop() {
+        long pollMillis = Math.max(100, settle.toMillis() / 2);
+        while (!Thread.currentThread().isInterrupted()) {
+            WatchService ws = watchService;
+            if (ws == null) return;
+            try {
+                WatchKey key = ws.poll(pollMillis, TimeUnit.MILLISECONDS);
+                if (key != null) {
+                    Path dir = (Path) key.watchable();
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                            // se perdieron eventos: se vuelve a recorrer la carpeta
+                            scanExisting(dir);
+                        } else {
+                            seen(dir.resolve((Path) event.context()));
+                        }
+                    }
+                    key.reset();
+                }
+                promoteSettled();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            } catch (IOException e) {
+                logger.warn("Ingesta: error leyendo la carpeta: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void seen(Path file) {
+        if (!accepts(file) || inFlight.contains(file)) return;
+        if (Files.exists(otsPathFor(file))) return; // ya tiene .ots (reinicio / re-scan)
+        candidates.compute(file, (p, current) -> {
+            Candidate next = Candidate.of(p, 0);
+            if (next == null) return null;
+            return (current != null && current.sameAs(next)) ? current : next;
+        });
+    }
+
+    /** Pasa a hashing los candidatos sin cambios durante {@code settle}. */
+    private void promoteSettled() {
+        long now = System.currentTimeMillis();
+        List<Settled> settled = new ArrayList<>();
+        Iterator<Map.Entry<Path, Candidate>> it = candidates.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Path, Candidate> e = it.next();
+            Path file = e.getKey();
+            Candidate current = Candidate.of(file, e.getValue().attempts());
+            if (current == null) { // borrado o movido antes de cerrarse
+                it.remove();
+                continue;
+            }
+            if (!current.sameAs(e.getValue())) {
+                e.setValue(current);
+                continue;
+            }
+            if (now - e.getValue().seenAt < settle.toMillis()) continue;
+            it.remove();
+            if (inFlight.add(file)) settled.add(new Settled(file, e.getValue().attempts()));
+        }
+        if (!settled.isEmpty()) hashAll(settled);
+    }
+
+    /**
+     * Hashea en la lane bulk con concurrencia acotada: una ráfaga del scanner no manda más
+     * tareas que {@code hash-concurrency} a la cola de la lane.
+     */
+    private void hashAll(List<Settled> files) {
+        Flux.fromIterable(files)
+                .flatMap(s -> Mono.fromCallable(() -> new Hashed(s.file(), otsService.documentDigest(s.file().toFile()), s.attempts()))
+                        .subscribeOn(lanes.bulk())
+                        .doOnNext(ready::add)
+                        .onErrorResume(error -> {
+                            retryLater(s, error);
+                            return Mono.empty();
+                        }), hashConcurrency)
+                .subscribe();
+    }
+
+    /**
+     * Devuelve el archivo a candidatos (se reintenta luego de {@code settle}) o lo descarta tras
+     * {@code max-attempts}. Lo usan los fallos de hashing y los de escritura del .ots.
+     */
+    private void retryLater(Settled s, Throwable error) {
+        int attempts = s.attempts() + 1;
+        Candidate again = attempts < maxAttempts ? Candidate.of(s.file(), attempts) : null;
+        if (again != null) {
+            candidates.putIfAbsent(s.file(), again);
+            logger.warn("Ingesta: falló {} (intento {} de {}), se reintenta: {}",
+                    s.file(), attempts, maxAttempts, error.getMessage());
+        } else {
+            failed.increment();
+            logger.error("Ingesta: falló {}, se descarta hasta el próximo reinicio: {}", s.file(), error.getMessage());
+        }
+        inFlight.remove(s.file());
+    }
+
+    // -------------------- stamp agregado --------------------
+
+    /**
+     * Un stamp agregado por intervalo con todo lo que se hasheó desde el anterior (de a batch-max).
+     * No bloquea el hilo del scheduler (lo comparten el rebalanceo de shards y otros jobs): solo
+     * dispara el vaciado, que sigue en la lane bulk. Si el anterior todavía no terminó, no hace nada.
+     */
+    @Scheduled(fixedDelayString = "${ots.ingest.batch-interval:PT10S}", initialDelayString = "${ots.ingest.batch-interval:PT10S}")
+    public void flush() {
+        if (ready.isEmpty() || !flushing.compareAndSet(false, true)) return;
+        drain().doFinally(sig -> flushing.set(false)).subscribe();
+    }
+
+    /** Lotes en serie hasta vaciar la cola; si los calendarios fallan se reintenta en el próximo intervalo. */
+    private Mono<Void> drain() {
+        List<Hashed> batch = new ArrayList<>();
+        Hashed h;
+        while (batch.size() < batchMax && (h = ready.poll()) != null) batch.add(h);
+        if (batch.isEmpty()) return Mono.empty();
+        return stampBatch(batch).flatMap(stampedOk -> stampedOk ? Mono.defer(this::drain) : Mono.empty());
+    }
+
+    private Mono<Boolean> stampBatch(List<Hashed> batch) {
+        return otsService.stampDigestsReactive(batch.stream().map(Hashed::digest).toList())
+                .flatMap(otsFiles -> Mono.fromCallable(() -> writeAll(batch, otsFiles)).subscribeOn(lanes.bulk()))
+                .onErrorResume(e -> {
+                    logger.warn("Ingesta: stamp agregado de {} archivos falló, se reintenta: {}", batch.size(), e.getMessage());
+                    ready.addAll(batch);
+                    return Mono.just(false);
+                });
+    }
+
+    /** Escribe cada .ots; uno que no se pudo escribir vuelve a candidatos como un fallo de hashing. */
+    private boolean writeAll(List<Hashed> batch, List<byte[]> otsFiles) {
+        for (int i = 0; i < batch.size(); i++) {
+            Hashed hashed = batch.get(i);
+            try {
+                writeOts(otsPathFor(hashed.file()), otsFiles.get(i));
+                stamped.increment();
+                inFlight.remove(hashed.file());
+            } catch (IOException e) {
+                retryLater(new Settled(hashed.file(), hashed.attempts()), e);
+            }
+        }
+        logger.info("Ingesta: stamp agregado de {} archivos", batch.size());
+        return true;
+    }
+
+    /** Temporal en la misma carpeta + fsync + rename atómico (como {@code OtsService.stampFile}, sin archivos a medias). */
+    static void writeOts(Path target, byte[] otsBytes) throws IOException {
+        Path tmp = target.resolveSibling("." + target.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer buf = ByteBuffer.wrap(otsBytes);
+            while (buf.hasRemaining()) ch.write(buf);
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean accepts(Path file) {
+        String name = file.getFileName().toString();
+        if (name.startsWith(".") || name.toLowerCase(Locale.ROOT).endsWith(OTS_SUFFIX)) return false;
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && extensions.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    private static Path otsPathFor(Path file) {
+        return file.resolveSibling(file.getFileName() + OTS_SUFFIX);
+    }
+
+    private record Hashed(Path file, byte[] digest, int attempts) { }
+
+    /** Archivo cerrado en camino a hashing, con los intentos fallidos previos. */
+    private record Settled(Path file, int attempts) { }
+
+    /** Tamaño y fecha de modificación observados, desde cuándo no cambian e intentos de hashing fallidos. */
+    private record Candidate(long size, long modified, long seenAt, int attempts) {
+
+        static Candidate of(Path file, int attempts) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) return null;
+                return new Candidate(attrs.size(), attrs.lastModifiedTime().toMillis(), System.currentTimeMillis(), attempts);
+            } catch (IOException e) {
+                return null;
+            }
+        }
+
+        boolean sameAs(Candidate other) {
+            return size == other.size && modified == other.modified;
+        }
+    }
+}
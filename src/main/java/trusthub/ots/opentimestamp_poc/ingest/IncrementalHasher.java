@@ -0,0 +1,156 @@
+package trusthub.ots.opentimestamp_poc.ingest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Properties;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+import trusthub.ots.opentimestamp_poc.util.Sha256Midstate;
+
+/**
+ * SHA-256 incremental de archivos que solo crecen (logs de auditoría).
+ * <p>
+ * Después de cada hash se guarda un {@link Checkpoint}: el midstate SHA-256 ({@link Sha256Midstate})
+ * al final de lo hasheado, el offset, un SHA-256 de los últimos {@code tailBytes} antes del offset y
+ * el identificador del archivo (inode). La próxima vez, si el archivo es el mismo, no es más corto
+ * y la cola coincide, se retoma desde el midstate y solo se hashean los bytes agregados. Si algo no
+ * coincide (rotación, truncado, reescritura de la cola) se hashea todo de nuevo.
+ * </p>
+ * <p>
+ * La cola detecta truncados y reescrituras del final, no cambios en el medio del prefijo: el modo
+ * supone archivos append-only, como un log de auditoría.
+ * </p>
+ */
+final class IncrementalHasher {
+
+    private static final int READ_BUFFER = 1 << 20;
+
+    private IncrementalHasher() { }
+
+    /**
+     * Estado guardado junto al proof ({@code <archivo>.ots.state}).
+     *
+     * @param offset     bytes hasheados (el proof cubre exactamente {@code [0, offset)})
+     * @param midstate   {@link Sha256Midstate#export()} en {@code offset}
+     * @param tailDigest SHA-256 de {@code [offset - tailLength, offset)}
+     * @param tailLength largo de la cola verificada
+     * @param fileKey    identificador del archivo en el filesystem (null si no hay)
+     */
+    record Checkpoint(long offset, byte[] midstate, byte[] tailDigest, int tailLength, String fileKey) { }
+
+    /**
+     * @param digest      SHA-256 de {@code [0, size)}
+     * @param size        tamaño hasheado (el archivo puede seguir creciendo)
+     * @param hashedBytes bytes leídos esta vez ({@code size} si no se pudo retomar)
+     * @param checkpoint  estado para el próximo hash
+     */
+    record Result(byte[] digest, long size, long hashedBytes, Checkpoint checkpoint) {
+        boolean resumed() {
+            return hashedBytes < size;
+        }
+    }
+
+    /** Hashea {@code file} retomando de {@code previous} cuando es posible (null = desde cero). */
+    static Result hash(Path file, Checkpoint previous, int tailBytes) throws IOException {
+        String fileKey = fileKey(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            Sha256Midstate state;
+            long from;
+            if (previous != null && canResume(ch, previous, size, fileKey)) {
+                state = Sha256Midstate.restore(previous.midstate());
+                from = previous.offset();
+            } else {
+                state = new Sha256Midstate();
+                from = 0;
+            }
+            ByteBuffer buf = ByteBuffer.allocateDirect(READ_BUFFER);
+            long pos = from;
+            while (pos < size) {
+                buf.clear().limit((int) Math.min(READ_BUFFER, size - pos));
+                int n = ch.read(buf, pos);
+                if (n < 0) throw new IOException("fin de archivo inesperado en " + pos);
+                buf.flip();
+                state.update(buf);
+                pos += n;
+            }
+            int tailLength = (int) Math.min(tailBytes, size);
+            Checkpoint next = new Checkpoint(size, state.export(), tailDigest(ch, size, tailLength), tailLength, fileKey);
+            return new Result(state.digest(), size, size - from, next);
+        }
+    }
+
+    private static boolean canResume(FileChannel ch, Checkpoint previous, long size, String fileKey) throws IOException {
+        if (previous.offset() > size || !Objects.equals(previous.fileKey(), fileKey)) return false;
+        byte[] tail = tailDigest(ch, previous.offset(), previous.tailLength());
+        return Arrays.equals(tail, previous.tailDigest());
+    }
+
+    private static byte[] tailDigest(FileChannel ch, long end, int length) throws IOException {
+        MessageDigest md = HashUtil.newSha256();
+        ByteBuffer buf = ByteBuffer.allocate(length);
+        long pos = end - length;
+        while (buf.hasRemaining()) {
+            int n = ch.read(buf, pos + buf.position());
+            if (n < 0) throw new IOException("fin de archivo inesperado en la cola");
+        }
+        md.update(buf.flip());
+        return md.digest();
+    }
+
+    private static String fileKey(Path file) throws IOException {
+        Object key = Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        return key != null ? key.toString() : null;
+    }
+
+    // -------------------- persistencia del checkpoint --------------------
+
+    static Optional<Checkpoint> load(Path stateFile) {
+        if (!Files.exists(stateFile)) return Optional.empty();
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(stateFile)) {
+            props.load(in);
+            HexFormat hex = HexFormat.of();
+            Checkpoint c = new Checkpoint(
+                    Long.parseLong(props.getProperty("offset")),
+                    hex.parseHex(props.getProperty("midstate")),
+                    hex.parseHex(props.getProperty("tail")),
+                    Integer.parseInt(props.getProperty("tailLength")),
+                    props.getProperty("fileKey"));
+            // se valida acá y no en hash(): un midstate o una cola inconsistentes también son "ilegibles"
+            if (Sha256Midstate.restore(c.midstate()).byteCount() != c.offset()
+                    || c.tailLength() < 0 || c.tailLength() > c.offset() || c.tailDigest().length != 32) {
+                return Optional.empty();
+            }
+            return Optional.of(c);
+        } catch (IOException | RuntimeException e) {
+            // un estado ilegible solo cuesta un hash completo
+            return Optional.empty();
+        }
+    }
+
+    /** Mismo esquema que el .ots: temporal + fsync + rename atómico. */
+    static void save(Path stateFile, Checkpoint c) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("offset", String.valueOf(c.offset()));
+        props.setProperty("midstate", HashUtil.bytesToHex(c.midstate()));
+        props.setProperty("tail", HashUtil.bytesToHex(c.tailDigest()));
+        props.setProperty("tailLength", String.valueOf(c.tailLength()));
+        if (c.fileKey() != null) props.setProperty("fileKey", c.fileKey());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        props.store(out, "SHA-256 midstate del ultimo stamp incremental");
+        DropFolderIngestor.writeOts(stateFile, out.toByteArray());
+    }
+}
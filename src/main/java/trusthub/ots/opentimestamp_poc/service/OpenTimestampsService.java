@@ -1,16 +1,16 @@
 package trusthub.ots.opentimestamp_poc.service;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.net.HttpURLConnection;
-import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Matcher;
@@ -18,15 +18,36 @@ import java.util.regex.Pattern;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import com.eternitywall.ots.DetachedTimestampFile;
 import com.eternitywall.ots.OpenTimestamps;
+import com.eternitywall.ots.Timestamp;
 import com.eternitywall.ots.op.OpSHA256;
 
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.util.function.Tuples;
+import trusthub.ots.opentimestamp_poc.archive.ProofArchive;
+import trusthub.ots.opentimestamp_poc.cache.ProofResultCache;
+import trusthub.ots.opentimestamp_poc.compaction.CompactionReport;
+import trusthub.ots.opentimestamp_poc.compaction.ProofCompactor;
 import trusthub.ots.opentimestamp_poc.dto.UpgradeResult;
 import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+import trusthub.ots.opentimestamp_poc.eventlog.OtsEventLog;
+import trusthub.ots.opentimestamp_poc.explorer.BlockExplorer;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.explorer.ExplorerException;
+import trusthub.ots.opentimestamp_poc.tracing.OtsTracing;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+import trusthub.ots.opentimestamp_poc.verify.AttestationCheck;
+import trusthub.ots.opentimestamp_poc.verify.AttestationVerifier;
 
 /**
  * Servicio para operaciones de OpenTimestamps.
@@ -39,6 +60,20 @@ import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
  *   <li>Info: extraer metadatos de archivos .ots</li>
  * </ul>
  * </p>
+ * <p>
+ * La API principal es reactiva ({@code *Reactive}, devuelven {@link Mono}): las llamadas
+ * bloqueantes de la librería corren fuera del event loop y las consultas a explorers
+ * independientes se hacen en paralelo. Los métodos bloqueantes son adaptadores finos
+ * sobre esa API.
+ * </p>
+ * <p>
+ * Cada fase (hash, envío a calendarios, upgrade, render de info, verify de la librería,
+ * consultas a explorers) queda en su propio span vía {@link OtsTracing}.
+ * </p>
+ * <p>
+ * El trabajo bloqueante corre en las lanes de {@link ExecutionLanes}: hashing y render en
+ * {@code cpu}, calendarios y verify de la librería en {@code io}, upgrades de fondo en {@code bulk}.
+ * </p>
  *
  * @author Ignacio Delamer. TrustHub Team
  * @version 1.0
@@ -49,6 +84,37 @@ public class OpenTimestampsService {
 
     private static final Logger logger = LoggerFactory.getLogger(OpenTimestampsService.class);
 
+    private final BlockExplorer blockExplorer;
+    private final ProofResultCache resultCache;
+    /** Calendarios a los que se envían los stamps; vacío = los públicos por defecto de la librería. */
+    private final List<String> calendars;
+    private final OtsTracing tracing;
+    private final ProofArchive archive;
+    private final ExecutionLanes lanes;
+    private final boolean compactAfterUpgrade;
+    private final OtsEventLog events;
+    private final AttestationVerifier attestationVerifier;
+
+    public OpenTimestampsService(BlockExplorer blockExplorer,
+                                 ProofResultCache resultCache,
+                                 @Value("${ots.calendars:}") List<String> calendars,
+                                 OtsTracing tracing,
+                                 ProofArchive archive,
+                                 ExecutionLanes lanes,
+                                 @Value("${ots.compact.after-upgrade:true}") boolean compactAfterUpgrade,
+                                 OtsEventLog events,
+                                 AttestationVerifier attestationVerifier) {
+        this.blockExplorer = blockExplorer;
+        this.resultCache = resultCache;
+        this.calendars = calendars.stream().map(String::trim).filter(c -> !c.isEmpty()).toList();
+        this.tracing = tracing;
+        this.archive = archive;
+        this.lanes = lanes;
+        this.compactAfterUpgrade = compactAfterUpgrade;
+        this.events = events;
+        this.attestationVerifier = attestationVerifier;
+    }
+
     // -------------------- STAMP --------------------
         /**
      * Genera un timestamp detached (.ots) para un archivo PDF.
@@ -70,12 +136,7 @@ public class OpenTimestampsService {
 
         File tmpPdf = toTempFile(pdf, ".pdf");
         try {
-            // crear detached y stamp
-            DetachedTimestampFile detached = DetachedTimestampFile.from(new OpSHA256(), tmpPdf);
-            OpenTimestamps.stamp(detached); // envía a calendarios remotos (inicia la atestación)
-            byte[] otsBytes = detached.serialize();
-            logger.info("Stamp generado: {} bytes", otsBytes != null ? otsBytes.length : 0);
-            return otsBytes;
+            return await(stampReactive(tmpPdf));
         } finally {
             try { tmpPdf.delete(); } catch (Exception ignored) {}
         }
@@ -99,20 +160,7 @@ public class OpenTimestampsService {
         if (otsFile == null || otsFile.isEmpty()) {
             throw new IllegalArgumentException("El archivo .ots no puede ser nulo/vacío");
         }
-
-        byte[] otsBytes = otsFile.getBytes();
-        DetachedTimestampFile detached = DetachedTimestampFile.deserialize(otsBytes);
-
-        boolean changed = OpenTimestamps.upgrade(detached); // intenta descargar attestations
-
-        if (changed) {
-            byte[] newBytes = detached.serialize();
-            logger.info("Upgrade ejecutado. Cambios: true. Tamaño .ots ahora: {}", newBytes != null ? newBytes.length : 0);
-            return new UpgradeResult(true, newBytes);
-        } else {
-            logger.info("Upgrade ejecutado. No se encontraron nuevas attestations (changed=false).");
-            return new UpgradeResult(false, null);
-        }
+        return upgradeFromBytes(otsFile.getBytes());
     }
 
     // -------------------- INFO --------------------
@@ -128,11 +176,7 @@ public class OpenTimestampsService {
         if (otsFile == null || otsFile.isEmpty()) {
             throw new IllegalArgumentException("El archivo .ots no puede ser nulo/vacío");
         }
-        byte[] otsBytes = otsFile.getBytes();
-        DetachedTimestampFile detached = DetachedTimestampFile.deserialize(otsBytes);
-        String info = OpenTimestamps.info(detached);
-        logger.info("Info extraída del .ots (longitud {}):\n{}", info != null ? info.length() : 0, info);
-        return info;
+        return infoFromBytes(otsFile.getBytes());
     }
 
     // -------------------- VERIFY (boolean simple, no utilizado en la aplicacion final, se puede eliminar) --------------------
@@ -152,7 +196,7 @@ public class OpenTimestampsService {
             Map<?, ?> verifyResults = (Map<?, ?>) OpenTimestamps.verify(detachedOts, detachedOrig);
 
             boolean success = (verifyResults != null && !verifyResults.isEmpty());
-            logger.info("Verify simple: success = {}, verifyResults-size = {}", success, verifyResults != null ? verifyResults.size() : 0);
+            events.info("verify", "Verify simple", "success", success, "results", verifyResults != null ? verifyResults.size() : 0);
             return success;
         } finally {
             try { tmpPdf.delete(); } catch (Exception ignored) {}
@@ -179,168 +223,434 @@ public class OpenTimestampsService {
      * @throws Exception si ocurre error durante verificación
      */
     public VerifyResponse verifyAndGetMetadata(MultipartFile otsFile, MultipartFile originalPdf) throws Exception {
-        // 1. reconstruct detached objects
-        DetachedTimestampFile detachedOts = DetachedTimestampFile.deserialize(otsFile.getBytes());
         File tmpPdf = toTempFile(originalPdf, ".pdf");
-        String info = null;
-        Map<?, ?> verifyResults = null;
         try {
-            DetachedTimestampFile detachedOrig = DetachedTimestampFile.from(new OpSHA256(), tmpPdf);
-            Map<?, ?> vr = (Map<?, ?>) OpenTimestamps.verify(detachedOts, detachedOrig);
-            verifyResults = vr;
-
-            try {
-                info = OpenTimestamps.info(detachedOts);
-            } catch (Exception e) {
-                // info may not be available, keep null
-                info = null;
-            }
+            return verifyAndGetMetadata(otsFile.getBytes(), documentDigest(tmpPdf));
         } finally {
             try { tmpPdf.delete(); } catch (Exception ignored) {}
         }
+    }
 
-        boolean success = (verifyResults != null && !verifyResults.isEmpty());
-
-        // 2. Try to extract txid/block_hash/height from info or raw verifyResults
-        String txid = null;
-        String blockHash = null;
-        Long blockHeight = null;
-
-        if (info != null) {
-            Optional<String> maybe = extractTxOrBlockFromText(info);
-            if (maybe.isPresent()) {
-                String found = maybe.get();
-                if (found.matches("^[a-fA-F0-9]{64}$")) {
-                    txid = found;
-                } else if (found.matches("^\\d+$")) {
-                    blockHeight = Long.valueOf(found);
-                }
-            }
-            Optional<Long> maybeHeight = extractBlockHeightFromText(info);
-            if (maybeHeight.isPresent()) blockHeight = maybeHeight.get();
-            if (blockHeight == null) {
-                Pattern attestation = Pattern.compile("BitcoinBlockHeaderAttestation\\((\\d+)\\)");
-                Matcher ma = attestation.matcher(info);
-                if (ma.find()) {
-                    blockHeight = Long.valueOf(ma.group(1));
-                }
-            }
-        }
-
-        if ((txid == null && blockHash == null && blockHeight == null) && verifyResults != null) {
-            for (Object val : verifyResults.values()) {
-                if (val == null) continue;
-                String s = val.toString();
-                Optional<String> maybe = extractTxOrBlockFromText(s);
-                if (maybe.isPresent()) {
-                    String found = maybe.get();
-                    if (found.matches("^[a-fA-F0-9]{64}$")) {
-                        txid = found;
-                    } else if (found.matches("^\\d+$")) {
-                        blockHeight = Long.valueOf(found);
-                    }
-                }
-                if (blockHeight == null) {
-                    Optional<Long> mh = extractBlockHeightFromText(s);
-                    if (mh.isPresent()) blockHeight = mh.get();
-                }
-                if (txid != null || blockHeight != null) break;
-            }
-        }
-
-        // 3. If we have a txid or blockHeight/blockHash, query block explorer to obtain block_time
-        String blockTimeIso = null;
-        if (txid != null) {
-            Optional<String> bt = getBlockTimeFromTxid(txid);
-            if (bt.isPresent()) blockTimeIso = bt.get();
-            else {
-                Optional<String> maybeBlockHash = getBlockHashFromTxid(txid);
-                if (maybeBlockHash.isPresent()) blockHash = maybeBlockHash.get();
-            }
-        }
-        if (blockHash == null && blockHeight != null) {
-            Optional<String> bh = getBlockHashFromHeight(blockHeight);
-            if (bh.isPresent()) blockHash = bh.get();
-        }
-        if (blockHash != null && blockTimeIso == null) {
-            Optional<String> bt2 = getBlockTimeFromBlockHash(blockHash);
-            if (bt2.isPresent()) blockTimeIso = bt2.get();
-        }
-        if (blockTimeIso == null && blockHeight != null) {
-            Optional<String> bt3 = getBlockTimeFromHeight(blockHeight);
-            if (bt3.isPresent()) blockTimeIso = bt3.get();
-        }
-
-        VerifyResponse resp = new VerifyResponse();
-        resp.setStatus(success ? "OK" : "FAIL");
-        resp.setInfo(info);
-        resp.setTxid(txid);
-        resp.setBlock_hash(blockHash);
-        resp.setBlock_height(blockHeight);
-        resp.setBlock_time(blockTimeIso);
-        resp.setRawVerifyResults(verifyResults);
-
-        return resp;
+    /**
+     * Versión bloqueante de {@link #verifyReactive(byte[], byte[])}.
+     *
+     * @param otsBytes bytes del .ots
+     * @param documentDigest SHA-256 del documento original
+     * @return {@link VerifyResponse} con estado y metadatos del bloque
+     * @throws Exception si ocurre error durante verificación
+     */
+    public VerifyResponse verifyAndGetMetadata(byte[] otsBytes, byte[] documentDigest) throws Exception {
+        return await(verifyReactive(otsBytes, documentDigest));
     }
 
     // -------------------- File-based wrappers. Métodos helper file-based (para controlador reactivo) --------------------
     // HELPER: stampFromFile(File) -> byte[]
     public byte[] stampFromFile(File pdfFile) throws Exception {
         if (pdfFile == null || !pdfFile.exists()) throw new IllegalArgumentException("pdf file is null or does not exist");
-        DetachedTimestampFile detached = DetachedTimestampFile.from(new OpSHA256(), pdfFile);
-        OpenTimestamps.stamp(detached);
-        return detached.serialize();
+        return await(stampReactive(pdfFile));
     }
 
     // HELPER: upgradeFromFile(File) -> UpgradeResult
     public UpgradeResult upgradeFromFile(File otsFile) throws Exception {
         if (otsFile == null || !otsFile.exists()) throw new IllegalArgumentException("ots file is null or does not exist");
-        byte[] bytes = Files.readAllBytes(otsFile.toPath());
-        DetachedTimestampFile detached = DetachedTimestampFile.deserialize(bytes);
-        boolean changed = OpenTimestamps.upgrade(detached);
-        if (changed) {
-            byte[] newBytes = detached.serialize();
-            return new UpgradeResult(true, newBytes);
-        } else {
-            return new UpgradeResult(false, null);
-        }
+        return upgradeFromBytes(Files.readAllBytes(otsFile.toPath()));
+    }
+
+    // HELPER: upgradeFromBytes(byte[]) -> UpgradeResult
+    public UpgradeResult upgradeFromBytes(byte[] bytes) throws Exception {
+        if (bytes == null || bytes.length == 0) throw new IllegalArgumentException("ots bytes are null or empty");
+        return await(upgradeReactive(bytes));
+    }
+
+    // HELPER: digestHex(byte[]) -> hash del documento (hex) al que corresponde el .ots
+    public String digestHex(byte[] otsBytes) throws Exception {
+        if (otsBytes == null || otsBytes.length == 0) throw new IllegalArgumentException("ots bytes are null or empty");
+        DetachedTimestampFile detached = DetachedTimestampFile.deserialize(otsBytes);
+        return HashUtil.bytesToHex(detached.fileDigest());
     }
 
     // HELPER: infoFromFile(File) -> String
     public String infoFromFile(File otsFile) throws Exception {
         if (otsFile == null || !otsFile.exists()) throw new IllegalArgumentException("ots file is null or does not exist");
-        byte[] bytes = Files.readAllBytes(otsFile.toPath());
-        DetachedTimestampFile detached = DetachedTimestampFile.deserialize(bytes);
-        return OpenTimestamps.info(detached);
+        return infoFromBytes(Files.readAllBytes(otsFile.toPath()));
+    }
+
+    // HELPER: infoFromBytes(byte[]) -> String (cacheado por SHA-256 del .ots)
+    public String infoFromBytes(byte[] otsBytes) throws Exception {
+        if (otsBytes == null || otsBytes.length == 0) throw new IllegalArgumentException("ots bytes are null or empty");
+        return await(infoReactive(otsBytes));
     }
 
     // HELPER: verifyAndGetMetadataFromFiles(File otsFile, File originalPdf) -> VerifyResponse
     public VerifyResponse verifyAndGetMetadataFromFiles(File otsFile, File originalPdf) throws Exception {
         if (otsFile == null || !otsFile.exists()) throw new IllegalArgumentException("ots file is null or does not exist");
         if (originalPdf == null || !originalPdf.exists()) throw new IllegalArgumentException("original pdf is null or does not exist");
-        byte[] otsBytes = Files.readAllBytes(otsFile.toPath());
-        DetachedTimestampFile detachedOts = DetachedTimestampFile.deserialize(otsBytes);
-        // reuse logic from verifyAndGetMetadata but operating on File for original
-        File tmpPdf = originalPdf;
-        String info = null;
-        Map<?, ?> verifyResults = null;
+        // do not delete provided files; caller manages temp files
+        return verifyAndGetMetadata(Files.readAllBytes(otsFile.toPath()), documentDigest(originalPdf));
+    }
+
+    // HELPER: documentDigest(File) -> SHA-256 del documento
+    public byte[] documentDigest(File document) throws Exception {
+        return DetachedTimestampFile.from(new OpSHA256(), document).fileDigest();
+    }
+
+    /**
+     * {@code block()} para los adaptadores bloqueantes: devuelve la excepción original
+     * (ej. IOException) en vez del wrapper de Reactor para excepciones checked.
+     */
+    private static <T> T await(Mono<T> mono) throws Exception {
         try {
-            DetachedTimestampFile detachedOrig = DetachedTimestampFile.from(new OpSHA256(), tmpPdf);
-            Map<?, ?> vr = (Map<?, ?>) OpenTimestamps.verify(detachedOts, detachedOrig);
-            verifyResults = vr;
-            try {
-                info = OpenTimestamps.info(detachedOts);
-            } catch (Exception e) {
-                info = null;
+            return mono.block();
+        } catch (RuntimeException e) {
+            Throwable cause = Exceptions.unwrap(e);
+            if (cause instanceof Exception original) throw original;
+            throw e;
+        }
+    }
+
+    // -------------------- API reactiva --------------------
+
+    /**
+     * Hashea el documento y lo envía a los calendarios.
+     *
+     * @param pdfFile documento ya guardado en disco
+     * @return Mono con los bytes del .ots generado
+     */
+    public Mono<byte[]> stampReactive(File pdfFile) {
+        return documentDigestReactive(pdfFile).flatMap(this::stampDigestReactive);
+    }
+
+    /**
+     * Stamp a partir del SHA-256 ya calculado del documento (el documento no pasa por el servidor).
+     *
+     * @param digest SHA-256 del documento (32 bytes)
+     * @return Mono con los bytes del .ots generado
+     */
+    public Mono<byte[]> stampDigestReactive(byte[] digest) {
+        if (digest == null || digest.length != 32) {
+            return Mono.error(new IllegalArgumentException("El digest debe ser SHA-256 (32 bytes)"));
+        }
+        return tracing.observe("ots.calendar.submit", obs -> {
+            obs.lowCardinalityKeyValue("calendar.hosts", calendars.isEmpty() ? "default" : String.join(",", calendars));
+            return Mono.fromCallable(() -> {
+                DetachedTimestampFile detached = detachedFromDigest(digest);
+                submitToCalendars(detached); // envía a calendarios remotos (inicia la atestación)
+                byte[] otsBytes = detached.serialize();
+                events.info("stamp", "Stamp generado", "proof.size", otsBytes != null ? otsBytes.length : 0);
+                archive.record(digest, otsBytes);
+                return otsBytes;
+            }).subscribeOn(lanes.io());
+        });
+    }
+
+    /**
+     * Stamp agregado: la librería arma un árbol Merkle con todos los digests (con un nonce por
+     * documento) y envía solo la raíz a los calendarios, una llamada por calendario para todo el lote.
+     * Cada .ots resultante contiene el camino de su documento hasta esa raíz.
+     *
+     * @param digests SHA-256 de los documentos (32 bytes cada uno)
+     * @return Mono con los .ots, en el mismo orden que {@code digests}
+     */
+    public Mono<List<byte[]>> stampDigestsReactive(List<byte[]> digests) {
+        for (byte[] digest : digests) {
+            if (digest == null || digest.length != 32) {
+                return Mono.error(new IllegalArgumentException("El digest debe ser SHA-256 (32 bytes)"));
             }
-        } finally {
-            // do not delete provided files; caller manages temp files
         }
+        if (digests.isEmpty()) return Mono.just(List.of());
+        return tracing.observe("ots.calendar.submit", obs -> {
+            obs.lowCardinalityKeyValue("calendar.hosts", calendars.isEmpty() ? "default" : String.join(",", calendars));
+            obs.highCardinalityKeyValue("batch.size", String.valueOf(digests.size()));
+            return Mono.fromCallable(() -> {
+                List<DetachedTimestampFile> detached = new ArrayList<>(digests.size());
+                for (byte[] digest : digests) detached.add(detachedFromDigest(digest));
+                OpenTimestamps.stamp(detached, calendars, null); // lista vacía = calendarios por defecto
+                List<byte[]> result = new ArrayList<>(detached.size());
+                for (DetachedTimestampFile d : detached) result.add(d.serialize());
+                archive.recordAll(digests, result); // un solo fsync para todo el lote
+                events.info("stamp", "Stamp agregado", "batch.size", result.size());
+                return result;
+            }).subscribeOn(lanes.io());
+        });
+    }
+
+    private void submitToCalendars(DetachedTimestampFile detached) throws IOException {
+        if (calendars.isEmpty()) {
+            OpenTimestamps.stamp(detached);
+        } else {
+            OpenTimestamps.stamp(detached, calendars, null);
+        }
+    }
+
+    /** SHA-256 del documento, calculado fuera del event loop. */
+    public Mono<byte[]> documentDigestReactive(File document) {
+        return tracing.observe("ots.hash", obs -> {
+            obs.highCardinalityKeyValue("file.size", String.valueOf(document.length()));
+            return Mono.fromCallable(() -> documentDigest(document)).subscribeOn(lanes.cpu());
+        });
+    }
+
+    /**
+     * SHA-256 de un contenido que llega en streaming (ej. un part multipart): cada buffer se
+     * digiere en la lane cpu a medida que llega y se libera, sin juntar el documento en memoria.
+     */
+    public Mono<byte[]> contentDigestReactive(Flux<DataBuffer> content) {
+        return content
+                .publishOn(lanes.cpu())
+                .reduceWith(HashUtil::newSha256, (md, buffer) -> {
+                    try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+                        while (it.hasNext()) md.update(it.next());
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                    return md;
+                })
+                .map(MessageDigest::digest)
+                .doOnDiscard(DataBuffer.class, DataBufferUtils::release);
+    }
+
+    /**
+     * Intenta el upgrade del .ots contra los calendarios.
+     *
+     * @return Mono con {@link UpgradeResult} ({@code upgraded=false} si todavía no hay attestation)
+     */
+    public Mono<UpgradeResult> upgradeReactive(byte[] otsBytes) {
+        return upgradeOn(otsBytes, lanes.io());
+    }
+
+    /** Igual que {@link #upgradeReactive(byte[])} pero en la lane de trabajos de fondo. */
+    public Mono<UpgradeResult> upgradeInBackground(byte[] otsBytes) {
+        return upgradeOn(otsBytes, lanes.bulk());
+    }
+
+    private Mono<UpgradeResult> upgradeOn(byte[] otsBytes, Scheduler lane) {
+        return tracing.observe("ots.upgrade", obs -> {
+            obs.highCardinalityKeyValue("proof.size", String.valueOf(otsBytes.length));
+            return upgradeCall(otsBytes, lane)
+                    .doOnNext(res -> obs.lowCardinalityKeyValue("upgraded", String.valueOf(res.isUpgraded())));
+        });
+    }
+
+    private Mono<UpgradeResult> upgradeCall(byte[] otsBytes, Scheduler lane) {
+        return Mono.fromCallable(() -> {
+            DetachedTimestampFile detached = DetachedTimestampFile.deserialize(otsBytes);
+            boolean changed = OpenTimestamps.upgrade(detached); // intenta descargar attestations
+            if (changed) {
+                if (compactAfterUpgrade) {
+                    int height = ProofCompactor.compact(detached.getTimestamp());
+                    if (height >= 0) events.info("compact", "Proof compactado después del upgrade", "block.height", height);
+                }
+                byte[] newBytes = detached.serialize();
+                archive.record(detached.fileDigest(), newBytes);
+                events.info("upgrade", "Upgrade ejecutado", "changed", true, "proof.size", newBytes != null ? newBytes.length : 0);
+                return new UpgradeResult(true, newBytes);
+            }
+            events.info("upgrade", "Upgrade ejecutado sin nuevas attestations", "changed", false);
+            return new UpgradeResult(false, null);
+        }).subscribeOn(lane);
+    }
+
+    /**
+     * Compacta un .ots confirmado (ver {@link ProofCompactor}) y mide tamaño, árbol y tiempos
+     * de parse/info antes y después. Sin attestation de Bitcoin devuelve el mismo proof.
+     * <p>
+     * Con {@code archiveResult} el proof compactado reemplaza al archivado solo si el .ots
+     * recibido es exactamente el que tiene el archivo para ese documento (lo emitió o actualizó
+     * este servicio): la attestation que se conserva no se verifica acá, así que un .ots armado
+     * por el cliente nunca pisa el archivo. El archivo se lee y escribe en la lane io.
+     * </p>
+     */
+    public Mono<CompactionReport> compactReactive(byte[] otsBytes, boolean archiveResult) {
+        return Mono.fromCallable(() -> {
+            DetachedTimestampFile detached = DetachedTimestampFile.deserialize(otsBytes);
+            CompactionReport.Measure before = measure(otsBytes, detached);
+            int height = ProofCompactor.compact(detached.getTimestamp());
+            if (height < 0) return Tuples.of(new CompactionReport(otsBytes, -1, before, before), detached.fileDigest());
+
+            byte[] compacted = detached.serialize();
+            CompactionReport.Measure after = measure(compacted, DetachedTimestampFile.deserialize(compacted));
+            events.info("compact", "Proof compactado", "block.height", height, "size.before", before.sizeBytes(), "size.after", after.sizeBytes());
+            return Tuples.of(new CompactionReport(compacted, height, before, after), detached.fileDigest());
+        }).subscribeOn(lanes.cpu()).flatMap(t -> {
+            CompactionReport report = t.getT1();
+            if (!archiveResult || !report.compacted() || !archive.isEnabled()) return Mono.just(report);
+            return Mono.fromCallable(() -> {
+                        byte[] digest = t.getT2();
+                        boolean issued = archive.find(digest).map(r -> Arrays.equals(r.ots(), otsBytes)).orElse(false);
+                        if (issued) archive.record(digest, report.ots());
+                        return report;
+                    })
+                    .subscribeOn(lanes.io())
+                    .onErrorResume(IOException.class, e -> {
+                        logger.warn("No se pudo archivar el proof compactado: {}", e.getMessage());
+                        return Mono.just(report);
+                    });
+        });
+    }
+
+    private static CompactionReport.Measure measure(byte[] otsBytes, DetachedTimestampFile detached) throws Exception {
+        final int runs = 5;
+        long parse = Long.MAX_VALUE, info = Long.MAX_VALUE;
+        for (int i = 0; i < runs; i++) {
+            long t0 = System.nanoTime();
+            DetachedTimestampFile parsed = DetachedTimestampFile.deserialize(otsBytes);
+            long t1 = System.nanoTime();
+            OpenTimestamps.info(parsed);
+            long t2 = System.nanoTime();
+            parse = Math.min(parse, t1 - t0);
+            info = Math.min(info, t2 - t1);
+        }
+        return new CompactionReport.Measure(otsBytes.length, ProofCompactor.stats(detached.getTimestamp()),
+                parse / 1_000, info / 1_000);
+    }
 
+    /**
+     * Info legible del .ots, cacheada por SHA-256 de los bytes.
+     */
+    public Mono<String> infoReactive(byte[] otsBytes) {
+        return tracing.observe("ots.info", obs -> {
+            obs.highCardinalityKeyValue("proof.size", String.valueOf(otsBytes.length));
+            return Mono.fromCallable(() -> {
+                String proofKey = HashUtil.sha256Hex(otsBytes);
+                Optional<String> cached = resultCache.getInfo(proofKey);
+                obs.lowCardinalityKeyValue("cache", cached.isPresent() ? "hit" : "miss");
+                if (cached.isPresent()) return cached.get();
+
+                String info = renderInfo(otsBytes);
+                events.info("info", "Info extraída del .ots", "info.length", info != null ? info.length() : 0);
+                // el texto completo son varios KB: solo una muestra va al log (nivel DEBUG de ots.events)
+                events.payload("info", "Info del .ots", () -> info, "proof.key", proofKey);
+                resultCache.putInfo(proofKey, info);
+                return info;
+            }).subscribeOn(lanes.cpu());
+        });
+    }
+
+    /** Deserialize + OpenTimestamps.info sin pasar por la cache (lo usa también el warm-up). */
+    public String renderInfo(byte[] otsBytes) throws Exception {
+        return OpenTimestamps.info(DetachedTimestampFile.deserialize(otsBytes));
+    }
+
+    /**
+     * Núcleo de verify: verifica el .ots contra el hash del documento y extrae metadatos del bloque.
+     * <p>
+     * La verificación de la librería y el render de info corren en paralelo; luego se consulta el
+     * bloque por txid y, solo si así no aparece, por altura de bloque.
+     * Los resultados confirmados en Bitcoin se cachean por (SHA-256 del .ots, hash del documento).
+     * </p>
+     *
+     * @param otsBytes bytes del .ots
+     * @param documentDigest SHA-256 del documento original
+     * @return Mono con {@link VerifyResponse} (estado y metadatos del bloque)
+     */
+    public Mono<VerifyResponse> verifyReactive(byte[] otsBytes, byte[] documentDigest) {
+        return tracing.observe("ots.verify", obs -> Mono.fromCallable(() -> HashUtil.sha256Hex(otsBytes))
+                .flatMap(proofKey -> {
+                    String digestHex = HashUtil.bytesToHex(documentDigest);
+                    obs.highCardinalityKeyValue("proof.size", String.valueOf(otsBytes.length));
+                    // el store de resultados está en disco: getVerify/putVerify lo consultan en la lane io
+                    return resultCache.getVerify(proofKey, digestHex)
+                            .flatMap(cached -> {
+                                obs.lowCardinalityKeyValue("cache", cached.isPresent() ? "hit" : "miss");
+                                if (cached.isPresent()) {
+                                    logger.debug("Verify servido desde cache para {}", digestHex);
+                                    return Mono.just(cached.get());
+                                }
+                                return verifyUncached(otsBytes, documentDigest)
+                                        .flatMap(resp -> {
+                                            obs.lowCardinalityKeyValue("status", String.valueOf(resp.getStatus()));
+                                            return resultCache.putVerify(proofKey, digestHex, resp).thenReturn(resp);
+                                        });
+                            });
+                }));
+    }
+
+    /** Verificación de la librería + info en paralelo, sin pasar por la cache. */
+    private Mono<VerifyResponse> verifyUncached(byte[] otsBytes, byte[] documentDigest) {
+        Mono<Optional<Map<?, ?>>> verifyMono = tracing.observe("ots.verify.library", lib -> Mono.fromCallable(() -> {
+            DetachedTimestampFile detachedOts = DetachedTimestampFile.deserialize(otsBytes);
+            Map<?, ?> vr = (Map<?, ?>) OpenTimestamps.verify(detachedOts, detachedFromDigest(documentDigest));
+            return Optional.<Map<?, ?>>ofNullable(vr);
+        }).subscribeOn(lanes.io()));
+        // info may not be available, keep null
+        Mono<Optional<String>> infoMono = infoReactive(otsBytes)
+                .map(Optional::of)
+                .onErrorReturn(Optional.empty());
+
+        return Mono.zip(verifyMono, infoMono)
+                .flatMap(t -> buildVerifyResponse(t.getT1().orElse(null), t.getT2().orElse(null)));
+    }
+
+    /**
+     * Verify por attestations en paralelo: en vez de {@code OpenTimestamps.verify} (que recorre las
+     * attestations de Bitcoin una por una), cada rama se chequea contra los explorers a la vez
+     * (merkle root del bloque a esa altura = compromiso del proof), ver {@link AttestationVerifier}.
+     * <ul>
+     *   <li>{@code all = false}: responde con la attestation confirmada de menor altura en cuanto
+     *       se sabe (ver {@link AttestationVerifier#firstConfirmed}) y cancela las más altas.
+     *       Si hay un resultado confirmado en cache se devuelve ese.</li>
+     *   <li>{@code all = true}: espera todas; {@code attestations} trae altura, bloque, time y resultado
+     *       de cada una, y los datos del bloque son los de la confirmada de menor altura.</li>
+     * </ul>
+     * Un proof sin attestations de Bitcoin (solo pendientes) sigue el camino de {@link #verifyReactive}.
+     */
+    public Mono<VerifyResponse> verifyAttestationsReactive(byte[] otsBytes, byte[] documentDigest, boolean all) {
+        return tracing.observe("ots.verify.attestations", obs -> Mono.fromCallable(() -> {
+                    obs.lowCardinalityKeyValue("mode", all ? "all" : "fastest");
+                    obs.highCardinalityKeyValue("proof.size", String.valueOf(otsBytes.length));
+                    return DetachedTimestampFile.deserialize(otsBytes);
+                })
+                .subscribeOn(lanes.cpu())
+                .flatMap(detached -> {
+                    if (!Arrays.equals(detached.fileDigest(), documentDigest)) {
+                        VerifyResponse fail = new VerifyResponse();
+                        fail.setStatus("FAIL");
+                        return Mono.just(fail);
+                    }
+                    List<AttestationVerifier.Branch> branches = AttestationVerifier.bitcoinBranches(detached.getTimestamp());
+                    obs.highCardinalityKeyValue("attestations", String.valueOf(branches.size()));
+                    if (branches.isEmpty()) return verifyReactive(otsBytes, documentDigest);
+                    Mono<Optional<VerifyResponse>> cached = all
+                            ? Mono.just(Optional.<VerifyResponse>empty())
+                            : resultCache.getVerify(HashUtil.sha256Hex(otsBytes), HashUtil.bytesToHex(documentDigest));
+                    return cached.flatMap(hit -> hit.isPresent()
+                            ? Mono.just(hit.get())
+                            : checkAttestations(otsBytes, branches, all));
+                }));
+    }
+
+    /** Chequeo de las ramas (todas o la primera confirmada) + info, armado como VerifyResponse. */
+    private Mono<VerifyResponse> checkAttestations(byte[] otsBytes, List<AttestationVerifier.Branch> branches, boolean all) {
+        Mono<List<AttestationCheck>> checks = all
+                ? attestationVerifier.checkAll(branches)
+                : attestationVerifier.firstConfirmed(branches).map(List::of).defaultIfEmpty(List.of());
+        Mono<Optional<String>> infoMono = infoReactive(otsBytes)
+                .map(Optional::of)
+                .onErrorReturn(Optional.empty());
+        return Mono.zip(checks, infoMono).map(t -> {
+            List<AttestationCheck> results = t.getT1();
+            Optional<AttestationCheck> best = results.stream().filter(AttestationCheck::confirmed).findFirst();
+            VerifyResponse resp = new VerifyResponse();
+            resp.setStatus(best.isPresent() ? "OK" : "FAIL");
+            resp.setInfo(t.getT2().orElse(null));
+            best.ifPresent(b -> {
+                resp.setBlock_hash(b.block_hash());
+                resp.setBlock_height(b.block_height());
+                resp.setBlock_time(b.block_time());
+            });
+            if (all) resp.setAttestations(results);
+            events.info("verify", "Verify por attestations", "mode", all ? "all" : "fastest",
+                    "attestations", branches.size(), "status", resp.getStatus());
+            return resp;
+        });
+    }
+
+    /** Arma el VerifyResponse a partir del resultado de la librería y del info del .ots. */
+    private Mono<VerifyResponse> buildVerifyResponse(Map<?, ?> verifyResults, String info) {
         boolean success = (verifyResults != null && !verifyResults.isEmpty());
 
+        // 2. Try to extract txid/block_hash/height from info or raw verifyResults
         String txid = null;
-        String blockHash = null;
         Long blockHeight = null;
 
         if (info != null) {
@@ -364,7 +674,7 @@ public class OpenTimestampsService {
             }
         }
 
-        if ((txid == null && blockHash == null && blockHeight == null) && verifyResults != null) {
+        if ((txid == null && blockHeight == null) && verifyResults != null) {
             for (Object val : verifyResults.values()) {
                 if (val == null) continue;
                 String s = val.toString();
@@ -385,38 +695,29 @@ public class OpenTimestampsService {
             }
         }
 
-        String blockTimeIso = null;
-        if (txid != null) {
-            Optional<String> bt = getBlockTimeFromTxid(txid);
-            if (bt.isPresent()) blockTimeIso = bt.get();
-            else {
-                Optional<String> maybeBlockHash = getBlockHashFromTxid(txid);
-                if (maybeBlockHash.isPresent()) blockHash = maybeBlockHash.get();
-            }
-        }
-        if (blockHash == null && blockHeight != null) {
-            Optional<String> bh = getBlockHashFromHeight(blockHeight);
-            if (bh.isPresent()) blockHash = bh.get();
-        }
-        if (blockHash != null && blockTimeIso == null) {
-            Optional<String> bt2 = getBlockTimeFromBlockHash(blockHash);
-            if (bt2.isPresent()) blockTimeIso = bt2.get();
-        }
-        if (blockTimeIso == null && blockHeight != null) {
-            Optional<String> bt3 = getBlockTimeFromHeight(blockHeight);
-            if (bt3.isPresent()) blockTimeIso = bt3.get();
-        }
-
-        VerifyResponse resp = new VerifyResponse();
-        resp.setStatus(success ? "OK" : "FAIL");
-        resp.setInfo(info);
-        resp.setTxid(txid);
-        resp.setBlock_hash(blockHash);
-        resp.setBlock_height(blockHeight);
-        resp.setBlock_time(blockTimeIso);
-        resp.setRawVerifyResults(verifyResults);
-
-        return resp;
+        // 3. If we have a txid and/or blockHeight, query block explorers to obtain block_time.
+        //    The height lookup only runs when the txid lookup did not find the block (saves explorer budget).
+        Mono<BlockRef> byTx = (txid != null) ? lookupByTxid(txid) : Mono.just(BlockRef.EMPTY);
+        String finalTxid = txid;
+        Long finalHeight = blockHeight;
+
+        return byTx.flatMap(tx -> {
+            if (tx.hash() != null || finalHeight == null) return Mono.just(Tuples.of(tx, BlockRef.EMPTY));
+            return lookupByHeight(finalHeight).map(height -> Tuples.of(tx, height));
+        }).map(refs -> {
+            BlockRef tx = refs.getT1();
+            BlockRef height = refs.getT2();
+
+            VerifyResponse resp = new VerifyResponse();
+            resp.setStatus(success ? "OK" : "FAIL");
+            resp.setInfo(info);
+            resp.setTxid(finalTxid);
+            resp.setBlock_hash(tx.hash() != null ? tx.hash() : height.hash());
+            resp.setBlock_height(finalHeight);
+            resp.setBlock_time(tx.time() != null ? tx.time() : height.time());
+            resp.setRawVerifyResults(verifyResults);
+            return resp;
+        });
     }
 
     // ----------------- Helpers: extraction from text -----------------
@@ -445,100 +746,78 @@ public class OpenTimestampsService {
         return Optional.empty();
     }
 
-    // ----------------- Blockstream / Esplora queries -----------------
-    // Note: public Blockstream API endpoints. Rate-limits may apply.
+    // ----------------- Block explorer (Esplora) queries -----------------
+    // Note: los backends, presupuestos de requests y failover se configuran en FailoverBlockExplorer.
 
-    private Optional<String> getBlockTimeFromTxid(String txid) {
-        try {
-            String body = httpGet("https://blockstream.info/api/tx/" + txid + "/status");
-            Pattern p = Pattern.compile("\"block_time\"\\s*:\\s*(\\d+)");
-            Matcher m = p.matcher(body);
+    /** Bloque encontrado por una consulta: hash y/o time ISO 8601 (cualquiera puede ser null). */
+    private record BlockRef(String hash, String time) {
+        static final BlockRef EMPTY = new BlockRef(null, null);
+    }
+
+    /** /tx/{txid}/status -> block_hash y block_time (si falta el time, se consulta el bloque). */
+    private Mono<BlockRef> lookupByTxid(String txid) {
+        return explorerGet("/tx/" + txid + "/status").flatMap(body -> {
+            if (body.isEmpty()) return Mono.just(BlockRef.EMPTY);
+            String blockHash = null;
+            Matcher mb = Pattern.compile("\"block_hash\"\\s*:\\s*\"([a-fA-F0-9]{64})\"").matcher(body.get());
+            if (mb.find()) blockHash = mb.group(1);
+            Matcher m = Pattern.compile("\"block_time\"\\s*:\\s*(\\d+)").matcher(body.get());
             if (m.find()) {
-                long epoch = Long.parseLong(m.group(1));
-                String iso = Instant.ofEpochSecond(epoch).toString();
-                return Optional.of(iso);
-            }
-            Pattern pb = Pattern.compile("\"block_hash\"\\s*:\\s*\"([a-fA-F0-9]{64})\"");
-            Matcher mb = pb.matcher(body);
-            if (mb.find()) {
-                String bh = mb.group(1);
-                Optional<String> bt = getBlockTimeFromBlockHash(bh);
-                if (bt.isPresent()) return bt;
+                return Mono.just(new BlockRef(blockHash, Instant.ofEpochSecond(Long.parseLong(m.group(1))).toString()));
             }
-        } catch (Exception e) {
-            // ignore and return empty
-        }
-        return Optional.empty();
+            if (blockHash == null) return Mono.just(BlockRef.EMPTY);
+            String hash = blockHash;
+            return getBlockTimeFromBlockHash(hash).map(bt -> new BlockRef(hash, bt.orElse(null)));
+        });
     }
 
-    private Optional<String> getBlockHashFromTxid(String txid) {
-        try {
-            String body = httpGet("https://blockstream.info/api/tx/" + txid + "/status");
-            Pattern pb = Pattern.compile("\"block_hash\"\\s*:\\s*\"([a-fA-F0-9]{64})\"");
-            Matcher mb = pb.matcher(body);
-            if (mb.find()) return Optional.of(mb.group(1));
-        } catch (Exception e) {}
-        return Optional.empty();
+    /** /block-height/{h} -> hash, luego /block/{hash} -> time. */
+    private Mono<BlockRef> lookupByHeight(long height) {
+        return explorerGet("/block-height/" + height).flatMap(body -> {
+            if (body.isEmpty() || body.get().trim().length() == 0) return Mono.just(BlockRef.EMPTY);
+            String hash = body.get().trim();
+            return getBlockTimeFromBlockHash(hash).map(bt -> new BlockRef(hash, bt.orElse(null)));
+        });
     }
 
-    private Optional<String> getBlockTimeFromBlockHash(String blockHash) {
-        try {
-            String body = httpGet("https://blockstream.info/api/block/" + blockHash);
-            Pattern p = Pattern.compile("\"(timestamp|time)\"\\s*:\\s*(\\d+)");
-            Matcher m = p.matcher(body);
+    private Mono<Optional<String>> getBlockTimeFromBlockHash(String blockHash) {
+        return explorerGet("/block/" + blockHash).map(body -> {
+            if (body.isEmpty()) return Optional.<String>empty();
+            Matcher m = Pattern.compile("\"(timestamp|time)\"\\s*:\\s*(\\d+)").matcher(body.get());
             if (m.find()) {
                 long epoch = Long.parseLong(m.group(2));
                 return Optional.of(Instant.ofEpochSecond(epoch).toString());
             }
-        } catch (Exception e) {}
-        return Optional.empty();
+            return Optional.<String>empty();
+        });
     }
 
-    private Optional<String> getBlockTimeFromHeight(long height) {
-        try {
-            String blockHash = httpGet("https://blockstream.info/api/block-height/" + height).trim();
-            if (blockHash.length() > 0) {
-                return getBlockTimeFromBlockHash(blockHash);
-            }
-        } catch (Exception e) {}
-        return Optional.empty();
+    /** GET al explorer; si todos los backends fallan se loguea y se devuelve vacío (la respuesta sale sin ese dato). */
+    private Mono<Optional<String>> explorerGet(String path) {
+        return blockExplorer.getReactive(path)
+                .onErrorResume(ExplorerException.class, e -> {
+                    logger.warn("Sin respuesta de block explorers para {}: {}", path, e.getMessage());
+                    return Mono.just(Optional.empty());
+                });
     }
 
-    private Optional<String> getBlockHashFromHeight(long height) {
-        try {
-            String blockHash = httpGet("https://blockstream.info/api/block-height/" + height).trim();
-            if (blockHash.length() > 0) return Optional.of(blockHash);
-        } catch (Exception e) {}
-        return Optional.empty();
-    }
+    // -------------- rest of service (toTempFile, stamp, upgrade, info...) assumed present --------------
 
-    // Basic HTTP GET helper
-    private String httpGet(String urlStr) throws Exception {
-        URL url = new java.net.URI(urlStr).toURL();
-        HttpURLConnection con = (HttpURLConnection) url.openConnection();
-        con.setRequestMethod("GET");
-        con.setConnectTimeout(8000);
-        con.setReadTimeout(8000);
-        int status = con.getResponseCode();
-        try (BufferedReader in = new BufferedReader(new InputStreamReader(
-                (status >= 200 && status < 300) ? con.getInputStream() : con.getErrorStream()
-        ))) {
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = in.readLine()) != null) sb.append(line);
-            con.disconnect();
-            return sb.toString();
-        }
+    /** Detached "virtual" a partir del hash ya calculado del documento (no vuelve a leer el archivo). */
+    private static DetachedTimestampFile detachedFromDigest(byte[] documentDigest) {
+        return new DetachedTimestampFile(new OpSHA256(), new Timestamp(documentDigest));
     }
 
-    // -------------- rest of service (toTempFile, stamp, upgrade, info...) assumed present --------------
-
     private File toTempFile(MultipartFile multipart, String suffix) throws IOException {
         // Crea archivo temporal, copia el contenido del MultipartFile y devuelve File
         Path tmp = Files.createTempFile("otssvc-", suffix);
-        try (InputStream in = multipart.getInputStream()) {
-            Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
-        }
+        tracing.observation("ots.tempfile.copy")
+                .highCardinalityKeyValue("file.size", String.valueOf(multipart.getSize()))
+                .observeChecked(() -> {
+                    try (InputStream in = multipart.getInputStream()) {
+                        return Files.copy(in, tmp, StandardCopyOption.REPLACE_EXISTING);
+                    }
+                });
         File f = tmp.toFile();
         f.deleteOnExit(); // intenta borrar al salir de la JVM
         return f;
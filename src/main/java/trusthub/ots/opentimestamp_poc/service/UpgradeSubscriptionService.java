@@ -0,0 +1,207 @@
+package trusthub.ots.opentimestamp_poc.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import trusthub.ots.opentimestamp_poc.cluster.CoordinationStore;
+import trusthub.ots.opentimestamp_poc.cluster.PendingUpgrade;
+import trusthub.ots.opentimestamp_poc.cluster.UpgradeShardCoordinator;
+import trusthub.ots.opentimestamp_poc.dto.UpgradeEvent;
+
+/**
+ * Registro de .ots pendientes de confirmación y suscripciones a su upgrade.
+ * <p>
+ * En vez de que cada cliente haga polling a /upgrade re-subiendo el .ots, el
+ * cliente registra el .ots una vez y se suscribe por SSE. El servidor intenta el
+ * upgrade de cada .ots pendiente una sola vez por intervalo (sin importar
+ * cuántos clientes estén suscriptos) y, cuando hay attestation, emite el evento
+ * UPGRADED con el .ots nuevo.
+ * </p>
+ * <p>
+ * El registro vive en el {@link CoordinationStore} compartido: el nodo que recibe
+ * el POST lo agrega y el dueño del shard (ver {@link UpgradeShardCoordinator}) lo
+ * procesa, aunque sean nodos distintos. Cada nodo mantiene solo los sinks de sus
+ * suscriptores SSE y los resuelve cuando ve el resultado en el store.
+ * </p>
+ * <p>
+ * Los .ots resueltos (UPGRADED o EXPIRED) se conservan con su resultado durante
+ * {@code ots.subscriptions.retention}, así un cliente que se reconecta (o se
+ * suscribe tarde) recibe igual el evento final; pasado ese tiempo se descartan.
+ * </p>
+ */
+@Service
+public class UpgradeSubscriptionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpgradeSubscriptionService.class);
+
+    private final OpenTimestampsService otsService;
+    private final UpgradeShardCoordinator shardCoordinator;
+    private final CoordinationStore store;
+    private final Duration ttl;
+    private final Duration retention;
+    private final int concurrency;
+
+    /** Sinks de los suscriptores conectados a este nodo, por digest. */
+    private final Map<String, Watcher> watchers = new ConcurrentHashMap<>();
+
+    public UpgradeSubscriptionService(OpenTimestampsService otsService,
+                                      UpgradeShardCoordinator shardCoordinator,
+                                      CoordinationStore store,
+                                      @Value("${ots.subscriptions.ttl:48h}") Duration ttl,
+                                      @Value("${ots.subscriptions.retention:24h}") Duration retention,
+                                      @Value("${ots.subscriptions.concurrency:4}") int concurrency) {
+        this.otsService = otsService;
+        this.shardCoordinator = shardCoordinator;
+        this.store = store;
+        this.ttl = ttl;
+        this.retention = retention;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Registra un .ots pendiente. Si ya estaba registrado (pendiente o resuelto y
+     * todavía retenido) se conserva el existente.
+     *
+     * @return el registro vigente: su {@code digest} es el id de la suscripción (hash hex del
+     *         documento) y {@link PendingUpgrade#status()} el estado actual
+     */
+    public PendingUpgrade register(byte[] otsBytes) throws Exception {
+        String digest = otsService.digestHex(otsBytes);
+        PendingUpgrade pending = PendingUpgrade.pending(digest, otsBytes, Instant.now());
+        if (store.registerUpgrade(pending)) {
+            logger.info("Registrado .ots pendiente {}", digest);
+            return pending;
+        }
+        return store.upgrade(digest).orElse(pending);
+    }
+
+    /**
+     * Flujo de eventos del .ots registrado con {@code digest}. Emite el último
+     * evento (PENDING, o el final si ya se resolvió) y termina luego de UPGRADED o
+     * EXPIRED. Búsqueda y suscripción son una sola operación: si el registro se
+     * descarta después, el Flux devuelto sigue entregando el resultado.
+     *
+     * @return vacío si el id no está registrado (o ya venció su retención)
+     */
+    public Optional<Flux<UpgradeEvent>> subscribe(String digest) {
+        Optional<PendingUpgrade> registered = store.upgrade(digest);
+        if (registered.isEmpty()) return Optional.empty();
+        if (registered.get().isResolved()) return Optional.of(Flux.just(eventOf(registered.get())));
+
+        Watcher watcher = watchers.computeIfAbsent(digest, Watcher::new);
+        // pudo resolverse (en cualquier nodo) entre la lectura y el alta del watcher
+        store.upgrade(digest).filter(PendingUpgrade::isResolved).ifPresent(this::notifyWatcher);
+        return Optional.of(watcher.sink.asFlux());
+    }
+
+    /**
+     * Ronda de upgrade de los .ots pendientes cuyo shard pertenece a este nodo
+     * (ver {@link UpgradeShardCoordinator}; sin cluster, todos). También descarta
+     * los resueltos cuya retención venció.
+     */
+    @Scheduled(fixedDelayString = "${ots.subscriptions.poll-interval:PT5M}", initialDelayString = "${ots.subscriptions.poll-interval:PT5M}")
+    public void pollPending() {
+        int evicted = store.evictResolvedUpgrades(Instant.now().minus(retention));
+        if (evicted > 0) logger.debug("Descartados {} .ots resueltos (retención vencida)", evicted);
+        pollPending(store.pendingUpgrades().stream()
+                .filter(upgrade -> shardCoordinator.owns(upgrade.digest()))
+                .toList());
+    }
+
+    /** Intenta el upgrade de los .ots indicados (una llamada a calendarios por .ots). */
+    void pollPending(Collection<PendingUpgrade> upgrades) {
+        if (upgrades.isEmpty()) return;
+        Flux.fromIterable(upgrades)
+                .flatMap(this::tryUpgrade, concurrency)
+                .blockLast();
+    }
+
+    /**
+     * Entrega a los suscriptores de este nodo los resultados que resolvió otro nodo
+     * (el dueño del shard). Sin suscriptores locales no toca el store.
+     */
+    @Scheduled(fixedDelayString = "${ots.subscriptions.sync-interval:PT10S}")
+    public void syncWatchers() {
+        for (String digest : watchers.keySet()) {
+            Optional<PendingUpgrade> registered = store.upgrade(digest);
+            if (registered.isEmpty()) {
+                // descartado sin que lo viéramos resuelto: cerrar el stream
+                Watcher watcher = watchers.remove(digest);
+                if (watcher != null) watcher.sink.tryEmitComplete();
+            } else if (registered.get().isResolved()) {
+                notifyWatcher(registered.get());
+            }
+        }
+    }
+
+    /** Upgrade en la lane bulk: las rondas de fondo no compiten con los requests interactivos. */
+    private Mono<Void> tryUpgrade(PendingUpgrade upgrade) {
+        if (Instant.now().isAfter(upgrade.registeredAt().plus(ttl))) {
+            complete(upgrade, "EXPIRED", null);
+            return Mono.empty();
+        }
+        return otsService.upgradeInBackground(upgrade.otsBytes())
+                .doOnNext(result -> {
+                    if (result.isUpgraded()) {
+                        complete(upgrade, "UPGRADED", result.getOtsBytes());
+                    }
+                })
+                .onErrorResume(e -> {
+                    logger.warn("Upgrade de .ots pendiente {} falló: {}", upgrade.digest(), e.getMessage());
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    /** Guarda el resultado en el store (queda retenido) y avisa a los suscriptores locales. */
+    private void complete(PendingUpgrade upgrade, String outcome, byte[] resultOts) {
+        Instant now = Instant.now();
+        if (!store.resolveUpgrade(upgrade.digest(), outcome, resultOts, now)) return;
+        logger.info(".ots {} -> {}", upgrade.digest(), outcome);
+        notifyWatcher(upgrade.resolve(outcome, resultOts, now));
+    }
+
+    private void notifyWatcher(PendingUpgrade resolved) {
+        Watcher watcher = watchers.remove(resolved.digest());
+        if (watcher != null) watcher.resolve(eventOf(resolved));
+    }
+
+    private static UpgradeEvent eventOf(PendingUpgrade upgrade) {
+        return new UpgradeEvent(upgrade.outcome(), upgrade.digest(), upgrade.resultOts());
+    }
+
+    Map<String, Watcher> getWatchers() {
+        return watchers;
+    }
+
+    static final class Watcher {
+        // replay().latest(): un suscriptor tardío recibe igual el último evento (ej. UPGRADED)
+        final Sinks.Many<UpgradeEvent> sink = Sinks.many().replay().latest();
+        private boolean resolved;
+
+        Watcher(String digest) {
+            sink.tryEmitNext(new UpgradeEvent("PENDING", digest, null));
+        }
+
+        /** Emite el evento final una sola vez, aunque lo resuelvan dos hilos a la vez. */
+        synchronized void resolve(UpgradeEvent event) {
+            if (resolved) return;
+            resolved = true;
+            sink.tryEmitNext(event);
+            sink.tryEmitComplete();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package trusthub.ots.opentimestamp_poc.tracing;
+
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Spans (Micrometer Observations) para las fases de stamp / upgrade / info / verify.
+ * <p>
+ * Cada observación se exporta como span (bridge OpenTelemetry, exporter según
+ * {@code ots.tracing.exporter}) y además como timer {@code <nombre>} en Micrometer.
+ * El padre se toma del contexto de Reactor, donde WebFlux deja la observación del request
+ * HTTP, así que las fases quedan anidadas bajo el span del endpoint.
+ * </p>
+ * <p>
+ * Convención de atributos: los de baja cardinalidad (cache hit/miss, host del explorer,
+ * resultado) van también a las métricas; tamaños, paths y nombres de archivo son de alta
+ * cardinalidad y solo van al span.
+ * </p>
+ */
+@Component
+public class OtsTracing {
+
+    /** Clave de la observación actual en el contexto de Reactor (ObservationThreadLocalAccessor.KEY). */
+    static final String OBSERVATION_KEY = "micrometer.observation";
+
+    private final ObservationRegistry registry;
+
+    public OtsTracing(ObservationRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Envuelve {@code body} en un span: se crea y arranca al suscribirse, termina con la señal
+     * final del Mono (error incluido) y queda como padre de los spans anidados.
+     *
+     * @param body recibe la observación para agregar atributos antes o después de la fase
+     */
+    public <T> Mono<T> observe(String name, Function<Observation, Mono<T>> body) {
+        return Mono.deferContextual(ctx -> {
+            Observation observation = Observation.createNotStarted(name, registry);
+            Observation parent = ctx.getOrDefault(OBSERVATION_KEY, null);
+            if (parent != null) observation.parentObservation(parent);
+            observation.start();
+            Mono<T> source;
+            try {
+                source = body.apply(observation);
+            } catch (RuntimeException e) {
+                source = Mono.error(e);
+            }
+            return source
+                    .doOnError(observation::error)
+                    .doFinally(signal -> observation.stop())
+                    .contextWrite(c -> c.put(OBSERVATION_KEY, observation));
+        });
+    }
+
+    /** Observación sin arrancar, para fases bloqueantes ({@code observeChecked}). */
+    public Observation observation(String name) {
+        return Observation.createNotStarted(name, registry);
+    }
+}
@@ -0,0 +1,272 @@
+package trusthub.ots.opentimestamp_poc.translog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Log Merkle append-only persistido en disco (estilo Certificate Transparency).
+ * <p>
+ * Archivos dentro del directorio:
+ * <ul>
+ *   <li>{@code entries.bin}: digests de documento (32 bytes c/u), en orden de alta</li>
+ *   <li>{@code level-NN.bin}: hashes de los subárboles completos del nivel NN
+ *       (nivel 0 = hojas; el nodo i del nivel k cubre las hojas [i·2^k, (i+1)·2^k))</li>
+ * </ul>
+ * Un append escribe la hoja y, mientras el índice sea impar, el padre recién completado:
+ * O(log n) escrituras y sin red. Cualquier subárbol alineado se lee con una sola lectura
+ * posicional, así que las pruebas de inclusión y consistencia cuestan O(log n) lecturas.
+ * </p>
+ * <p>
+ * Un solo escritor (los métodos de alta son synchronized); las lecturas son concurrentes y
+ * solo ven entradas ya publicadas en {@link #size()}.
+ * </p>
+ */
+public class MerkleLog implements Closeable {
+
+    private static final int H = MerkleProofs.HASH_SIZE;
+    private static final int MAX_LEVELS = 64;
+
+    private final Path dir;
+    private final FileChannel entries;
+    private final List<FileChannel> levels = new ArrayList<>();
+    private volatile long size;
+
+    public MerkleLog(Path dir) throws IOException {
+        this.dir = dir;
+        Files.createDirectories(dir);
+        this.entries = open(dir.resolve("entries.bin"));
+        recover();
+    }
+
+    /** Cantidad de hojas publicadas. */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Agrega un digest de documento al log.
+     *
+     * @return índice de la hoja
+     */
+    public synchronized long append(byte[] documentDigest) throws IOException {
+        long index = appendNoSync(documentDigest);
+        force();
+        return index;
+    }
+
+    /**
+     * Agrega varios digests con un único fsync al final.
+     *
+     * @return índice de la primera hoja agregada
+     */
+    public synchronized long appendAll(List<byte[]> documentDigests) throws IOException {
+        long first = size;
+        for (byte[] d : documentDigests) appendNoSync(d);
+        force();
+        return first;
+    }
+
+    private long appendNoSync(byte[] documentDigest) throws IOException {
+        if (documentDigest == null || documentDigest.length != H) {
+            throw new IllegalArgumentException("El digest debe tener " + H + " bytes");
+        }
+        long index = size;
+        write(entries, index, documentDigest);
+        byte[] node = MerkleProofs.leafHash(documentDigest);
+        write(level(0), index, node);
+        // sube mientras este nodo cierre un subárbol (es hijo derecho)
+        long i = index;
+        int k = 0;
+        while ((i & 1) == 1) {
+            node = MerkleProofs.nodeHash(read(level(k), i - 1), node);
+            i >>= 1;
+            k++;
+            write(level(k), i, node);
+        }
+        size = index + 1;
+        return index;
+    }
+
+    /** Digest de documento de la hoja {@code index}. */
+    public byte[] entry(long index) throws IOException {
+        checkIndex(index, size);
+        return read(entries, index);
+    }
+
+    /** Hash de la hoja {@code index} (con prefijo 0x00). */
+    public byte[] leafHash(long index) throws IOException {
+        checkIndex(index, size);
+        return read(level(0), index);
+    }
+
+    /** Raíz del árbol con las primeras {@code treeSize} hojas. */
+    public byte[] rootHash(long treeSize) throws IOException {
+        checkSize(treeSize);
+        if (treeSize == 0) return MerkleProofs.emptyRoot();
+        return subtreeHash(0, treeSize);
+    }
+
+    /** Camino de auditoría (hojas → raíz) de la hoja {@code index} en el árbol de tamaño {@code treeSize}. */
+    public List<byte[]> inclusionProof(long index, long treeSize) throws IOException {
+        List<PathStep> steps = inclusionSteps(index, treeSize);
+        List<byte[]> path = new ArrayList<>(steps.size());
+        for (PathStep s : steps) path.add(s.sibling());
+        return path;
+    }
+
+    /**
+     * Igual que {@link #inclusionProof} pero indicando de qué lado está cada hermano
+     * (lo necesita la conversión a operaciones OTS).
+     */
+    public List<PathStep> inclusionSteps(long index, long treeSize) throws IOException {
+        checkSize(treeSize);
+        checkIndex(index, treeSize);
+        List<PathStep> out = new ArrayList<>();
+        path(index, 0, treeSize, out);
+        return out;
+    }
+
+    /** Prueba de consistencia entre los árboles de tamaño {@code firstSize} y {@code secondSize}. */
+    public List<byte[]> consistencyProof(long firstSize, long secondSize) throws IOException {
+        checkSize(secondSize);
+        if (firstSize < 0 || firstSize > secondSize) {
+            throw new IllegalArgumentException("Tamaños inválidos: " + firstSize + " > " + secondSize);
+        }
+        List<byte[]> out = new ArrayList<>();
+        if (firstSize > 0 && firstSize < secondSize) subproof(firstSize, 0, secondSize, true, out);
+        return out;
+    }
+
+    /** Hermano en el camino de auditoría; {@code left} = el hermano va a la izquierda. */
+    public record PathStep(byte[] sibling, boolean left) { }
+
+    // ----------------- RFC 6962 §2.1 sobre rangos [start, end) -----------------
+
+    private void path(long m, long start, long end, List<PathStep> out) throws IOException {
+        long n = end - start;
+        if (n == 1) return;
+        long k = MerkleProofs.splitPoint(n);
+        if (m < k) {
+            path(m, start, start + k, out);
+            out.add(new PathStep(subtreeHash(start + k, end), false));
+        } else {
+            path(m - k, start + k, end, out);
+            out.add(new PathStep(subtreeHash(start, start + k), true));
+        }
+    }
+
+    private void subproof(long m, long start, long end, boolean complete, List<byte[]> out) throws IOException {
+        long n = end - start;
+        if (m == n) {
+            if (!complete) out.add(subtreeHash(start, end));
+            return;
+        }
+        long k = MerkleProofs.splitPoint(n);
+        if (m <= k) {
+            subproof(m, start, start + k, complete, out);
+            out.add(subtreeHash(start + k, end));
+        } else {
+            subproof(m - k, start + k, end, false, out);
+            out.add(subtreeHash(start, start + k));
+        }
+    }
+
+    /** MTH(D[start:end]): los subárboles alineados de tamaño 2^k salen directo del nivel k. */
+    private byte[] subtreeHash(long start, long end) throws IOException {
+        long n = end - start;
+        if (Long.bitCount(n) == 1 && start % n == 0) {
+            int k = Long.numberOfTrailingZeros(n);
+            return read(level(k), start >> k);
+        }
+        long k = MerkleProofs.splitPoint(n);
+        return MerkleProofs.nodeHash(subtreeHash(start, start + k), subtreeHash(start + k, end));
+    }
+
+    // ----------------- Persistencia -----------------
+
+    /**
+     * Deja los archivos consistentes tras un corte a mitad de un append: el tamaño es el
+     * mínimo entre entradas y hojas, y los niveles superiores se truncan o completan.
+     */
+    private void recover() throws IOException {
+        long n = Math.min(entries.size() / H, level(0).size() / H);
+        entries.truncate(n * H);
+        level(0).truncate(n * H);
+        for (int k = 1; (n >> k) > 0; k++) {
+            FileChannel ch = level(k);
+            long expected = n >> k;
+            long actual = Math.min(ch.size() / H, expected);
+            ch.truncate(actual * H);
+            for (long i = actual; i < expected; i++) {
+                write(ch, i, MerkleProofs.nodeHash(read(level(k - 1), 2 * i), read(level(k - 1), 2 * i + 1)));
+            }
+        }
+        size = n;
+    }
+
+    private FileChannel level(int k) throws IOException {
+        if (k >= MAX_LEVELS) throw new IllegalStateException("Nivel fuera de rango: " + k);
+        synchronized (levels) {
+            while (levels.size() <= k) {
+                levels.add(open(dir.resolve(String.format("level-%02d.bin", levels.size()))));
+            }
+            return levels.get(k);
+        }
+    }
+
+    private void force() throws IOException {
+        entries.force(false);
+        synchronized (levels) {
+            for (FileChannel ch : levels) ch.force(false);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void write(FileChannel ch, long slot, byte[] hash) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(hash);
+        long pos = slot * H;
+        while (buf.hasRemaining()) pos += ch.write(buf, pos);
+    }
+
+    private static byte[] read(FileChannel ch, long slot) throws IOException {
+        byte[] out = new byte[H];
+        ByteBuffer buf = ByteBuffer.wrap(out);
+        long pos = slot * H;
+        while (buf.hasRemaining()) {
+            int r = ch.read(buf, pos);
+            if (r < 0) throw new IOException("Log Merkle truncado en slot " + slot);
+            pos += r;
+        }
+        return out;
+    }
+
+    private void checkSize(long treeSize) {
+        if (treeSize < 0 || treeSize > size) {
+            throw new IllegalArgumentException("tree_size fuera de rango: " + treeSize + " (tamaño actual " + size + ")");
+        }
+    }
+
+    private static void checkIndex(long index, long treeSize) {
+        if (index < 0 || index >= treeSize) {
+            throw new IllegalArgumentException("Índice fuera de rango: " + index + " (tree_size " + treeSize + ")");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        entries.close();
+        synchronized (levels) {
+            for (FileChannel ch : levels) ch.close();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package trusthub.ots.opentimestamp_poc.translog;
+
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.List;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Hashing y verificación de pruebas del árbol Merkle del log (RFC 6962 / RFC 9162).
+ * <p>
+ * Hoja = SHA-256(0x00 ‖ digest del documento), nodo interno = SHA-256(0x01 ‖ izq ‖ der).
+ * Los prefijos distintos evitan que una hoja pueda hacerse pasar por un nodo interno.
+ * </p>
+ */
+public final class MerkleProofs {
+
+    public static final int HASH_SIZE = 32;
+
+    private static final byte LEAF_PREFIX = 0x00;
+    private static final byte NODE_PREFIX = 0x01;
+
+    private MerkleProofs() { }
+
+    public static byte[] leafHash(byte[] documentDigest) {
+        MessageDigest md = HashUtil.newSha256();
+        md.update(LEAF_PREFIX);
+        md.update(documentDigest);
+        return md.digest();
+    }
+
+    public static byte[] nodeHash(byte[] left, byte[] right) {
+        MessageDigest md = HashUtil.newSha256();
+        md.update(NODE_PREFIX);
+        md.update(left);
+        md.update(right);
+        return md.digest();
+    }
+
+    /** Raíz del árbol vacío: SHA-256 de la cadena vacía. */
+    public static byte[] emptyRoot() {
+        return HashUtil.newSha256().digest();
+    }
+
+    /** Mayor potencia de 2 estrictamente menor que n (n &gt; 1). */
+    static long splitPoint(long n) {
+        return Long.highestOneBit(n - 1);
+    }
+
+    /**
+     * Recalcula la raíz a partir de una prueba de inclusión (RFC 9162, 2.1.3.2).
+     *
+     * @return la raíz, o null si la prueba no tiene la forma esperada para (index, treeSize)
+     */
+    public static byte[] rootFromInclusionProof(long index, long treeSize, byte[] leafHash, List<byte[]> path) {
+        if (index < 0 || index >= treeSize) return null;
+        long fn = index;
+        long sn = treeSize - 1;
+        byte[] r = leafHash;
+        for (byte[] p : path) {
+            if (sn == 0) return null;
+            if ((fn & 1) == 1 || fn == sn) {
+                r = nodeHash(p, r);
+                if ((fn & 1) == 0) {
+                    while ((fn & 1) == 0 && fn != 0) {
+                        fn >>= 1;
+                        sn >>= 1;
+                    }
+                }
+            } else {
+                r = nodeHash(r, p);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 ? r : null;
+    }
+
+    public static boolean verifyInclusion(long index, long treeSize, byte[] leafHash, List<byte[]> path, byte[] root) {
+        byte[] computed = rootFromInclusionProof(index, treeSize, leafHash, path);
+        return computed != null && Arrays.equals(computed, root);
+    }
+
+    /**
+     * Verifica que el árbol de tamaño {@code secondSize} extiende al de {@code firstSize}
+     * (RFC 9162, 2.1.4.2).
+     */
+    public static boolean verifyConsistency(long firstSize, long secondSize, byte[] firstRoot, byte[] secondRoot, List<byte[]> proof) {
+        if (firstSize < 0 || firstSize > secondSize) return false;
+        if (firstSize == secondSize) return proof.isEmpty() && Arrays.equals(firstRoot, secondRoot);
+        if (firstSize == 0) return proof.isEmpty();
+        if (proof.isEmpty()) return false;
+
+        int i = 0;
+        boolean firstIsPowerOfTwo = Long.bitCount(firstSize) == 1;
+        byte[] start = firstIsPowerOfTwo ? firstRoot : proof.get(i++);
+        long fn = firstSize - 1;
+        long sn = secondSize - 1;
+        while ((fn & 1) == 1) {
+            fn >>= 1;
+            sn >>= 1;
+        }
+        byte[] fr = start;
+        byte[] sr = start;
+        for (; i < proof.size(); i++) {
+            byte[] c = proof.get(i);
+            if (sn == 0) return false;
+            if ((fn & 1) == 1 || fn == sn) {
+                fr = nodeHash(c, fr);
+                sr = nodeHash(c, sr);
+                if ((fn & 1) == 0) {
+                    while ((fn & 1) == 0 && fn != 0) {
+                        fn >>= 1;
+                        sn >>= 1;
+                    }
+                }
+            } else {
+                sr = nodeHash(sr, c);
+            }
+            fn >>= 1;
+            sn >>= 1;
+        }
+        return sn == 0 && Arrays.equals(fr, firstRoot) && Arrays.equals(sr, secondRoot);
+    }
+}
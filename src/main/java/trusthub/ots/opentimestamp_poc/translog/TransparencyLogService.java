@@ -0,0 +1,176 @@
+package trusthub.ots.opentimestamp_poc.translog;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eternitywall.ots.DetachedTimestampFile;
+import com.eternitywall.ots.OpenTimestamps;
+import com.eternitywall.ots.Timestamp;
+import com.eternitywall.ots.op.OpAppend;
+import com.eternitywall.ots.op.OpPrepend;
+import com.eternitywall.ots.op.OpSHA256;
+
+import jakarta.annotation.PreDestroy;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Log de transparencia: los digests de documento se agregan a un {@link MerkleLog} local
+ * (sin red) y una vez por época se timestampea solo la raíz con OpenTimestamps.
+ * <p>
+ * Cada época queda guardada como {@code epochs/<tree_size>.ots} (el .ots de la raíz del árbol
+ * con ese tamaño). El .ots standalone de un documento se arma encadenando su camino de
+ * inclusión como operaciones OTS (prepend/append + sha256) hasta la raíz y pegando ahí el
+ * timestamp de la primera época que lo incluye, así que se verifica/upgradea como cualquier .ots.
+ * </p>
+ */
+@Service
+public class TransparencyLogService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransparencyLogService.class);
+
+    private static final byte[] LEAF_PREFIX = {0x00};
+    private static final byte[] NODE_PREFIX = {0x01};
+
+    private final MerkleLog log;
+    private final Path epochDir;
+    /** tree_size anclado -> bytes del .ots de la raíz. */
+    private final ConcurrentSkipListMap<Long, byte[]> epochs = new ConcurrentSkipListMap<>();
+
+    public TransparencyLogService(@Value("${ots.log.dir:./data/translog}") Path dir) {
+        try {
+            this.log = new MerkleLog(dir.resolve("tree"));
+            this.epochDir = Files.createDirectories(dir.resolve("epochs"));
+            loadEpochs();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el log de transparencia en " + dir, e);
+        }
+        logger.info("Log de transparencia: {} entradas, {} épocas ancladas", log.size(), epochs.size());
+    }
+
+    /** Cabeza firmable del log: tamaño y raíz. */
+    public record TreeHead(long treeSize, byte[] rootHash) { }
+
+    /** Agrega digests (SHA-256 de documento) al log; devuelve el índice de la primera hoja. */
+    public long append(List<byte[]> documentDigests) throws IOException {
+        return log.appendAll(documentDigests);
+    }
+
+    public TreeHead head() throws IOException {
+        long n = log.size();
+        return new TreeHead(n, log.rootHash(n));
+    }
+
+    /** Tamaño del último árbol anclado (0 si todavía no hay épocas). */
+    public long anchoredSize() {
+        Long last = epochs.isEmpty() ? null : epochs.lastKey();
+        return last != null ? last : 0;
+    }
+
+    public List<byte[]> inclusionProof(long index, long treeSize) throws IOException {
+        return log.inclusionProof(index, treeSize);
+    }
+
+    public List<byte[]> consistencyProof(long firstSize, long secondSize) throws IOException {
+        return log.consistencyProof(firstSize, secondSize);
+    }
+
+    /**
+     * .ots standalone del documento en la hoja {@code index}: camino de inclusión hasta la raíz
+     * de la primera época que contiene la hoja + timestamp de esa época.
+     *
+     * @throws IllegalStateException si la hoja todavía no fue anclada
+     */
+    public byte[] standaloneOts(long index) throws Exception {
+        Map.Entry<Long, byte[]> epoch = epochs.higherEntry(index);
+        if (epoch == null) {
+            throw new IllegalStateException("La entrada " + index + " todavía no fue anclada (próxima época pendiente)");
+        }
+        long treeSize = epoch.getKey();
+        DetachedTimestampFile epochOts = DetachedTimestampFile.deserialize(epoch.getValue());
+
+        byte[] digest = log.entry(index);
+        Timestamp root = new Timestamp(digest);
+        Timestamp t = root.add(new OpPrepend(LEAF_PREFIX)).add(new OpSHA256());
+        for (MerkleLog.PathStep step : log.inclusionSteps(index, treeSize)) {
+            t = step.left()
+                    ? t.add(new OpPrepend(step.sibling()))
+                    : t.add(new OpAppend(step.sibling()));
+            t = t.add(new OpPrepend(NODE_PREFIX)).add(new OpSHA256());
+        }
+        t.merge(epochOts.getTimestamp());
+        return new DetachedTimestampFile(new OpSHA256(), root).serialize();
+    }
+
+    /**
+     * Ancla la cabeza actual (si creció desde la última época) y reintenta el upgrade de
+     * las épocas que todavía no tienen attestation de Bitcoin.
+     */
+    @Scheduled(initialDelayString = "${ots.log.anchor-interval:PT1H}", fixedDelayString = "${ots.log.anchor-interval:PT1H}")
+    public void anchor() {
+        try {
+            TreeHead head = head();
+            if (head.treeSize() > anchoredSize()) {
+                DetachedTimestampFile detached = new DetachedTimestampFile(new OpSHA256(), new Timestamp(head.rootHash()));
+                OpenTimestamps.stamp(detached);
+                saveEpoch(head.treeSize(), detached.serialize());
+                logger.info("Época anclada: tree_size={} root={}", head.treeSize(), HashUtil.bytesToHex(head.rootHash()));
+            }
+        } catch (Exception e) {
+            logger.warn("No se pudo anclar la cabeza del log (se reintenta en la próxima ronda): {}", e.getMessage());
+        }
+        upgradePendingEpochs();
+    }
+
+    private void upgradePendingEpochs() {
+        for (Map.Entry<Long, byte[]> epoch : epochs.entrySet()) {
+            try {
+                DetachedTimestampFile detached = DetachedTimestampFile.deserialize(epoch.getValue());
+                if (detached.getTimestamp().isTimestampComplete()) continue;
+                if (OpenTimestamps.upgrade(detached)) {
+                    saveEpoch(epoch.getKey(), detached.serialize());
+                    logger.info("Época tree_size={} con upgrade", epoch.getKey());
+                }
+            } catch (Exception e) {
+                logger.debug("Upgrade de época tree_size={} falló: {}", epoch.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private void saveEpoch(long treeSize, byte[] otsBytes) throws IOException {
+        Path target = epochDir.resolve(treeSize + ".ots");
+        Path tmp = epochDir.resolve(treeSize + ".ots.tmp");
+        Files.write(tmp, otsBytes);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        epochs.put(treeSize, otsBytes);
+    }
+
+    private void loadEpochs() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(epochDir, "*.ots")) {
+            for (Path f : files) {
+                String name = f.getFileName().toString();
+                try {
+                    long treeSize = Long.parseLong(name.substring(0, name.length() - ".ots".length()));
+                    if (treeSize <= log.size()) epochs.put(treeSize, Files.readAllBytes(f));
+                } catch (NumberFormatException ignored) { }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        log.close();
+    }
+}
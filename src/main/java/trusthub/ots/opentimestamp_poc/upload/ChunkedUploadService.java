@@ -0,0 +1,216 @@
+package trusthub.ots.opentimestamp_poc.upload;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+import trusthub.ots.opentimestamp_poc.util.Sha256Midstate;
+
+/**
+ * Uploads reanudables por chunks para documentos grandes.
+ * <p>
+ * El cliente abre una sesión y manda los chunks en orden, cada uno con el offset en el que
+ * empieza. El servidor solo avanza el SHA-256 de la sesión ({@link Sha256Midstate}) y lo persiste
+ * ({@link UploadSessionStore}) al aceptar cada chunk: el documento no se guarda, la memoria por
+ * sesión es constante y un reinicio no pierde lo ya recibido. Al cerrar la sesión se sella el
+ * digest final como en un stamp normal.
+ * </p>
+ * <ul>
+ *   <li>Un chunk con offset distinto al de la sesión se rechaza ({@link OffsetMismatchException}):
+ *       el cliente consulta el offset y reanuda desde ahí.</li>
+ *   <li>Un chunk cortado a la mitad no avanza la sesión (el estado en disco sigue siendo el del
+ *       último chunk completo) y se reenvía entero.</li>
+ *   <li>Una operación a la vez por sesión (chunk o cierre).</li>
+ * </ul>
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private final UploadSessionStore store;
+    private final OpenTimestampsService otsService;
+    private final ExecutionLanes lanes;
+    private final long maxChunkBytes;
+    private final Duration ttl;
+    /** Sesiones con un chunk en curso. */
+    private final Set<String> busy = ConcurrentHashMap.newKeySet();
+
+    public ChunkedUploadService(UploadSessionStore store,
+                                OpenTimestampsService otsService,
+                                ExecutionLanes lanes,
+                                @Value("${ots.upload.max-chunk-size:64MB}") DataSize maxChunkSize,
+                                @Value("${ots.upload.ttl:24h}") Duration ttl) {
+        this.store = store;
+        this.otsService = otsService;
+        this.lanes = lanes;
+        this.maxChunkBytes = maxChunkSize.toBytes();
+        this.ttl = ttl;
+    }
+
+    /** El offset recibido no es el de la sesión. */
+    public static class OffsetMismatchException extends IllegalStateException {
+        private static final long serialVersionUID = 1L;
+
+        private final long expected;
+
+        public OffsetMismatchException(long expected, long received) {
+            super("Offset " + received + " inválido: la sesión espera " + expected);
+            this.expected = expected;
+        }
+
+        public long expected() {
+            return expected;
+        }
+    }
+
+    /** El estado del hash persistido de la sesión no se puede restaurar (archivo dañado). */
+    public static class CorruptSessionException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public CorruptSessionException(String id, Throwable cause) {
+            super("El estado de la sesión de upload " + id + " está dañado", cause);
+        }
+    }
+
+    /** Sellado de una sesión terminada. */
+    public record FinishedUpload(UploadSession session, byte[] digest, byte[] ots) { }
+
+    public Mono<UploadSession> create(String filename) {
+        return Mono.fromCallable(() -> store.create(filename)).subscribeOn(lanes.io());
+    }
+
+    /**
+     * Vacío si la sesión no existe o venció.
+     *
+     * @throws CorruptSessionException si el archivo de la sesión no se puede interpretar
+     */
+    public Mono<UploadSession> find(String id) {
+        return Mono.fromCallable(() -> store.find(id)).subscribeOn(lanes.io())
+                .onErrorMap(e -> e instanceof IllegalArgumentException || e instanceof NullPointerException,
+                        e -> new CorruptSessionException(id, e))
+                .flatMap(Mono::justOrEmpty);
+    }
+
+    /**
+     * Agrega un chunk que empieza en {@code offset}. Los buffers se digieren en la lane cpu a
+     * medida que llegan y se liberan; el estado se persiste recién con el chunk completo.
+     * La sesión se reserva antes de leerla, así dos chunks concurrentes no parten del mismo estado.
+     *
+     * @return la sesión con el offset nuevo; vacío si no existe
+     * @throws OffsetMismatchException (como error del Mono) si {@code offset} no es el de la sesión
+     * @throws IllegalStateException   si ya hay un chunk o un cierre en curso para la sesión
+     * @throws IllegalArgumentException si el chunk supera {@code ots.upload.max-chunk-size}
+     * @throws CorruptSessionException si el estado persistido no es válido
+     */
+    public Mono<UploadSession> append(String id, long offset, Flux<DataBuffer> chunk) {
+        return claim(id, find(id).flatMap(session -> {
+            Sha256Midstate state = restore(session);
+            if (state.byteCount() != offset) {
+                return Mono.error(new OffsetMismatchException(state.byteCount(), offset));
+            }
+            long start = state.byteCount();
+            return chunk
+                    .publishOn(lanes.cpu())
+                    .reduce(state, (s, buffer) -> {
+                        try (DataBuffer.ByteBufferIterator it = buffer.readableByteBuffers()) {
+                            while (it.hasNext()) s.update(it.next());
+                        } finally {
+                            DataBufferUtils.release(buffer);
+                        }
+                        if (s.byteCount() - start > maxChunkBytes) {
+                            throw new IllegalArgumentException("El chunk supera " + maxChunkBytes + " bytes");
+                        }
+                        return s;
+                    })
+                    .doOnDiscard(DataBuffer.class, DataBufferUtils::release)
+                    .publishOn(lanes.io())
+                    .map(s -> {
+                        UploadSession next = new UploadSession(id, session.filename(), session.createdAtMillis(),
+                                System.currentTimeMillis(), s.export());
+                        try {
+                            store.save(next);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return next;
+                    });
+        }));
+    }
+
+    /**
+     * Cierra la sesión: sella el SHA-256 de todo lo recibido y borra la sesión. Reserva la sesión
+     * igual que {@link #append}, así un chunk no puede entrar entre el sellado y el borrado.
+     *
+     * @return vacío si la sesión no existe
+     * @throws IllegalStateException   si hay un chunk en curso para la sesión
+     * @throws CorruptSessionException si el estado persistido no es válido
+     */
+    public Mono<FinishedUpload> finish(String id) {
+        return claim(id, find(id).flatMap(session -> {
+            byte[] digest = restore(session).digest();
+            return otsService.stampDigestsReactive(List.of(digest))
+                    .map(proofs -> new FinishedUpload(session, digest, proofs.get(0)))
+                    .flatMap(done -> Mono.fromCallable(() -> {
+                        store.delete(id);
+                        return done;
+                    }).subscribeOn(lanes.io()));
+        }));
+    }
+
+    /** Ejecuta {@code work} con la sesión reservada; se libera al terminar, fallar o cancelarse. */
+    private <T> Mono<T> claim(String id, Mono<T> work) {
+        return Mono.defer(() -> {
+            if (!busy.add(id)) {
+                return Mono.error(new IllegalStateException("Ya hay una operación en curso para la sesión " + id));
+            }
+            // se libera antes de propagar el resultado: un reintento inmediato del cliente no ve la sesión ocupada
+            return work.doOnTerminate(() -> busy.remove(id)).doOnCancel(() -> busy.remove(id));
+        });
+    }
+
+    private static Sha256Midstate restore(UploadSession session) {
+        try {
+            return Sha256Midstate.restore(session.hashState());
+        } catch (IllegalArgumentException e) {
+            throw new CorruptSessionException(session.id(), e);
+        }
+    }
+
+    public Mono<Void> cancel(String id) {
+        return claim(id, Mono.fromRunnable(() -> {
+            try {
+                store.delete(id);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }).subscribeOn(lanes.io()).then());
+    }
+
+    /** Borra sesiones sin actividad por más de {@code ots.upload.ttl}. */
+    @Scheduled(fixedDelayString = "${ots.upload.cleanup-interval:PT1H}", initialDelayString = "${ots.upload.cleanup-interval:PT1H}")
+    public void expire() {
+        try {
+            int removed = store.expire(System.currentTimeMillis() - ttl.toMillis());
+            if (removed > 0) logger.info("Uploads vencidos borrados: {}", removed);
+        } catch (Exception e) {
+            logger.warn("No se pudieron vencer los uploads: {}", e.getMessage());
+        }
+    }
+}
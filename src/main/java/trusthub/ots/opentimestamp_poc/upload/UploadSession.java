@@ -0,0 +1,20 @@
+package trusthub.ots.opentimestamp_poc.upload;
+
+import trusthub.ots.opentimestamp_poc.util.Sha256Midstate;
+
+/**
+ * Sesión de upload por chunks: solo el estado SHA-256 de lo recibido, nunca el documento.
+ *
+ * @param id              id opaco (UUID)
+ * @param filename        nombre del documento (para el .ots de salida; puede ser null)
+ * @param createdAtMillis creación
+ * @param updatedAtMillis último chunk aceptado (las sesiones vencen por inactividad)
+ * @param hashState       {@link Sha256Midstate#export()} de los bytes recibidos
+ */
+public record UploadSession(String id, String filename, long createdAtMillis, long updatedAtMillis, byte[] hashState) {
+
+    /** Bytes recibidos hasta ahora = offset del próximo chunk. */
+    public long offset() {
+        return Sha256Midstate.restore(hashState).byteCount();
+    }
+}
@@ -0,0 +1,126 @@
+package trusthub.ots.opentimestamp_poc.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+import trusthub.ots.opentimestamp_poc.util.Sha256Midstate;
+
+/**
+ * Sesiones de upload persistidas en disco, un archivo chico por sesión ({@code <id>.session}),
+ * así un reinicio no pierde los uploads en curso.
+ * <p>
+ * Formato (java.util.Properties):
+ * <pre>
+ * filename=&lt;nombre del documento&gt;
+ * createdAt=&lt;epoch ms&gt;
+ * updatedAt=&lt;epoch ms&gt;
+ * state=&lt;midstate SHA-256 en hex&gt;
+ * </pre>
+ * Cada escritura va a un temporal con fsync y se renombra con ATOMIC_MOVE: una sesión en disco
+ * siempre es un estado completo (el del último chunk aceptado).
+ * </p>
+ */
+@Component
+public class UploadSessionStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionStore.class);
+
+    private static final Pattern ID = Pattern.compile("[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final String SUFFIX = ".session";
+
+    private final Path dir;
+
+    public UploadSessionStore(@Value("${ots.upload.dir:./data/uploads}") Path dir) {
+        this.dir = dir;
+        try {
+            Files.createDirectories(dir);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo crear el directorio de uploads " + dir, e);
+        }
+    }
+
+    public UploadSession create(String filename) throws IOException {
+        long now = System.currentTimeMillis();
+        UploadSession session = new UploadSession(UUID.randomUUID().toString(), filename, now, now, new Sha256Midstate().export());
+        save(session);
+        return session;
+    }
+
+    /** Vacío si no existe (o si el id no tiene forma de id: no se arma un path con él). */
+    public Optional<UploadSession> find(String id) throws IOException {
+        if (id == null || !ID.matcher(id).matches()) return Optional.empty();
+        Path file = dir.resolve(id + SUFFIX);
+        if (!Files.exists(file)) return Optional.empty();
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        }
+        return Optional.of(new UploadSession(id, props.getProperty("filename"),
+                Long.parseLong(props.getProperty("createdAt")),
+                Long.parseLong(props.getProperty("updatedAt")),
+                HexFormat.of().parseHex(props.getProperty("state"))));
+    }
+
+    public void save(UploadSession session) throws IOException {
+        Properties props = new Properties();
+        if (session.filename() != null) props.setProperty("filename", session.filename());
+        props.setProperty("createdAt", String.valueOf(session.createdAtMillis()));
+        props.setProperty("updatedAt", String.valueOf(session.updatedAtMillis()));
+        props.setProperty("state", HashUtil.bytesToHex(session.hashState()));
+        Path target = dir.resolve(session.id() + SUFFIX);
+        Path tmp = dir.resolve(session.id() + SUFFIX + ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, null);
+        }
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            ch.force(true);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    public void delete(String id) throws IOException {
+        if (id != null && ID.matcher(id).matches()) Files.deleteIfExists(dir.resolve(id + SUFFIX));
+    }
+
+    /** Borra las sesiones sin chunks desde antes de {@code cutoffMillis}. */
+    public int expire(long cutoffMillis) throws IOException {
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String id = name.substring(0, name.length() - SUFFIX.length());
+                try {
+                    Optional<UploadSession> s = find(id);
+                    if (s.isPresent() && s.get().updatedAtMillis() < cutoffMillis) {
+                        delete(id);
+                        removed++;
+                    }
+                } catch (RuntimeException e) {
+                    logger.warn("Sesión de upload ilegible {}, se borra: {}", file, e.getMessage());
+                    Files.deleteIfExists(file);
+                    removed++;
+                }
+            }
+        }
+        return removed;
+    }
+}
@@ -1,15 +1,23 @@
 package trusthub.ots.opentimestamp_poc.util;
 
 import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 
 public class HashUtil {
-    public static String sha256Hex(byte[] data) throws Exception {
-        MessageDigest md = MessageDigest.getInstance("SHA-256");
-        byte[] digest = md.digest(data);
-        return bytesToHex(digest);
+    public static String sha256Hex(byte[] data) {
+        return bytesToHex(newSha256().digest(data));
     }
 
-    private static String bytesToHex(byte[] bytes) {
+    /** SHA-256 siempre está disponible en la JVM; se evita el checked exception en los llamadores. */
+    public static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    public static String bytesToHex(byte[] bytes) {
         StringBuilder sb = new StringBuilder(bytes.length * 2);
         for (byte b : bytes) {
             sb.append(String.format("%02x", b & 0xff));
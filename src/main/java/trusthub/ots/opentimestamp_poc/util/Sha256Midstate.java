@@ -0,0 +1,191 @@
+package trusthub.ots.opentimestamp_poc.util;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * SHA-256 (FIPS 180-4) con estado interno exportable.
+ * <p>
+ * {@link java.security.MessageDigest} no deja sacar el estado intermedio (solo {@code clone()} en
+ * memoria), así que un hash no puede sobrevivir a un reinicio ni continuarse más tarde. Esta clase
+ * produce el mismo digest que {@code MessageDigest.getInstance("SHA-256")} y además
+ * {@link #export()} / {@link #restore(byte[])} el midstate: los 8 registros, la cantidad de bytes
+ * procesados y el bloque parcial pendiente (menos de 64 bytes). Se usa para uploads por chunks y
+ * para re-stamps incrementales de archivos que solo crecen.
+ * </p>
+ * No es thread-safe.
+ */
+public final class Sha256Midstate {
+
+    /** Tamaño máximo de {@link #export()}: versión + 8 registros + contador + largo del parcial + parcial. */
+    public static final int MAX_EXPORT_SIZE = 1 + 32 + 8 + 1 + 63;
+
+    private static final byte EXPORT_VERSION = 1;
+
+    private static final int[] K = {
+            0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1, 0x923f82a4, 0xab1c5ed5,
+            0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3, 0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174,
+            0xe49b69c1, 0xefbe4786, 0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+            0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147, 0x06ca6351, 0x14292967,
+            0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13, 0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85,
+            0xa2bfe8a1, 0xa81a664b, 0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+            0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a, 0x5b9cca4f, 0x682e6ff3,
+            0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208, 0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+    };
+
+    private static final int[] IV = {
+            0x6a09e667, 0xbb67ae85, 0x3c6ef372, 0xa54ff53a, 0x510e527f, 0x9b05688c, 0x1f83d9ab, 0x5be0cd19
+    };
+
+    private final int[] h = IV.clone();
+    private final int[] w = new int[64];
+    private final byte[] block = new byte[64];
+    private int blockLen;
+    private long byteCount;
+
+    public Sha256Midstate() { }
+
+    /** Bytes procesados hasta ahora. */
+    public long byteCount() {
+        return byteCount;
+    }
+
+    public void update(byte[] data) {
+        update(data, 0, data.length);
+    }
+
+    public void update(byte[] data, int off, int len) {
+        byteCount += len;
+        if (blockLen > 0) {
+            int n = Math.min(len, 64 - blockLen);
+            System.arraycopy(data, off, block, blockLen, n);
+            blockLen += n;
+            off += n;
+            len -= n;
+            if (blockLen < 64) return;
+            compress(block, 0);
+            blockLen = 0;
+        }
+        while (len >= 64) {
+            compress(data, off);
+            off += 64;
+            len -= 64;
+        }
+        System.arraycopy(data, off, block, 0, len);
+        blockLen = len;
+    }
+
+    public void update(ByteBuffer data) {
+        if (data.hasArray()) {
+            update(data.array(), data.arrayOffset() + data.position(), data.remaining());
+            data.position(data.limit());
+            return;
+        }
+        byte[] chunk = new byte[Math.min(data.remaining(), 8192)];
+        while (data.hasRemaining()) {
+            int n = Math.min(chunk.length, data.remaining());
+            data.get(chunk, 0, n);
+            update(chunk, 0, n);
+        }
+    }
+
+    /** Digest de lo procesado hasta ahora. No modifica el estado: se puede seguir actualizando. */
+    public byte[] digest() {
+        Sha256Midstate copy = copy();
+        return copy.finish();
+    }
+
+    public Sha256Midstate copy() {
+        Sha256Midstate c = new Sha256Midstate();
+        System.arraycopy(h, 0, c.h, 0, 8);
+        System.arraycopy(block, 0, c.block, 0, blockLen);
+        c.blockLen = blockLen;
+        c.byteCount = byteCount;
+        return c;
+    }
+
+    /** Estado serializado (a lo sumo {@link #MAX_EXPORT_SIZE} bytes). */
+    public byte[] export() {
+        ByteBuffer out = ByteBuffer.allocate(1 + 32 + 8 + 1 + blockLen);
+        out.put(EXPORT_VERSION);
+        for (int v : h) out.putInt(v);
+        out.putLong(byteCount);
+        out.put((byte) blockLen);
+        out.put(block, 0, blockLen);
+        return out.array();
+    }
+
+    /**
+     * Reconstruye un estado exportado con {@link #export()}.
+     *
+     * @throws IllegalArgumentException si los bytes no son un estado válido
+     */
+    public static Sha256Midstate restore(byte[] exported) {
+        if (exported == null || exported.length < 1 + 32 + 8 + 1 || exported[0] != EXPORT_VERSION) {
+            throw new IllegalArgumentException("Estado SHA-256 inválido");
+        }
+        ByteBuffer in = ByteBuffer.wrap(exported);
+        in.get();
+        Sha256Midstate s = new Sha256Midstate();
+        for (int i = 0; i < 8; i++) s.h[i] = in.getInt();
+        s.byteCount = in.getLong();
+        s.blockLen = in.get() & 0xff;
+        if (s.byteCount < 0 || s.blockLen > 63 || s.blockLen != (int) (s.byteCount % 64) || in.remaining() != s.blockLen) {
+            throw new IllegalArgumentException("Estado SHA-256 inválido");
+        }
+        in.get(s.block, 0, s.blockLen);
+        return s;
+    }
+
+    // -------------------- interno --------------------
+
+    private byte[] finish() {
+        long bits = byteCount * 8;
+        block[blockLen++] = (byte) 0x80;
+        if (blockLen > 56) {
+            Arrays.fill(block, blockLen, 64, (byte) 0);
+            compress(block, 0);
+            blockLen = 0;
+        }
+        Arrays.fill(block, blockLen, 56, (byte) 0);
+        for (int i = 0; i < 8; i++) block[56 + i] = (byte) (bits >>> (56 - 8 * i));
+        compress(block, 0);
+        ByteBuffer out = ByteBuffer.allocate(32);
+        for (int v : h) out.putInt(v);
+        return out.array();
+    }
+
+    private void compress(byte[] data, int off) {
+        for (int t = 0; t < 16; t++, off += 4) {
+            w[t] = (data[off] << 24) | ((data[off + 1] & 0xff) << 16) | ((data[off + 2] & 0xff) << 8) | (data[off + 3] & 0xff);
+        }
+        for (int t = 16; t < 64; t++) {
+            int s0 = Integer.rotateRight(w[t - 15], 7) ^ Integer.rotateRight(w[t - 15], 18) ^ (w[t - 15] >>> 3);
+            int s1 = Integer.rotateRight(w[t - 2], 17) ^ Integer.rotateRight(w[t - 2], 19) ^ (w[t - 2] >>> 10);
+            w[t] = w[t - 16] + s0 + w[t - 7] + s1;
+        }
+        int a = h[0], b = h[1], c = h[2], d = h[3], e = h[4], f = h[5], g = h[6], hh = h[7];
+        for (int t = 0; t < 64; t++) {
+            int t1 = hh + (Integer.rotateRight(e, 6) ^ Integer.rotateRight(e, 11) ^ Integer.rotateRight(e, 25))
+                    + ((e & f) ^ (~e & g)) + K[t] + w[t];
+            int t2 = (Integer.rotateRight(a, 2) ^ Integer.rotateRight(a, 13) ^ Integer.rotateRight(a, 22))
+                    + ((a & b) ^ (a & c) ^ (b & c));
+            hh = g;
+            g = f;
+            f = e;
+            e = d + t1;
+            d = c;
+            c = b;
+            b = a;
+            a = t1 + t2;
+        }
+        h[0] += a;
+        h[1] += b;
+        h[2] += c;
+        h[3] += d;
+        h[4] += e;
+        h[5] += f;
+        h[6] += g;
+        h[7] += hh;
+    }
+}
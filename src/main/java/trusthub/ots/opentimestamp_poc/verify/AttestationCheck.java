@@ -0,0 +1,27 @@
+package trusthub.ots.opentimestamp_poc.verify;
+
+/**
+ * Resultado de verificar una attestation de Bitcoin contra el bloque real.
+ *
+ * @param block_height altura declarada por la attestation
+ * @param block_hash   hash del bloque a esa altura (null si el explorer no respondió)
+ * @param block_time   time del bloque en ISO 8601 UTC (null si no se conoce)
+ * @param result       {@link Result}
+ */
+public record AttestationCheck(long block_height, String block_hash, String block_time, Result result) {
+
+    public enum Result {
+        /** La merkle root del bloque coincide con el compromiso del proof. */
+        CONFIRMED,
+        /** El bloque existe pero su merkle root no es la del proof. */
+        MERKLE_MISMATCH,
+        /** No hay bloque a esa altura (todavía, o en esta red). */
+        NOT_FOUND,
+        /** Ningún explorer respondió. */
+        UNAVAILABLE
+    }
+
+    public boolean confirmed() {
+        return result == Result.CONFIRMED;
+    }
+}
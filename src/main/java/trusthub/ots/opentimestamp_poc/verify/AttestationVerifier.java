@@ -0,0 +1,146 @@
+package trusthub.ots.opentimestamp_poc.verify;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.stereotype.Component;
+
+import com.eternitywall.ots.Timestamp;
+import com.eternitywall.ots.attestation.BitcoinBlockHeaderAttestation;
+import com.eternitywall.ots.attestation.TimeAttestation;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.util.function.Tuples;
+import trusthub.ots.opentimestamp_poc.explorer.BlockExplorer;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+/**
+ * Verificación concurrente de las attestations de Bitcoin de un proof.
+ * <p>
+ * Un proof enviado a varios calendarios suele terminar con varias attestations de Bitcoin
+ * (una por calendario, a veces en bloques distintos). Cada una es una rama independiente:
+ * el mensaje del nodo que la contiene tiene que ser la merkle root del bloque a esa altura.
+ * Acá cada rama se chequea contra el explorer ({@code /block-height/{h}} → {@code /block/{hash}})
+ * en paralelo, en vez de una detrás de otra.
+ * </p>
+ * <ul>
+ *   <li>{@link #firstConfirmed}: devuelve la rama confirmada de menor altura (el tiempo real
+ *       más temprano del proof). Responde apenas confirma la rama más baja que sigue sin
+ *       resolver y cancela las de mayor altura; no depende de qué explorer contestó antes.</li>
+ *   <li>{@link #checkAll}: espera todas y devuelve el resultado de cada una, por altura.</li>
+ * </ul>
+ */
+@Component
+public class AttestationVerifier {
+
+    private static final Pattern MERKLE_ROOT = Pattern.compile("\"merkle_root\"\\s*:\\s*\"([a-fA-F0-9]{64})\"");
+    private static final Pattern TIME = Pattern.compile("\"(timestamp|time)\"\\s*:\\s*(\\d+)");
+
+    private final BlockExplorer blockExplorer;
+
+    public AttestationVerifier(BlockExplorer blockExplorer) {
+        this.blockExplorer = blockExplorer;
+    }
+
+    /** Rama del árbol que termina en una attestation de Bitcoin: altura y compromiso (merkle root esperada). */
+    public record Branch(int height, byte[] commitment) { }
+
+    /** Attestations de Bitcoin del árbol, sin repetir (misma altura y mismo compromiso = misma rama). */
+    public static List<Branch> bitcoinBranches(Timestamp root) {
+        Map<String, Branch> branches = new LinkedHashMap<>();
+        Deque<Timestamp> stack = new ArrayDeque<>();
+        stack.push(root);
+        while (!stack.isEmpty()) {
+            Timestamp t = stack.pop();
+            for (TimeAttestation a : t.attestations) {
+                if (a instanceof BitcoinBlockHeaderAttestation btc) {
+                    branches.putIfAbsent(btc.getHeight() + ":" + HashUtil.bytesToHex(t.msg), new Branch(btc.getHeight(), t.msg));
+                }
+            }
+            for (Timestamp child : t.ops.values()) stack.push(child);
+        }
+        return new ArrayList<>(branches.values());
+    }
+
+    /**
+     * Chequea todas las ramas en paralelo y devuelve la confirmada de menor altura. Se corta
+     * en cuanto todas las ramas más bajas que una confirmada fallaron (o no hay más bajas): las
+     * de mayor altura que siguen en vuelo se cancelan. Vacío si ninguna confirma.
+     */
+    public Mono<AttestationCheck> firstConfirmed(List<Branch> branches) {
+        List<Branch> byHeight = branches.stream().sorted(Comparator.comparingInt(Branch::height)).toList();
+        int n = byHeight.size();
+        return Mono.defer(() -> {
+            // flatMap serializa los onNext: el arreglo solo se toca desde un hilo a la vez
+            AttestationCheck[] results = new AttestationCheck[n];
+            return Flux.range(0, n)
+                    .flatMap(i -> check(byHeight.get(i)).map(check -> Tuples.of(i, check)), Math.max(1, n))
+                    .<AttestationCheck>handle((done, sink) -> {
+                        results[done.getT1()] = done.getT2();
+                        for (AttestationCheck r : results) {
+                            if (r == null) return;      // una rama más baja sigue sin resolver
+                            if (r.confirmed()) {
+                                sink.next(r);           // next() cancela las que siguen en vuelo
+                                return;
+                            }
+                        }
+                    })
+                    .next();
+        });
+    }
+
+    /** Chequea todas las ramas en paralelo; resultados ordenados por altura. */
+    public Mono<List<AttestationCheck>> checkAll(List<Branch> branches) {
+        return Flux.fromIterable(branches)
+                .flatMap(this::check, Math.max(1, branches.size()))
+                .collectSortedList(Comparator.comparingLong(AttestationCheck::block_height));
+    }
+
+    /** Una rama: hash del bloque a esa altura, y merkle root + time de ese bloque. */
+    public Mono<AttestationCheck> check(Branch branch) {
+        long height = branch.height();
+        return blockExplorer.getReactive("/block-height/" + height)
+                .flatMap(hashBody -> {
+                    String hash = hashBody.map(String::trim).filter(s -> !s.isEmpty()).orElse(null);
+                    if (hash == null) {
+                        return Mono.just(new AttestationCheck(height, null, null, AttestationCheck.Result.NOT_FOUND));
+                    }
+                    return blockExplorer.getReactive("/block/" + hash)
+                            .map(block -> fromBlock(branch, hash, block));
+                })
+                .onErrorResume(e -> Mono.just(new AttestationCheck(height, null, null, AttestationCheck.Result.UNAVAILABLE)));
+    }
+
+    private static AttestationCheck fromBlock(Branch branch, String hash, Optional<String> block) {
+        if (block.isEmpty()) {
+            return new AttestationCheck(branch.height(), hash, null, AttestationCheck.Result.NOT_FOUND);
+        }
+        String time = null;
+        Matcher t = TIME.matcher(block.get());
+        if (t.find()) time = Instant.ofEpochSecond(Long.parseLong(t.group(2))).toString();
+        Matcher m = MERKLE_ROOT.matcher(block.get());
+        if (!m.find()) {
+            return new AttestationCheck(branch.height(), hash, time, AttestationCheck.Result.UNAVAILABLE);
+        }
+        // el explorer muestra la merkle root invertida (orden de display); el proof la tiene en el orden del header
+        boolean matches = m.group(1).equalsIgnoreCase(HashUtil.bytesToHex(reversed(branch.commitment())));
+        return new AttestationCheck(branch.height(), hash, time,
+                matches ? AttestationCheck.Result.CONFIRMED : AttestationCheck.Result.MERKLE_MISMATCH);
+    }
+
+    static byte[] reversed(byte[] bytes) {
+        byte[] out = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) out[i] = bytes[bytes.length - 1 - i];
+        return out;
+    }
+}
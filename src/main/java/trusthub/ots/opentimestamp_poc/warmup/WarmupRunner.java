@@ -0,0 +1,219 @@
+package trusthub.ots.opentimestamp_poc.warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.MultipartBodyBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.BodyInserters;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eternitywall.ots.DetachedTimestampFile;
+import com.eternitywall.ots.Timestamp;
+import com.eternitywall.ots.attestation.PendingAttestation;
+import com.eternitywall.ots.op.OpAppend;
+import com.eternitywall.ots.op.OpSHA256;
+
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+import trusthub.ots.opentimestamp_poc.verify.AttestationVerifier;
+
+/**
+ * Warm-up del JIT al arrancar, sin red: repite trabajo local por los mismos caminos que
+ * usan los requests reales para que lleguen compilados al primer request de producción.
+ * <ol>
+ *   <li>Servicio: hash de documentos ({@code documentDigestReactive}) e {@code info} de
+ *       proofs (deserialize + render), con los pares .ots/PDF de {@code ots.warmup.samples-dir}
+ *       y proofs sintéticos (digest al azar + attestation pendiente).</li>
+ *   <li>HTTP: requests al propio servidor ({@code /api/ots/info} y {@code /api/ots/verify} con
+ *       proofs sin attestation de Bitcoin, que no consultan explorers), para multipart,
+ *       controllers y Jackson.</li>
+ * </ol>
+ * Corre como {@link ApplicationRunner}: Spring Boot marca la app {@code ACCEPTING_TRAFFIC}
+ * recién cuando terminan los runners, así que {@code /actuator/health/readiness} sigue en
+ * {@code OUT_OF_SERVICE} hasta que el warm-up termina (o se agota {@code ots.warmup.max-duration}).
+ * Un error del warm-up se loguea y no impide el arranque.
+ */
+@Component
+@ConditionalOnProperty(name = "ots.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class WarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmupRunner.class);
+
+    private final OpenTimestampsService otsService;
+    private final WebClient.Builder webClientBuilder;
+    private final Environment environment;
+    private final Path samplesDir;
+    private final int iterations;
+    private final int httpRequests;
+    private final Duration maxDuration;
+
+    public WarmupRunner(OpenTimestampsService otsService,
+                        WebClient.Builder webClientBuilder,
+                        Environment environment,
+                        @Value("${ots.warmup.samples-dir:Java only/PRUEBA OTS}") Path samplesDir,
+                        @Value("${ots.warmup.iterations:300}") int iterations,
+                        @Value("${ots.warmup.http-requests:100}") int httpRequests,
+                        @Value("${ots.warmup.max-duration:PT30S}") Duration maxDuration) {
+        this.otsService = otsService;
+        this.webClientBuilder = webClientBuilder;
+        this.environment = environment;
+        this.samplesDir = samplesDir;
+        this.iterations = iterations;
+        this.httpRequests = httpRequests;
+        this.maxDuration = maxDuration;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        try {
+            List<Sample> samples = loadSamples();
+            List<byte[]> synthetic = syntheticProofs(32);
+            Path syntheticDoc = syntheticDocument();
+            try {
+                int serviceOps = serviceWarmup(samples, synthetic, syntheticDoc, deadline);
+                int httpOps = httpWarmup(samples, deadline);
+                logger.info("Warm-up terminado en {} ms: {} operaciones de servicio, {} requests HTTP ({} muestras)",
+                        (System.nanoTime() - start) / 1_000_000, serviceOps, httpOps, samples.size());
+            } finally {
+                Files.deleteIfExists(syntheticDoc);
+            }
+        } catch (Exception e) {
+            logger.warn("Warm-up interrumpido, se sigue con el arranque: {}", e.getMessage());
+        }
+    }
+
+    // -------------------- fases --------------------
+
+    private int serviceWarmup(List<Sample> samples, List<byte[]> synthetic, Path syntheticDoc, long deadline) throws Exception {
+        int ops = 0;
+        for (int i = 0; i < iterations && System.nanoTime() < deadline; i++) {
+            byte[] proof = synthetic.get(i % synthetic.size());
+            otsService.renderInfo(proof);
+            otsService.documentDigestReactive(syntheticDoc.toFile()).block();
+            ops += 2;
+            for (Sample s : samples) {
+                otsService.renderInfo(s.ots());
+                ops++;
+                if (s.document() != null) {
+                    otsService.documentDigestReactive(s.document().toFile()).block();
+                    ops++;
+                }
+            }
+        }
+        return ops;
+    }
+
+    private int httpWarmup(List<Sample> samples, long deadline) {
+        String port = environment.getProperty("local.server.port");
+        if (port == null || samples.isEmpty()) return 0;
+        WebClient client = webClientBuilder.baseUrl("http://localhost:" + port + "/api/ots").build();
+        // verify solo con proofs pendientes: con attestation de Bitcoin consultaría los explorers
+        List<Sample> verifiable = samples.stream().filter(s -> s.document() != null && s.pendingOnly()).toList();
+        int done = 0;
+        for (int i = 0; i < httpRequests && System.nanoTime() < deadline; i++) {
+            Sample s = samples.get(i % samples.size());
+            MultipartBodyBuilder info = new MultipartBodyBuilder();
+            info.part("ots", new FileSystemResource(s.otsPath()));
+            Mono<Void> call = client.post().uri("/info")
+                    .contentType(MediaType.MULTIPART_FORM_DATA)
+                    .body(BodyInserters.fromMultipartData(info.build()))
+                    .retrieve().toBodilessEntity().then();
+            if (!verifiable.isEmpty()) {
+                Sample v = verifiable.get(i % verifiable.size());
+                MultipartBodyBuilder verify = new MultipartBodyBuilder();
+                verify.part("ots", new FileSystemResource(v.otsPath()));
+                verify.part("file", new FileSystemResource(v.document()));
+                call = call.then(client.post().uri(i % 2 == 0 ? "/verify" : "/verify?fields=status,block_time")
+                        .contentType(MediaType.MULTIPART_FORM_DATA)
+                        .body(BodyInserters.fromMultipartData(verify.build()))
+                        .retrieve().toBodilessEntity().then());
+            }
+            call.block(Duration.ofSeconds(10));
+            done++;
+        }
+        return done;
+    }
+
+    // -------------------- muestras --------------------
+
+    /** Pares .ots/PDF de la carpeta de muestras (el PDF puede estar en la misma carpeta o en la de arriba). */
+    private List<Sample> loadSamples() throws IOException {
+        List<Sample> samples = new ArrayList<>();
+        if (!Files.isDirectory(samplesDir)) {
+            logger.info("Warm-up: no existe {}, solo proofs sintéticos", samplesDir.toAbsolutePath());
+            return samples;
+        }
+        try (Stream<Path> files = Files.walk(samplesDir)) {
+            for (Path ots : files.filter(p -> p.getFileName().toString().endsWith(".ots")).toList()) {
+                byte[] bytes = Files.readAllBytes(ots);
+                boolean pendingOnly;
+                try {
+                    pendingOnly = AttestationVerifier.bitcoinBranches(DetachedTimestampFile.deserialize(bytes).getTimestamp()).isEmpty();
+                } catch (Exception e) {
+                    logger.debug("Warm-up: se ignora {} ({})", ots, e.getMessage());
+                    continue;
+                }
+                samples.add(new Sample(ots, bytes, documentFor(ots).orElse(null), pendingOnly));
+            }
+        }
+        return samples;
+    }
+
+    private static Optional<Path> documentFor(Path ots) {
+        String name = ots.getFileName().toString();
+        String docName = name.substring(0, name.length() - ".ots".length());
+        Path dir = ots.getParent();
+        return Stream.of(dir, dir.getParent())
+                .filter(d -> d != null)
+                .map(d -> d.resolve(docName))
+                .filter(Files::isRegularFile)
+                .findFirst();
+    }
+
+    /** Proofs con la forma de un stamp recién emitido: nonce + SHA-256 + attestation pendiente. */
+    private static List<byte[]> syntheticProofs(int count) {
+        List<byte[]> proofs = new ArrayList<>(count);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < count; i++) {
+            byte[] digest = new byte[32];
+            byte[] nonce = new byte[16];
+            random.nextBytes(digest);
+            random.nextBytes(nonce);
+            Timestamp root = new Timestamp(digest);
+            root.add(new OpAppend(nonce)).add(new OpSHA256()).attestations
+                    .add(new PendingAttestation(("https://calendar-" + (i % 4) + ".warmup.invalid").getBytes(StandardCharsets.US_ASCII)));
+            proofs.add(new DetachedTimestampFile(new OpSHA256(), root).serialize());
+        }
+        return proofs;
+    }
+
+    private static Path syntheticDocument() throws IOException {
+        byte[] content = new byte[256 * 1024];
+        ThreadLocalRandom.current().nextBytes(content);
+        Path doc = Files.createTempFile("ots-warmup-", ".pdf");
+        Files.write(doc, content);
+        return doc;
+    }
+
+    private record Sample(Path otsPath, byte[] ots, Path document, boolean pendingOnly) { }
+}
@@ -0,0 +1,66 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class DigestIndexTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void growsAndKeepsEveryEntry() throws Exception {
+		List<byte[]> digests = digests(5000);
+		try (DigestIndex index = DigestIndex.open(dir.resolve("d.idx"), 16)) {
+			for (int i = 0; i < digests.size(); i++) index.put(digests.get(i), i * 100L);
+			assertEquals(digests.size(), index.size());
+			assertTrue(index.capacity() * DigestIndex.MAX_LOAD >= digests.size());
+			for (int i = 0; i < digests.size(); i++) assertEquals(i * 100L, index.get(digests.get(i)));
+			assertEquals(-1, index.get(HashUtil.newSha256().digest("no está".getBytes())));
+		}
+	}
+
+	@Test
+	void updateReplacesOffset() throws Exception {
+		byte[] d = digests(1).get(0);
+		try (DigestIndex index = DigestIndex.open(dir.resolve("d.idx"), 16)) {
+			index.put(d, 0);
+			index.put(d, 4096);
+			assertEquals(1, index.size());
+			assertEquals(4096, index.get(d));
+		}
+	}
+
+	@Test
+	void reopenKeepsEntriesAndCheckpoint() throws Exception {
+		Path file = dir.resolve("d.idx");
+		List<byte[]> digests = digests(300);
+		try (DigestIndex index = DigestIndex.open(file, 16)) {
+			for (int i = 0; i < digests.size(); i++) index.put(digests.get(i), i);
+			index.checkpoint(12345);
+		}
+		try (DigestIndex index = DigestIndex.open(file, 16)) {
+			assertEquals(12345, index.indexedUpTo());
+			assertEquals(digests.size(), index.size());
+			for (int i = 0; i < digests.size(); i++) assertEquals(i, index.get(digests.get(i)));
+		}
+	}
+
+	private static List<byte[]> digests(int n) throws Exception {
+		List<byte[]> out = new ArrayList<>(n);
+		for (int i = 0; i < n; i++) {
+			out.add(HashUtil.newSha256().digest(ByteBuffer.allocate(4).putInt(i).array()));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,237 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class ProofArchiveTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void recordAllStoresBatchAndSurvivesReopen() throws Exception {
+		List<byte[]> digests = new ArrayList<>();
+		List<byte[]> proofs = new ArrayList<>();
+		for (int i = 0; i < 100; i++) {
+			digests.add(HashUtil.newSha256().digest(("doc-" + i).getBytes(StandardCharsets.UTF_8)));
+			proofs.add(("ots-" + i).getBytes(StandardCharsets.UTF_8));
+		}
+
+		ProofArchive archive = new ProofArchive(true, dir, 16, 10_000);
+		archive.recordAll(digests, proofs);
+		assertEquals(100, archive.size());
+		archive.close();
+
+		// sin checkpoint del índice: al reabrir se re-indexa el lote desde el log
+		ProofArchive reopened = new ProofArchive(true, dir, 16, 10_000);
+		assertEquals(100, reopened.size());
+		for (int i = 0; i < digests.size(); i++) {
+			assertArrayEquals(proofs.get(i), reopened.find(digests.get(i)).orElseThrow().ots());
+		}
+		reopened.close();
+	}
+
+	@Test
+	void upgradeInBatchKeepsOriginalStampDate() throws Exception {
+		byte[] digest = HashUtil.newSha256().digest("doc".getBytes(StandardCharsets.UTF_8));
+		ProofArchive archive = new ProofArchive(true, dir, 16, 10_000);
+		archive.record(digest, new byte[] { 1 });
+		long stampedAt = archive.find(digest).orElseThrow().stampedAtMillis();
+		Thread.sleep(5);
+
+		// el mismo digest dos veces en el lote: gana el último y conserva la fecha del primero
+		archive.recordAll(List.of(digest, digest), List.of(new byte[] { 2 }, new byte[] { 3 }));
+
+		ProofRecord latest = archive.find(digest).orElseThrow();
+		assertArrayEquals(new byte[] { 3 }, latest.ots());
+		assertEquals(stampedAt, latest.stampedAtMillis());
+		assertEquals(1, archive.size());
+		archive.close();
+	}
+
+	@Test
+	void batchFailingMidWriteDoesNotHideLaterProofs() throws Exception {
+		FailingChannel log = FailingChannel.open(dir.resolve("proofs.log"));
+		ProofArchive archive = new ProofArchive(true, dir, log, 16, 10_000);
+		archive.recordAll(List.of(digest("a")), List.of(new byte[] { 1 }));
+
+		// el segundo registro del lote se escribe por la mitad y la escritura falla
+		log.failAfterWrites(1);
+		archive.recordAll(List.of(digest("b"), digest("c")), List.of(new byte[] { 2 }, new byte[] { 3 }));
+		assertTrue(archive.find(digest("b")).isEmpty());
+
+		archive.recordAll(List.of(digest("d")), List.of(new byte[] { 4 }));
+		List<ProofRecord> scanned = new ArrayList<>();
+		archive.scan(0, Long.MAX_VALUE, scanned::add);
+		assertEquals(2, scanned.size());
+
+		// sin checkpoint: al reabrir se re-indexa todo y "d" sigue estando
+		log.close();
+		ProofArchive reopened = new ProofArchive(true, dir, 16, 10_000);
+		assertArrayEquals(new byte[] { 1 }, reopened.find(digest("a")).orElseThrow().ots());
+		assertArrayEquals(new byte[] { 4 }, reopened.find(digest("d")).orElseThrow().ots());
+		assertTrue(reopened.find(digest("c")).isEmpty());
+		assertEquals(2, reopened.size());
+		reopened.close();
+	}
+
+	@Test
+	void truncatedTailDropsItsIndexSlotsOnReopen() throws Exception {
+		ProofArchive crashed = new ProofArchive(true, dir, 16, 10_000);
+		crashed.record(digest("a"), new byte[] { 1 });
+		crashed.record(digest("b"), new byte[] { 2, 2, 2, 2 });
+		// "crash" a mitad del registro de b: el slot de b ya está en el índice mapeado, sin checkpoint
+		long bOffset = Files.size(dir.resolve("proofs.log")) - (4 + 8 + 32 + 4 + 4);
+		try (FileChannel log = FileChannel.open(dir.resolve("proofs.log"), StandardOpenOption.WRITE)) {
+			log.truncate(bOffset + 10);
+		}
+
+		ProofArchive reopened = new ProofArchive(true, dir, 16, 10_000);
+		assertTrue(reopened.find(digest("b")).isEmpty());
+		// c ocupa el offset donde estaba b: buscar b no puede devolver el proof de c
+		reopened.record(digest("c"), new byte[] { 3, 3, 3, 3 });
+		assertTrue(reopened.find(digest("b")).isEmpty());
+		assertArrayEquals(new byte[] { 3, 3, 3, 3 }, reopened.find(digest("c")).orElseThrow().ots());
+		assertArrayEquals(new byte[] { 1 }, reopened.find(digest("a")).orElseThrow().ots());
+		assertEquals(2, reopened.size());
+		reopened.close();
+	}
+
+	private static byte[] digest(String doc) {
+		return HashUtil.newSha256().digest(doc.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/** FileChannel que, armado, deja pasar N escrituras y corta la siguiente a la mitad. */
+	private static final class FailingChannel extends FileChannel {
+		private final FileChannel delegate;
+		private int writesLeft = -1;
+
+		private FailingChannel(FileChannel delegate) {
+			this.delegate = delegate;
+		}
+
+		static FailingChannel open(Path file) throws IOException {
+			return new FailingChannel(FileChannel.open(file,
+					StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE));
+		}
+
+		void failAfterWrites(int writes) {
+			writesLeft = writes;
+		}
+
+		@Override
+		public int write(ByteBuffer src, long position) throws IOException {
+			if (writesLeft == 0) {
+				writesLeft = -1;
+				ByteBuffer half = src.duplicate();
+				half.limit(half.position() + half.remaining() / 2);
+				delegate.write(half, position);
+				throw new IOException("disco lleno");
+			}
+			if (writesLeft > 0) writesLeft--;
+			return delegate.write(src, position);
+		}
+
+		@Override
+		public int read(ByteBuffer dst, long position) throws IOException {
+			return delegate.read(dst, position);
+		}
+
+		@Override
+		public int read(ByteBuffer dst) throws IOException {
+			return delegate.read(dst);
+		}
+
+		@Override
+		public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+			return delegate.read(dsts, offset, length);
+		}
+
+		@Override
+		public int write(ByteBuffer src) throws IOException {
+			return delegate.write(src);
+		}
+
+		@Override
+		public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+			return delegate.write(srcs, offset, length);
+		}
+
+		@Override
+		public long position() throws IOException {
+			return delegate.position();
+		}
+
+		@Override
+		public FileChannel position(long newPosition) throws IOException {
+			delegate.position(newPosition);
+			return this;
+		}
+
+		@Override
+		public long size() throws IOException {
+			return delegate.size();
+		}
+
+		@Override
+		public FileChannel truncate(long size) throws IOException {
+			delegate.truncate(size);
+			return this;
+		}
+
+		@Override
+		public void force(boolean metaData) throws IOException {
+			delegate.force(metaData);
+		}
+
+		@Override
+		public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+			return delegate.transferTo(position, count, target);
+		}
+
+		@Override
+		public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+			return delegate.transferFrom(src, position, count);
+		}
+
+		@Override
+		public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+			return delegate.map(mode, position, size);
+		}
+
+		@Override
+		public FileLock lock(long position, long size, boolean shared) throws IOException {
+			return delegate.lock(position, size, shared);
+		}
+
+		@Override
+		public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+			return delegate.tryLock(position, size, shared);
+		}
+
+		@Override
+		protected void implCloseChannel() throws IOException {
+			delegate.close();
+		}
+	}
+}
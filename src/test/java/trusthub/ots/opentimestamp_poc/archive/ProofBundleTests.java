@@ -0,0 +1,90 @@
+package trusthub.ots.opentimestamp_poc.archive;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class ProofBundleTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void everyProofIsFoundByDigest() throws Exception {
+		Path file = dir.resolve("b.otsb");
+		List<ProofRecord> proofs = proofs(500);
+		try (ProofBundleWriter writer = new ProofBundleWriter(file)) {
+			for (ProofRecord p : proofs) writer.add(p);
+		}
+
+		try (ProofBundleReader reader = new ProofBundleReader(file)) {
+			assertEquals(proofs.size(), reader.size());
+			assertTrue(reader.verifyChecksum());
+			for (ProofRecord p : proofs) {
+				ProofRecord found = reader.find(p.digest()).orElseThrow();
+				assertArrayEquals(p.ots(), found.ots());
+				assertEquals(p.stampedAtMillis(), found.stampedAtMillis());
+			}
+			assertFalse(reader.find(HashUtil.newSha256().digest("otro".getBytes(StandardCharsets.UTF_8))).isPresent());
+		}
+	}
+
+	@Test
+	void duplicateDigestKeepsLastProof() throws Exception {
+		Path file = dir.resolve("dup.otsb");
+		byte[] digest = HashUtil.newSha256().digest("doc".getBytes(StandardCharsets.UTF_8));
+		try (ProofBundleWriter writer = new ProofBundleWriter(file)) {
+			writer.add(new ProofRecord(digest, 1, new byte[] {1}));
+			writer.add(new ProofRecord(digest, 1, new byte[] {2, 2}));
+		}
+		try (ProofBundleReader reader = new ProofBundleReader(file)) {
+			assertEquals(1, reader.size());
+			assertArrayEquals(new byte[] {2, 2}, reader.find(digest).orElseThrow().ots());
+		}
+	}
+
+	@Test
+	void emptyBundleAndCorruptionAreDetected() throws Exception {
+		Path file = dir.resolve("empty.otsb");
+		new ProofBundleWriter(file).close();
+		try (ProofBundleReader reader = new ProofBundleReader(file)) {
+			assertEquals(0, reader.size());
+			assertFalse(reader.find(new byte[32]).isPresent());
+		}
+
+		Path tampered = dir.resolve("t.otsb");
+		try (ProofBundleWriter writer = new ProofBundleWriter(tampered)) {
+			for (ProofRecord p : proofs(3)) writer.add(p);
+		}
+		try (FileChannel ch = FileChannel.open(tampered, StandardOpenOption.WRITE)) {
+			ch.write(ByteBuffer.wrap(new byte[] {(byte) 0xff}), 9);
+		}
+		try (ProofBundleReader reader = new ProofBundleReader(tampered)) {
+			assertFalse(reader.verifyChecksum());
+		}
+	}
+
+	private static List<ProofRecord> proofs(int n) {
+		List<ProofRecord> out = new ArrayList<>();
+		for (int i = 0; i < n; i++) {
+			byte[] digest = HashUtil.newSha256().digest(("doc-" + i).getBytes(StandardCharsets.UTF_8));
+			byte[] ots = ("ots-" + i + "-" + "x".repeat(i % 17)).getBytes(StandardCharsets.UTF_8);
+			out.add(new ProofRecord(digest, 1_700_000_000_000L + i, ots));
+		}
+		return out;
+	}
+}
@@ -0,0 +1,63 @@
+package trusthub.ots.opentimestamp_poc.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import trusthub.ots.opentimestamp_poc.dto.VerifyResponse;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+
+class ProofResultCacheTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	private final ExecutionLanes lanes = new ExecutionLanes(1, 10, 1, 10, 1, 10, new SimpleMeterRegistry());
+
+	@AfterEach
+	void tearDown() {
+		lanes.shutdown();
+	}
+
+	@Test
+	void failedStoreWriteIsRetriedOnNextPut() {
+		VerificationResultStore store = mock(VerificationResultStore.class);
+		when(store.get(anyString())).thenReturn(Optional.empty());
+		doThrow(new UncheckedIOException(new IOException("disco lleno")))
+				.doNothing()
+				.when(store).put(anyString(), any());
+		ProofResultCache cache = new ProofResultCache(100, store, lanes, new SimpleMeterRegistry());
+		VerifyResponse confirmed = confirmed();
+
+		cache.putVerify("p", "d", confirmed).block(TIMEOUT);
+		// no quedó en memoria: el próximo put vuelve a intentar persistirlo
+		assertFalse(cache.getVerify("p", "d").block(TIMEOUT).isPresent());
+
+		cache.putVerify("p", "d", confirmed).block(TIMEOUT);
+		assertTrue(cache.getVerify("p", "d").block(TIMEOUT).isPresent());
+
+		cache.putVerify("p", "d", confirmed).block(TIMEOUT);
+		verify(store, times(2)).put(anyString(), any());
+	}
+
+	private static VerifyResponse confirmed() {
+		VerifyResponse resp = new VerifyResponse();
+		resp.setStatus("OK");
+		resp.setBlock_height(800_000L);
+		return resp;
+	}
+}
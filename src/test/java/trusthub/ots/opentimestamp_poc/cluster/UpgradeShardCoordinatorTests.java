@@ -0,0 +1,101 @@
+package trusthub.ots.opentimestamp_poc.cluster;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+class UpgradeShardCoordinatorTests {
+
+	private static final int SHARDS = 16;
+	private static final Duration TTL = Duration.ofSeconds(30);
+
+	@Test
+	void singleNodeOwnsEveryShard() {
+		InMemoryCoordinationStore store = new InMemoryCoordinationStore();
+		UpgradeShardCoordinator a = new UpgradeShardCoordinator(store, "a", SHARDS, TTL, true);
+
+		a.rebalance();
+
+		assertEquals(SHARDS, a.getOwnedShards().size());
+		assertTrue(a.owns("ffff" + "0".repeat(60)));
+	}
+
+	@Test
+	void joiningNodeTakesOverItsShardsWithoutOverlap() {
+		InMemoryCoordinationStore store = new InMemoryCoordinationStore();
+		UpgradeShardCoordinator a = new UpgradeShardCoordinator(store, "a", SHARDS, TTL, true);
+		UpgradeShardCoordinator b = new UpgradeShardCoordinator(store, "b", SHARDS, TTL, true);
+		a.rebalance();
+
+		// b entra: todavía no puede tomar leases de a; a los suelta en su próxima ronda
+		b.rebalance();
+		a.rebalance();
+		b.rebalance();
+
+		Set<Integer> union = new HashSet<>(a.getOwnedShards());
+		union.addAll(b.getOwnedShards());
+		assertEquals(SHARDS, union.size(), "todos los shards tienen dueño");
+		assertEquals(SHARDS, a.getOwnedShards().size() + b.getOwnedShards().size(), "ningún shard tiene dos dueños");
+		assertTrue(!b.getOwnedShards().isEmpty());
+	}
+
+	@Test
+	void crashedNodeShardsMoveAfterLeaseExpires() {
+		MutableClock clock = new MutableClock();
+		InMemoryCoordinationStore store = new InMemoryCoordinationStore(clock);
+		UpgradeShardCoordinator a = new UpgradeShardCoordinator(store, "a", SHARDS, TTL, true);
+		UpgradeShardCoordinator b = new UpgradeShardCoordinator(store, "b", SHARDS, TTL, true);
+		a.rebalance();
+		b.rebalance();
+		a.rebalance();
+		b.rebalance();
+
+		// "a" deja de hacer heartbeat; pasado el TTL "b" toma todo
+		clock.advance(TTL.plusSeconds(1));
+		b.rebalance();
+
+		assertEquals(SHARDS, b.getOwnedShards().size());
+	}
+
+	@Test
+	void shardsAreContiguousDigestRanges() {
+		UpgradeShardCoordinator c = new UpgradeShardCoordinator(new InMemoryCoordinationStore(), "a", SHARDS, TTL, true);
+
+		assertEquals(0, c.shardOf("0000" + "0".repeat(60)));
+		assertEquals(0, c.shardOf("0fff" + "0".repeat(60)));
+		assertEquals(1, c.shardOf("1000" + "0".repeat(60)));
+		assertEquals(SHARDS - 1, c.shardOf("ffff" + "0".repeat(60)));
+	}
+
+	private static final class MutableClock extends Clock {
+		private Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+		void advance(Duration d) {
+			now = now.plus(d);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package trusthub.ots.opentimestamp_poc.compaction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import com.eternitywall.ots.Timestamp;
+import com.eternitywall.ots.attestation.BitcoinBlockHeaderAttestation;
+import com.eternitywall.ots.attestation.PendingAttestation;
+import com.eternitywall.ots.op.OpAppend;
+import com.eternitywall.ots.op.OpPrepend;
+import com.eternitywall.ots.op.OpSHA256;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class ProofCompactorTests {
+
+	@Test
+	void keepsOnlyLowestBlockAtShortestPath() {
+		Timestamp root = new Timestamp(HashUtil.newSha256().digest("doc".getBytes(StandardCharsets.UTF_8)));
+		// calendario pendiente
+		root.add(new OpAppend(new byte[] { 1 })).add(new OpSHA256()).attestations
+				.add(new PendingAttestation("https://a.example".getBytes(StandardCharsets.UTF_8)));
+		// mismo bloque por un camino largo
+		root.add(new OpAppend(new byte[] { 2 })).add(new OpSHA256()).add(new OpPrepend(new byte[] { 3 })).add(new OpSHA256())
+				.attestations.add(new BitcoinBlockHeaderAttestation(800_000));
+		// bloque posterior por un camino corto
+		root.add(new OpAppend(new byte[] { 4 })).attestations.add(new BitcoinBlockHeaderAttestation(800_100));
+		// mismo bloque que el largo, pero más corto: es el que queda
+		Timestamp best = root.add(new OpAppend(new byte[] { 5 })).add(new OpSHA256());
+		best.attestations.add(new BitcoinBlockHeaderAttestation(800_000));
+		best.attestations.add(new PendingAttestation("https://b.example".getBytes(StandardCharsets.UTF_8)));
+
+		assertTrue(ProofCompactor.isCompactable(root));
+		assertEquals(800_000, ProofCompactor.compact(root));
+
+		ProofCompactor.TreeStats stats = ProofCompactor.stats(root);
+		assertEquals(3, stats.nodes());
+		assertEquals(1, stats.attestations());
+		assertEquals(1, stats.bitcoin());
+		assertEquals(0, stats.pending());
+		assertFalse(ProofCompactor.isCompactable(root));
+	}
+
+	@Test
+	void pendingOnlyProofIsUntouched() {
+		Timestamp root = new Timestamp(HashUtil.newSha256().digest("doc".getBytes(StandardCharsets.UTF_8)));
+		root.add(new OpAppend(new byte[] { 1 })).add(new OpSHA256()).attestations
+				.add(new PendingAttestation("https://a.example".getBytes(StandardCharsets.UTF_8)));
+		root.add(new OpAppend(new byte[] { 2 })).add(new OpSHA256()).attestations
+				.add(new PendingAttestation("https://b.example".getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(-1, ProofCompactor.compact(root));
+		assertEquals(5, ProofCompactor.stats(root).nodes());
+		assertEquals(2, ProofCompactor.stats(root).pending());
+	}
+}
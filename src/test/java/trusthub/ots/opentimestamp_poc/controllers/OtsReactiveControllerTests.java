@@ -0,0 +1,143 @@
+package trusthub.ots.opentimestamp_poc.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePartEvent;
+import org.springframework.http.codec.multipart.FormPartEvent;
+import org.springframework.http.codec.multipart.PartEvent;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ResponseStatusException;
+
+import io.micrometer.observation.ObservationRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+import trusthub.ots.opentimestamp_poc.tracing.OtsTracing;
+
+class OtsReactiveControllerTests {
+
+	private static final int MAX_FILES = 2;
+
+	@Test
+	void stampBatchHashesFilePartsInOrderAndIgnoresOtherParts() throws Exception {
+		OpenTimestampsService ots = hashingService();
+		when(ots.stampDigestsReactive(anyList())).thenAnswer(inv -> {
+			List<byte[]> digests = inv.getArgument(0);
+			return Mono.just(digests);
+		});
+
+		Flux<PartEvent> parts = Flux.concat(
+				file("a.pdf", "uno"),
+				FormPartEvent.create("comentario", "no es un archivo"),
+				file("dir/b.pdf", "dos"));
+		ResponseEntity<Resource> response = controller(ots).stampBatch(parts).block(Duration.ofSeconds(5));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		List<String> names = new ArrayList<>();
+		List<String> contents = new ArrayList<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.getBody().getContentAsByteArray()))) {
+			for (ZipEntry entry; (entry = zip.getNextEntry()) != null;) {
+				names.add(entry.getName());
+				contents.add(new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		}
+		assertEquals(List.of("a.pdf.ots", "b.pdf.ots"), names);
+		// el "digest" del mock es el contenido del part
+		assertEquals(List.of("uno", "dos"), contents);
+	}
+
+	@Test
+	void stampBatchReducesClientFilenamesWithoutPathParsing() throws Exception {
+		OpenTimestampsService ots = hashingService();
+		when(ots.stampDigestsReactive(anyList())).thenAnswer(inv -> {
+			List<byte[]> digests = inv.getArgument(0);
+			return Mono.just(digests);
+		});
+
+		Flux<PartEvent> parts = Flux.concat(file("/", "uno"), file("C:\\docs\\b\u0000.pdf", "dos"));
+		ResponseEntity<Resource> response = controller(ots).stampBatch(parts).block(Duration.ofSeconds(5));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		List<String> names = new ArrayList<>();
+		try (ZipInputStream zip = new ZipInputStream(new ByteArrayInputStream(response.getBody().getContentAsByteArray()))) {
+			for (ZipEntry entry; (entry = zip.getNextEntry()) != null;) {
+				names.add(entry.getName());
+			}
+		}
+		assertEquals(List.of("document.ots", "b.pdf.ots"), names);
+	}
+
+	@Test
+	void stampBatchRejectsExtraFileWithoutWaitingForTheRestOfTheUpload() {
+		OpenTimestampsService ots = hashingService();
+		AtomicBoolean uploadCancelled = new AtomicBoolean();
+		// el cliente nunca termina de mandar el request: el 413 tiene que salir igual
+		Flux<PartEvent> parts = Flux.concat(
+				file("a.pdf", "1"), file("b.pdf", "2"), file("c.pdf", "3"), Flux.<PartEvent>never())
+				.doOnCancel(() -> uploadCancelled.set(true));
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> controller(ots).stampBatch(parts).block(Duration.ofSeconds(5)));
+
+		assertEquals(HttpStatus.PAYLOAD_TOO_LARGE, e.getStatusCode());
+		assertTrue(uploadCancelled.get());
+		verify(ots, never()).stampDigestsReactive(anyList());
+	}
+
+	@Test
+	void stampBatchWithoutFilesIsBadRequest() {
+		OpenTimestampsService ots = hashingService();
+
+		ResponseStatusException e = assertThrows(ResponseStatusException.class,
+				() -> controller(ots).stampBatch(FormPartEvent.create("x", "y").flux().cast(PartEvent.class)).block(Duration.ofSeconds(5)));
+
+		assertEquals(HttpStatus.BAD_REQUEST, e.getStatusCode());
+	}
+
+	/** Mock cuyo "digest" es el contenido del part, para poder chequear qué llegó a cada archivo. */
+	@SuppressWarnings("unchecked")
+	private static OpenTimestampsService hashingService() {
+		OpenTimestampsService ots = mock(OpenTimestampsService.class);
+		when(ots.contentDigestReactive(any())).thenAnswer(inv -> ((Flux<DataBuffer>) inv.getArgument(0))
+				.reduceWith(StringBuilder::new, (sb, buffer) -> sb.append(buffer.toString(StandardCharsets.UTF_8)))
+				.map(sb -> sb.toString().getBytes(StandardCharsets.UTF_8)));
+		return ots;
+	}
+
+	private static OtsReactiveController controller(OpenTimestampsService ots) {
+		return new OtsReactiveController(ots, null, new OtsTracing(ObservationRegistry.NOOP),
+				1000, 16, DataSize.ofMegabytes(1), MAX_FILES, 4);
+	}
+
+	/** Un archivo del part 'files', partido en dos buffers como llegaría de la red. */
+	private static Flux<PartEvent> file(String filename, String content) {
+		int half = content.length() / 2;
+		Flux<DataBuffer> buffers = Flux.just(content.substring(0, half), content.substring(half))
+				.map(s -> DefaultDataBufferFactory.sharedInstance.wrap(s.getBytes(StandardCharsets.UTF_8)));
+		return FilePartEvent.create("files", filename, MediaType.APPLICATION_PDF, buffers).cast(PartEvent.class);
+	}
+}
@@ -0,0 +1,75 @@
+package trusthub.ots.opentimestamp_poc.eventlog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+class EventRingTests {
+
+	@Test
+	void capacityIsRoundedToPowerOfTwo() {
+		assertEquals(1024, new EventRing<Integer>(1000).capacity());
+		assertEquals(1024, new EventRing<Integer>(1024).capacity());
+		assertEquals(2, new EventRing<Integer>(1).capacity());
+	}
+
+	@Test
+	void rejectsWhenFullAndKeepsFifoOrderAcrossWraps() {
+		EventRing<Integer> ring = new EventRing<>(4);
+		int next = 0, expected = 0;
+		for (int round = 0; round < 10; round++) {
+			while (ring.offer(next)) next++;
+			assertEquals(4, ring.size());
+			assertFalse(ring.offer(-1));
+			for (int i = 0; i < 3; i++) assertEquals(expected++, ring.poll().intValue());
+		}
+		Integer v;
+		while ((v = ring.poll()) != null) assertEquals(expected++, v.intValue());
+		assertEquals(next, expected);
+		assertNull(ring.poll());
+	}
+
+	@Test
+	void concurrentProducersLoseNothingWhileThereIsRoom() throws Exception {
+		int producers = 8, perProducer = 20_000;
+		EventRing<Long> ring = new EventRing<>(1 << 12);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Thread> threads = new ArrayList<>();
+		for (int p = 0; p < producers; p++) {
+			long base = (long) p << 32;
+			Thread t = new Thread(() -> {
+				try { start.await(); } catch (InterruptedException e) { return; }
+				for (int i = 0; i < perProducer; i++) {
+					while (!ring.offer(base | i)) Thread.onSpinWait(); // el test reintenta; el event log descarta
+				}
+			});
+			threads.add(t);
+			t.start();
+		}
+
+		int[] lastSeen = new int[producers];
+		Arrays.fill(lastSeen, -1);
+		start.countDown();
+		int received = 0;
+		while (received < producers * perProducer) {
+			Long v = ring.poll();
+			if (v == null) { Thread.onSpinWait(); continue; }
+			int producer = (int) (v >>> 32), seq = (int) (long) v;
+			// cada productor se ve en orden y sin huecos
+			assertEquals(lastSeen[producer] + 1, seq);
+			lastSeen[producer] = seq;
+			received++;
+		}
+		for (Thread t : threads) t.join();
+		assertNull(ring.poll());
+		for (int last : lastSeen) assertEquals(perProducer - 1, last);
+		assertEquals(0, ring.size());
+	}
+}
@@ -0,0 +1,90 @@
+package trusthub.ots.opentimestamp_poc.explorer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTests {
+
+	@Test
+	void opensAfterThresholdAndRejectsWhileOpen() {
+		CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofHours(1));
+
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		breaker.recordFailure();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	void halfOpenAllowsASingleProbe() {
+		CircuitBreaker breaker = openedBreaker();
+
+		assertTrue(breaker.allowRequest());
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest(), "solo una request de prueba a la vez");
+
+		breaker.recordSuccess();
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	void releasedProbeCanBeTakenAgain() {
+		CircuitBreaker breaker = openedBreaker();
+		assertTrue(breaker.allowRequest());
+
+		// la prueba se canceló sin resultado: el backend no debe quedar deshabilitado
+		breaker.releaseProbe();
+
+		assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+		assertTrue(breaker.allowRequest());
+		assertFalse(breaker.allowRequest());
+	}
+
+	@Test
+	void releaseProbeIsNoOpWhenClosed() {
+		CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+
+		breaker.releaseProbe();
+
+		assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+		assertTrue(breaker.allowRequest());
+	}
+
+	@Test
+	void failedProbeReopens() {
+		CircuitBreaker breaker = new CircuitBreaker(1, Duration.ofMillis(50));
+		breaker.recordFailure();
+		assertFalse(breaker.allowRequest());
+
+		sleep(60);
+		assertTrue(breaker.allowRequest());
+		breaker.recordFailure();
+
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		assertFalse(breaker.allowRequest());
+	}
+
+	/** Breaker abierto con openDuration 0: la próxima request pasa a HALF_OPEN. */
+	private static CircuitBreaker openedBreaker() {
+		CircuitBreaker breaker = new CircuitBreaker(1, Duration.ZERO);
+		breaker.recordFailure();
+		assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+		return breaker;
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
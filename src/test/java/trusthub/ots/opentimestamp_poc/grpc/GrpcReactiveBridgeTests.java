@@ -0,0 +1,110 @@
+package trusthub.ots.opentimestamp_poc.grpc;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import reactor.core.publisher.Flux;
+
+class GrpcReactiveBridgeTests {
+
+	@Test
+	void outboundWaitsForTransportReadiness() {
+		FakeCall<Integer> call = new FakeCall<>();
+		call.ready = false;
+		GrpcReactiveBridge.bidi(call, requests -> Flux.range(0, 100));
+
+		// cliente que no lee: no se emite nada y nada queda acumulado del lado del servidor
+		assertTrue(call.sent.isEmpty());
+
+		call.ready = true;
+		call.readyAfter = 3; // el buffer se llena de nuevo tras 3 mensajes
+		call.onReady.run();
+		assertEquals(List.of(0, 1, 2), call.sent);
+
+		call.ready = true;
+		call.readyAfter = Integer.MAX_VALUE;
+		call.onReady.run();
+		assertEquals(100, call.sent.size());
+		assertTrue(call.completed);
+	}
+
+	@Test
+	void inboundDemandFollowsPipeline() {
+		FakeCall<String> call = new FakeCall<>();
+		StreamObserver<String> in = GrpcReactiveBridge.bidi(call, requests -> requests.flatMap(Flux::just, 4));
+
+		assertEquals(4, call.inboundRequested);
+		in.onNext("a");
+		in.onCompleted();
+		assertEquals(List.of("a"), call.sent);
+		assertTrue(call.completed);
+	}
+
+	/** ServerCallStreamObserver mínimo: {@code readyAfter} mensajes más y deja de estar listo. */
+	private static final class FakeCall<T> extends ServerCallStreamObserver<T> {
+		final List<T> sent = new ArrayList<>();
+		boolean ready = true;
+		int readyAfter = Integer.MAX_VALUE;
+		boolean completed;
+		long inboundRequested;
+		Runnable onReady = () -> { };
+
+		@Override
+		public boolean isReady() {
+			return ready;
+		}
+
+		@Override
+		public void setOnReadyHandler(Runnable handler) {
+			onReady = handler;
+		}
+
+		@Override
+		public void onNext(T value) {
+			sent.add(value);
+			if (--readyAfter <= 0) ready = false;
+		}
+
+		@Override
+		public void onError(Throwable t) {
+			throw new AssertionError(t);
+		}
+
+		@Override
+		public void onCompleted() {
+			completed = true;
+		}
+
+		@Override
+		public void request(int count) {
+			inboundRequested += count;
+		}
+
+		@Override
+		public boolean isCancelled() {
+			return false;
+		}
+
+		@Override
+		public void setOnCancelHandler(Runnable handler) { }
+
+		@Override
+		public void setCompression(String compression) { }
+
+		@Override
+		public void disableAutoRequest() { }
+
+		@Override
+		public void disableAutoInboundFlowControl() { }
+
+		@Override
+		public void setMessageCompression(boolean enable) { }
+	}
+}
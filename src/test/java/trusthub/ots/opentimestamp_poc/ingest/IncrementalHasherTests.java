@@ -0,0 +1,110 @@
+package trusthub.ots.opentimestamp_poc.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class IncrementalHasherTests {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void resumesAfterAppendHashingOnlyNewBytes() throws Exception {
+		Random random = new Random(1);
+		byte[] first = new byte[3_000_001];
+		byte[] second = new byte[12_345];
+		random.nextBytes(first);
+		random.nextBytes(second);
+		Path log = dir.resolve("audit.log");
+		Files.write(log, first);
+
+		IncrementalHasher.Result r1 = IncrementalHasher.hash(log, null, 4096);
+		assertFalse(r1.resumed());
+		assertArrayEquals(HashUtil.newSha256().digest(first), r1.digest());
+
+		Files.write(log, second, StandardOpenOption.APPEND);
+		IncrementalHasher.Result r2 = IncrementalHasher.hash(log, r1.checkpoint(), 4096);
+		assertTrue(r2.resumed());
+		assertEquals(second.length, r2.hashedBytes());
+		assertEquals(first.length + second.length, r2.size());
+		var md = HashUtil.newSha256();
+		md.update(first);
+		md.update(second);
+		assertArrayEquals(md.digest(), r2.digest());
+	}
+
+	@Test
+	void rehashesFromScratchWhenTruncatedOrTailRewritten() throws Exception {
+		byte[] data = new byte[100_000];
+		new Random(2).nextBytes(data);
+		Path log = dir.resolve("audit.log");
+		Files.write(log, data);
+		IncrementalHasher.Checkpoint c = IncrementalHasher.hash(log, null, 1024).checkpoint();
+
+		byte[] truncated = Arrays.copyOf(data, 50_000);
+		Files.write(log, truncated);
+		IncrementalHasher.Result r = IncrementalHasher.hash(log, c, 1024);
+		assertFalse(r.resumed());
+		assertArrayEquals(HashUtil.newSha256().digest(truncated), r.digest());
+
+		byte[] rewritten = Arrays.copyOf(data, 120_000);
+		rewritten[99_999] ^= 1;
+		Files.write(log, rewritten);
+		r = IncrementalHasher.hash(log, c, 1024);
+		assertFalse(r.resumed());
+		assertArrayEquals(HashUtil.newSha256().digest(rewritten), r.digest());
+	}
+
+	@Test
+	void checkpointSurvivesSaveAndLoad() throws Exception {
+		Path log = dir.resolve("audit.log");
+		Files.write(log, new byte[] { 1, 2, 3, 4, 5 });
+		IncrementalHasher.Checkpoint c = IncrementalHasher.hash(log, null, 64).checkpoint();
+		Path state = dir.resolve("audit.log.ots.state");
+		IncrementalHasher.save(state, c);
+
+		IncrementalHasher.Checkpoint loaded = IncrementalHasher.load(state).orElseThrow();
+		assertEquals(c.offset(), loaded.offset());
+		assertArrayEquals(c.midstate(), loaded.midstate());
+		assertArrayEquals(c.tailDigest(), loaded.tailDigest());
+		assertEquals(c.tailLength(), loaded.tailLength());
+		assertEquals(c.fileKey(), loaded.fileKey());
+
+		Files.writeString(state, "offset=basura");
+		assertTrue(IncrementalHasher.load(state).isEmpty());
+	}
+
+	@Test
+	void inconsistentCheckpointIsDiscardedOnLoad() throws Exception {
+		Path log = dir.resolve("audit.log");
+		Files.write(log, new byte[100]);
+		IncrementalHasher.Checkpoint c = IncrementalHasher.hash(log, null, 64).checkpoint();
+		Path state = dir.resolve("audit.log.ots.state");
+
+		byte[] truncated = Arrays.copyOf(c.midstate(), 10);
+		IncrementalHasher.save(state, new IncrementalHasher.Checkpoint(c.offset(), truncated, c.tailDigest(), c.tailLength(), c.fileKey()));
+		assertTrue(IncrementalHasher.load(state).isEmpty());
+
+		IncrementalHasher.save(state, new IncrementalHasher.Checkpoint(c.offset() + 1, c.midstate(), c.tailDigest(), c.tailLength(), c.fileKey()));
+		assertTrue(IncrementalHasher.load(state).isEmpty());
+
+		IncrementalHasher.save(state, new IncrementalHasher.Checkpoint(c.offset(), c.midstate(), c.tailDigest(), -1, c.fileKey()));
+		assertTrue(IncrementalHasher.load(state).isEmpty());
+
+		IncrementalHasher.save(state, new IncrementalHasher.Checkpoint(c.offset(), c.midstate(), c.tailDigest(), (int) c.offset() + 1, c.fileKey()));
+		assertTrue(IncrementalHasher.load(state).isEmpty());
+	}
+}
@@ -0,0 +1,114 @@
+package trusthub.ots.opentimestamp_poc.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.cluster.InMemoryCoordinationStore;
+import trusthub.ots.opentimestamp_poc.cluster.UpgradeShardCoordinator;
+import trusthub.ots.opentimestamp_poc.dto.UpgradeEvent;
+import trusthub.ots.opentimestamp_poc.dto.UpgradeResult;
+
+class UpgradeSubscriptionServiceTests {
+
+	private static final int SHARDS = 16;
+	private static final Duration LEASE_TTL = Duration.ofSeconds(30);
+	private static final byte[] OTS = { 1, 2, 3 };
+	private static final byte[] UPGRADED = { 4, 5, 6 };
+
+	@Test
+	void proofRegisteredOnNonOwnerIsUpgradedByOwnerAndDelivered() throws Exception {
+		InMemoryCoordinationStore store = new InMemoryCoordinationStore();
+		UpgradeShardCoordinator a = new UpgradeShardCoordinator(store, "a", SHARDS, LEASE_TTL, true);
+		UpgradeShardCoordinator b = new UpgradeShardCoordinator(store, "b", SHARDS, LEASE_TTL, true);
+		a.rebalance();
+		b.rebalance();
+		a.rebalance();
+		b.rebalance();
+
+		String digest = digestOwnedBy(b, a);
+		OpenTimestampsService ots = mock(OpenTimestampsService.class);
+		when(ots.digestHex(any())).thenReturn(digest);
+		when(ots.upgradeInBackground(any())).thenReturn(Mono.just(new UpgradeResult(true, UPGRADED)));
+		UpgradeSubscriptionService nodeA = service(ots, a, store);
+		UpgradeSubscriptionService nodeB = service(ots, b, store);
+
+		// el POST y la suscripción SSE llegan al nodo que NO es dueño del shard
+		assertEquals(digest, nodeA.register(OTS).digest());
+		CompletableFuture<List<UpgradeEvent>> events = nodeA.subscribe(digest).orElseThrow().collectList().toFuture();
+
+		nodeA.pollPending();
+		verify(ots, never()).upgradeInBackground(any());
+
+		nodeB.pollPending();
+		verify(ots, times(1)).upgradeInBackground(any());
+
+		// el resultado lo escribió B en el store; A lo entrega a su suscriptor
+		nodeA.syncWatchers();
+		List<UpgradeEvent> received = events.get(2, TimeUnit.SECONDS);
+		assertEquals(List.of("PENDING", "UPGRADED"), received.stream().map(UpgradeEvent::getStatus).toList());
+		assertArrayEquals(UPGRADED, received.get(1).getOts());
+		assertTrue(nodeA.getWatchers().isEmpty());
+
+		// ya resuelto: una nueva ronda no vuelve a llamar a los calendarios
+		nodeB.pollPending();
+		verify(ots, times(1)).upgradeInBackground(any());
+	}
+
+	@Test
+	void reconnectingClientGetsResultUntilRetentionExpires() throws Exception {
+		InMemoryCoordinationStore store = new InMemoryCoordinationStore();
+		UpgradeShardCoordinator single = new UpgradeShardCoordinator(store, "a", SHARDS, LEASE_TTL, false);
+		String digest = "ab".repeat(32);
+		OpenTimestampsService ots = mock(OpenTimestampsService.class);
+		when(ots.digestHex(any())).thenReturn(digest);
+		when(ots.upgradeInBackground(any())).thenReturn(Mono.just(new UpgradeResult(true, UPGRADED)));
+
+		UpgradeSubscriptionService service = service(ots, single, store);
+		assertEquals("PENDING", service.register(OTS).status());
+		service.pollPending();
+		// registrar de nuevo un .ots ya resuelto devuelve el estado real
+		assertEquals("UPGRADED", service.register(OTS).status());
+
+		// la conexión original se cortó antes del evento: al reconectar recibe el resultado
+		List<UpgradeEvent> replay = service.subscribe(digest).orElseThrow().collectList().block(Duration.ofSeconds(2));
+		assertEquals(1, replay.size());
+		assertEquals("UPGRADED", replay.get(0).getStatus());
+		assertArrayEquals(UPGRADED, replay.get(0).getOts());
+
+		UpgradeSubscriptionService noRetention = new UpgradeSubscriptionService(ots, single, store,
+				Duration.ofHours(48), Duration.ZERO, 4);
+		Thread.sleep(5);
+		noRetention.pollPending();
+		assertFalse(noRetention.subscribe(digest).isPresent());
+	}
+
+	private static UpgradeSubscriptionService service(OpenTimestampsService ots, UpgradeShardCoordinator coordinator,
+													  InMemoryCoordinationStore store) {
+		return new UpgradeSubscriptionService(ots, coordinator, store, Duration.ofHours(48), Duration.ofHours(24), 4);
+	}
+
+	/** Un digest cuyo shard tiene {@code owner} y no {@code other}. */
+	private static String digestOwnedBy(UpgradeShardCoordinator owner, UpgradeShardCoordinator other) {
+		for (int prefix = 0; prefix < 65536; prefix += 65536 / SHARDS) {
+			String digest = String.format("%04x", prefix) + "0".repeat(60);
+			if (owner.owns(digest) && !other.owns(digest)) return digest;
+		}
+		throw new AssertionError("el nodo " + owner.getNodeId() + " no tiene shards");
+	}
+}
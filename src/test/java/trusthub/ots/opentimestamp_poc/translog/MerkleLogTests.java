@@ -0,0 +1,94 @@
+package trusthub.ots.opentimestamp_poc.translog;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class MerkleLogTests {
+
+	private static final int N = 37;
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void rootsMatchReferenceTreeHash() throws Exception {
+		List<byte[]> digests = digests(N);
+		try (MerkleLog log = new MerkleLog(dir)) {
+			for (int n = 1; n <= N; n++) {
+				log.append(digests.get(n - 1));
+				assertArrayEquals(referenceRoot(digests.subList(0, n)), log.rootHash(n), "raíz con " + n + " hojas");
+			}
+			assertArrayEquals(MerkleProofs.emptyRoot(), log.rootHash(0));
+		}
+	}
+
+	@Test
+	void inclusionProofsVerifyForEveryLeafAndSize() throws Exception {
+		try (MerkleLog log = new MerkleLog(dir)) {
+			log.appendAll(digests(N));
+			for (long size = 1; size <= N; size++) {
+				byte[] root = log.rootHash(size);
+				for (long i = 0; i < size; i++) {
+					List<byte[]> path = log.inclusionProof(i, size);
+					assertTrue(MerkleProofs.verifyInclusion(i, size, log.leafHash(i), path, root), "inclusión " + i + "/" + size);
+					assertFalse(MerkleProofs.verifyInclusion(i, size, MerkleProofs.leafHash(new byte[32]), path, root));
+				}
+			}
+		}
+	}
+
+	@Test
+	void consistencyProofsVerifyForEveryPairOfSizes() throws Exception {
+		try (MerkleLog log = new MerkleLog(dir)) {
+			log.appendAll(digests(N));
+			for (long m = 0; m <= N; m++) {
+				for (long n = m; n <= N; n++) {
+					List<byte[]> proof = log.consistencyProof(m, n);
+					assertTrue(MerkleProofs.verifyConsistency(m, n, log.rootHash(m), log.rootHash(n), proof), "consistencia " + m + "->" + n);
+					if (m > 0 && m < n) {
+						assertFalse(MerkleProofs.verifyConsistency(m, n, log.rootHash(n), log.rootHash(n), proof));
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void reopenedLogKeepsEntriesAndKeepsAppending() throws Exception {
+		List<byte[]> digests = digests(N);
+		try (MerkleLog log = new MerkleLog(dir)) {
+			log.appendAll(digests.subList(0, 20));
+		}
+		try (MerkleLog log = new MerkleLog(dir)) {
+			assertEquals(20, log.size());
+			log.appendAll(digests.subList(20, N));
+			assertArrayEquals(referenceRoot(digests), log.rootHash(N));
+			assertArrayEquals(digests.get(7), log.entry(7));
+		}
+	}
+
+	private static List<byte[]> digests(int n) {
+		List<byte[]> out = new ArrayList<>();
+		for (int i = 0; i < n; i++) out.add(HashUtil.newSha256().digest(("doc-" + i).getBytes()));
+		return out;
+	}
+
+	/** MTH de RFC 6962 §2.1, recursivo y sin optimizaciones. */
+	private static byte[] referenceRoot(List<byte[]> digests) {
+		if (digests.isEmpty()) return MerkleProofs.emptyRoot();
+		if (digests.size() == 1) return MerkleProofs.leafHash(digests.get(0));
+		int k = Integer.highestOneBit(digests.size() - 1);
+		return MerkleProofs.nodeHash(referenceRoot(digests.subList(0, k)), referenceRoot(digests.subList(k, digests.size())));
+	}
+}
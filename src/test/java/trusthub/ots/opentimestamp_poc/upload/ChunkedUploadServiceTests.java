@@ -0,0 +1,105 @@
+package trusthub.ots.opentimestamp_poc.upload;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.util.unit.DataSize;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import trusthub.ots.opentimestamp_poc.executor.ExecutionLanes;
+import trusthub.ots.opentimestamp_poc.service.OpenTimestampsService;
+import trusthub.ots.opentimestamp_poc.upload.ChunkedUploadService.CorruptSessionException;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class ChunkedUploadServiceTests {
+
+	private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+	@TempDir
+	Path dir;
+
+	private ExecutionLanes lanes;
+	private UploadSessionStore store;
+	private OpenTimestampsService ots;
+	private ChunkedUploadService uploads;
+
+	@BeforeEach
+	void setUp() {
+		lanes = new ExecutionLanes(2, 100, 2, 100, 1, 100, new SimpleMeterRegistry());
+		store = new UploadSessionStore(dir);
+		ots = mock(OpenTimestampsService.class);
+		when(ots.stampDigestsReactive(anyList())).thenReturn(Mono.just(List.of(new byte[] { 1 })));
+		uploads = new ChunkedUploadService(store, ots, lanes, DataSize.ofMegabytes(1), Duration.ofHours(1));
+	}
+
+	@AfterEach
+	void tearDown() {
+		lanes.shutdown();
+	}
+
+	@Test
+	void chunkInFlightBlocksOtherChunksAndFinish() throws Exception {
+		String id = uploads.create("doc.pdf").block(TIMEOUT).id();
+		Sinks.Many<DataBuffer> slow = Sinks.many().unicast().onBackpressureBuffer();
+		CompletableFuture<UploadSession> first = uploads.append(id, 0, slow.asFlux()).toFuture();
+		// la reserva se toma al suscribirse, antes de leer la sesión: el segundo chunk no parte del mismo estado
+		assertThrows(IllegalStateException.class, () -> uploads.append(id, 0, chunk("otro")).block(TIMEOUT));
+		assertThrows(IllegalStateException.class, () -> uploads.finish(id).block(TIMEOUT));
+		// cancelar tampoco borra la sesión debajo del chunk que se está escribiendo
+		assertThrows(IllegalStateException.class, () -> uploads.cancel(id).block(TIMEOUT));
+		assertTrue(store.find(id).isPresent());
+
+		slow.tryEmitNext(buffer("hola "));
+		slow.tryEmitComplete();
+		assertEquals(5, first.get().offset());
+
+		assertEquals(11, uploads.append(id, 5, chunk("mundo!")).block(TIMEOUT).offset());
+		ChunkedUploadService.FinishedUpload done = uploads.finish(id).block(TIMEOUT);
+		assertArrayEquals(HashUtil.newSha256().digest("hola mundo!".getBytes(StandardCharsets.UTF_8)), done.digest());
+		assertTrue(store.find(id).isEmpty());
+	}
+
+	@Test
+	void corruptPersistedStateIsNotReportedAsOversizedChunk() throws Exception {
+		String id = uploads.create("doc.pdf").block(TIMEOUT).id();
+		UploadSession session = store.find(id).orElseThrow();
+		store.save(new UploadSession(id, session.filename(), session.createdAtMillis(), session.updatedAtMillis(), new byte[] { 9 }));
+
+		assertThrows(CorruptSessionException.class, () -> uploads.append(id, 0, chunk("x")).block(TIMEOUT));
+		// la reserva se liberó: el segundo intento falla igual y no por "operación en curso"
+		assertThrows(CorruptSessionException.class, () -> uploads.append(id, 0, chunk("x")).block(TIMEOUT));
+		assertThrows(CorruptSessionException.class, () -> uploads.finish(id).block(TIMEOUT));
+
+		Files.writeString(dir.resolve(id + ".session"), "state=zz\n");
+		assertThrows(CorruptSessionException.class, () -> uploads.find(id).block(TIMEOUT));
+	}
+
+	private static Flux<DataBuffer> chunk(String content) {
+		return Flux.just(buffer(content));
+	}
+
+	private static DataBuffer buffer(String content) {
+		return DefaultDataBufferFactory.sharedInstance.wrap(content.getBytes(StandardCharsets.UTF_8));
+	}
+}
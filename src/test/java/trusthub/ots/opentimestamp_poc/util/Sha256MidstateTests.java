@@ -0,0 +1,59 @@
+package trusthub.ots.opentimestamp_poc.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+class Sha256MidstateTests {
+
+	@Test
+	void matchesMessageDigestForEveryPaddingCase() {
+		Random random = new Random(1);
+		for (int len = 0; len <= 300; len++) {
+			byte[] data = new byte[len];
+			random.nextBytes(data);
+			Sha256Midstate s = new Sha256Midstate();
+			s.update(data);
+			assertArrayEquals(HashUtil.newSha256().digest(data), s.digest(), "len=" + len);
+		}
+	}
+
+	@Test
+	void exportAndRestoreAtArbitraryChunkBoundaries() {
+		Random random = new Random(2);
+		byte[] data = new byte[100_000];
+		random.nextBytes(data);
+		Sha256Midstate s = new Sha256Midstate();
+		int pos = 0;
+		while (pos < data.length) {
+			int n = Math.min(data.length - pos, random.nextInt(5000));
+			if (random.nextBoolean()) {
+				s.update(data, pos, n);
+			} else {
+				s.update(ByteBuffer.allocateDirect(n).put(data, pos, n).flip());
+			}
+			pos += n;
+			byte[] exported = s.export();
+			assertEquals(pos, s.byteCount());
+			// el digest intermedio no altera el estado
+			assertArrayEquals(s.digest(), s.digest());
+			s = Sha256Midstate.restore(exported);
+		}
+		assertArrayEquals(HashUtil.newSha256().digest(data), s.digest());
+	}
+
+	@Test
+	void rejectsCorruptState() {
+		Sha256Midstate s = new Sha256Midstate();
+		s.update(new byte[70]);
+		byte[] exported = s.export();
+		exported[exported.length - 7] = 9; // largo del parcial que no corresponde al contador
+		assertThrows(IllegalArgumentException.class, () -> Sha256Midstate.restore(exported));
+		assertThrows(IllegalArgumentException.class, () -> Sha256Midstate.restore(new byte[3]));
+	}
+}
@@ -0,0 +1,150 @@
+package trusthub.ots.opentimestamp_poc.verify;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import com.eternitywall.ots.Timestamp;
+import com.eternitywall.ots.attestation.BitcoinBlockHeaderAttestation;
+import com.eternitywall.ots.attestation.PendingAttestation;
+import com.eternitywall.ots.op.OpAppend;
+import com.eternitywall.ots.op.OpSHA256;
+
+import reactor.core.publisher.Mono;
+import trusthub.ots.opentimestamp_poc.explorer.BlockExplorer;
+import trusthub.ots.opentimestamp_poc.util.HashUtil;
+
+class AttestationVerifierTests {
+
+	@Test
+	void earliestConfirmedBranchWinsEvenWhenItAnswersLast() throws Exception {
+		Proof proof = new Proof();
+		// la rama más baja (800000) es la más lenta: igual tiene que ganar
+		BlockExplorer explorer = proof.explorer(Duration.ofMillis(300), Duration.ofMillis(20), new AtomicBoolean());
+
+		AttestationCheck first = new AttestationVerifier(explorer).firstConfirmed(proof.branches).block(Duration.ofSeconds(2));
+
+		assertEquals(800_000, first.block_height());
+		assertEquals("h0", first.block_hash());
+		assertEquals("2023-11-14T22:13:20Z", first.block_time());
+		assertTrue(first.confirmed());
+	}
+
+	@Test
+	void lowestConfirmedBranchCancelsHigherOnes() throws Exception {
+		Proof proof = new Proof();
+		AtomicBoolean highCancelled = new AtomicBoolean();
+		BlockExplorer explorer = proof.explorer(Duration.ofMillis(20), Duration.ofSeconds(5), highCancelled);
+		AttestationVerifier verifier = new AttestationVerifier(explorer);
+
+		AttestationCheck first = verifier.firstConfirmed(proof.branches).block(Duration.ofSeconds(2));
+		assertEquals(800_000, first.block_height());
+		// la cancelación llega desde el hilo que emitió el ganador, puede ser apenas después del block()
+		for (int i = 0; i < 100 && !highCancelled.get(); i++) Thread.sleep(10);
+		assertTrue(highCancelled.get());
+
+		List<AttestationCheck> all = new AttestationVerifier(proof.explorer(Duration.ZERO, Duration.ZERO, new AtomicBoolean()))
+				.checkAll(proof.branches).block(Duration.ofSeconds(10));
+		assertEquals(2, all.size());
+		assertEquals(800_000, all.get(0).block_height());
+		assertTrue(all.get(0).confirmed());
+	}
+
+	@Test
+	void higherBranchWinsWhenLowerOneFails() {
+		Proof proof = new Proof();
+		Map<String, String> blocks = new HashMap<>(proof.blocks);
+		blocks.put("/block/h0", block(new byte[32], 1_700_000_000L)); // merkle root que no coincide
+		BlockExplorer explorer = new BlockExplorer() {
+			@Override
+			public Optional<String> get(String path) {
+				return Optional.ofNullable(blocks.get(path));
+			}
+
+			@Override
+			public Mono<Optional<String>> getReactive(String path) {
+				return Mono.just(Optional.ofNullable(blocks.get(path)));
+			}
+		};
+
+		AttestationCheck first = new AttestationVerifier(explorer).firstConfirmed(proof.branches).block(Duration.ofSeconds(2));
+
+		assertEquals(800_100, first.block_height());
+		assertTrue(first.confirmed());
+	}
+
+	/** Proof con dos attestations de Bitcoin (800000 y 800100) y una pendiente. */
+	private static final class Proof {
+		final List<AttestationVerifier.Branch> branches;
+		final Map<String, String> blocks;
+
+		Proof() {
+			Timestamp root = new Timestamp(HashUtil.newSha256().digest("doc".getBytes(StandardCharsets.UTF_8)));
+			Timestamp low = root.add(new OpAppend(new byte[] { 1 })).add(new OpSHA256());
+			low.attestations.add(new BitcoinBlockHeaderAttestation(800_000));
+			Timestamp high = root.add(new OpAppend(new byte[] { 2 })).add(new OpSHA256());
+			high.attestations.add(new BitcoinBlockHeaderAttestation(800_100));
+			root.add(new OpAppend(new byte[] { 3 })).attestations
+					.add(new PendingAttestation("https://a.example".getBytes(StandardCharsets.UTF_8)));
+			branches = AttestationVerifier.bitcoinBranches(root);
+			assertEquals(2, branches.size());
+			blocks = Map.of(
+					"/block-height/800000", "h0",
+					"/block-height/800100", "h1",
+					"/block/h0", block(low.msg, 1_700_000_000L),
+					"/block/h1", block(high.msg, 1_700_060_000L));
+		}
+
+		/** Explorer con demora distinta para el bloque de cada rama; marca si la rama alta se canceló. */
+		BlockExplorer explorer(Duration lowDelay, Duration highDelay, AtomicBoolean highCancelled) {
+			return new BlockExplorer() {
+				@Override
+				public Optional<String> get(String path) {
+					return Optional.ofNullable(blocks.get(path));
+				}
+
+				@Override
+				public Mono<Optional<String>> getReactive(String path) {
+					Mono<Optional<String>> body = Mono.just(Optional.ofNullable(blocks.get(path)));
+					if (path.equals("/block/h0")) return body.delayElement(lowDelay);
+					if (path.equals("/block/h1")) return body.delayElement(highDelay).doOnCancel(() -> highCancelled.set(true));
+					return body;
+				}
+			};
+		}
+	}
+
+	@Test
+	void wrongMerkleRootIsReported() {
+		byte[] commitment = HashUtil.newSha256().digest("x".getBytes(StandardCharsets.UTF_8));
+		BlockExplorer explorer = new BlockExplorer() {
+			@Override
+			public Optional<String> get(String path) {
+				return Optional.empty();
+			}
+
+			@Override
+			public Mono<Optional<String>> getReactive(String path) {
+				return Mono.just(Optional.of(path.startsWith("/block-height/") ? "h" : block(new byte[32], 1L)));
+			}
+		};
+		AttestationCheck check = new AttestationVerifier(explorer)
+				.check(new AttestationVerifier.Branch(1, commitment)).block();
+		assertEquals(AttestationCheck.Result.MERKLE_MISMATCH, check.result());
+	}
+
+	/** JSON de /block/{hash} de Esplora: merkle_root en orden de display (invertida). */
+	private static String block(byte[] commitment, long time) {
+		return "{\"id\":\"x\",\"timestamp\":" + time + ",\"merkle_root\":\""
+				+ HashUtil.bytesToHex(AttestationVerifier.reversed(commitment)) + "\"}";
+	}
+}